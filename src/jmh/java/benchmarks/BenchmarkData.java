@@ -0,0 +1,63 @@
+package benchmarks;
+
+import model.Customer;
+import model.Product;
+import model.Supermarket;
+
+import java.time.LocalTime;
+import java.util.Random;
+
+/**
+ * Seeded synthetic days in memory for the benchmarks, so every run measures the same data.
+ * The day has 1000 products, 500 zip codes and carts of 1 to 10 products, customers arrive
+ * uniformly between 08:00 and 22:00. Customers with the same queuedAt and zip code are equal,
+ * so a day has slightly fewer customers than requested when the number comes near the 25 million combinations.
+ */
+final class BenchmarkData {
+
+    static final LocalTime OPEN_TIME = LocalTime.of(8, 0);
+    static final LocalTime CLOSING_TIME = LocalTime.of(22, 0);
+    private static final int NUMBER_OF_PRODUCTS = 1000;
+    private static final int NUMBER_OF_ZIP_CODES = 500;
+    private static final int MAX_CART_SIZE = 10;
+    private static final int MAX_QUANTITY = 5;
+    private static final long SEED = 20231;
+
+    private BenchmarkData() {
+    }
+
+    static Product[] products() {
+        Product[] products = new Product[NUMBER_OF_PRODUCTS];
+        for (int i = 0; i < NUMBER_OF_PRODUCTS; i++) {
+            products[i] = new Product(String.format("PRD%04d", i), "Product " + i, (i % 397 + 19) / 20.0);
+        }
+        return products;
+    }
+
+    /**
+     * @return supermarket with the customers in the customers set
+     */
+    static Supermarket supermarket(int numberOfCustomers) {
+        Supermarket supermarket = new Supermarket("Synthetic", OPEN_TIME, CLOSING_TIME);
+        Product[] products = products();
+        for (Product product : products) {
+            supermarket.getProducts().add(product);
+        }
+        Random random = new Random(SEED);
+        int openSeconds = CLOSING_TIME.toSecondOfDay() - OPEN_TIME.toSecondOfDay();
+        for (int i = 0; i < numberOfCustomers; i++) {
+            Customer customer = new Customer(OPEN_TIME.plusSeconds(random.nextInt(openSeconds)),
+                    zipCode(random.nextInt(NUMBER_OF_ZIP_CODES)));
+            int cartSize = 1 + random.nextInt(MAX_CART_SIZE);
+            for (int line = 0; line < cartSize; line++) {
+                customer.addToCart(products[random.nextInt(products.length)], 1 + random.nextInt(MAX_QUANTITY));
+            }
+            supermarket.getCustomers().add(customer);
+        }
+        return supermarket;
+    }
+
+    private static String zipCode(int index) {
+        return String.format("%04d%c%c", 1000 + index, (char) ('A' + index % 26), (char) ('A' + index / 26 % 26));
+    }
+}
@@ -0,0 +1,87 @@
+package benchmarks;
+
+import model.Supermarket;
+import org.openjdk.jmh.annotations.*;
+import utilities.ParallelSupermarketLoader;
+import utilities.SupermarketBuilder;
+import utilities.SupermarketGenerator;
+import utilities.SupermarketSnapshot;
+import utilities.SupermarketStreamLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse throughput of the loaders on the files in src/main/resources and on synthetic days.
+ * A file parameter that is a number is the number of customers of a day of the SupermarketGenerator,
+ * which is generated in a temporary file once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class LoadBenchmark {
+
+    private static final long SEED = 20231;
+
+    @Param({"src/main/resources/jambi1Json.txt", "src/main/resources/jambi5Json.txt",
+            "src/main/resources/jambiBigJson.txt", "1000", "100000", "1000000"})
+    public String file;
+
+    private Path textFile;
+    private Path snapshotFile;
+
+    @Setup(Level.Trial)
+    public void writeFiles() throws IOException {
+        if (file.chars().allMatch(Character::isDigit)) {
+            textFile = Files.createTempFile("day", ".txt");
+            new SupermarketGenerator(SEED).customers(Long.parseLong(file)).generate(textFile.toString());
+        } else {
+            textFile = Path.of(file);
+        }
+        snapshotFile = Files.createTempFile("day", ".snapshot");
+        SupermarketSnapshot.convert(textFile.toString(), snapshotFile.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        if (!textFile.toString().equals(file)) {
+            Files.deleteIfExists(textFile);
+        }
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    @Benchmark
+    public Supermarket builder() {
+        return new SupermarketBuilder(textFile.toString()).initializeSupermarket().addProducts().addCustomers().create();
+    }
+
+    @Benchmark
+    public Supermarket streamLoader() {
+        return new SupermarketStreamLoader(textFile.toString()).load();
+    }
+
+    @Benchmark
+    public Supermarket streamedStatistics() {
+        return new SupermarketStreamLoader(textFile.toString()).retainCustomers(false).load();
+    }
+
+    @Benchmark
+    public Supermarket parallelLoader() {
+        return new ParallelSupermarketLoader(textFile.toString()).load();
+    }
+
+    @Benchmark
+    public Supermarket snapshot() {
+        return SupermarketSnapshot.read(snapshotFile.toString());
+    }
+
+    @Benchmark
+    public Supermarket columnarSnapshot() {
+        return SupermarketSnapshot.readColumnar(snapshotFile.toString());
+    }
+}
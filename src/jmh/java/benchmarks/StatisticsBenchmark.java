@@ -0,0 +1,161 @@
+package benchmarks;
+
+import model.Customer;
+import model.Product;
+import model.Supermarket;
+import model.SupermarketStatistics;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of every statistic of a Supermarket on synthetic days of 10^3 to 10^7 customers,
+ * with the customers in the customers set, in a columnar customer table or with live statistics.
+ * A day of 10^7 customers in the customers set needs a heap of about 16 GB.
+ * <p>
+ * The result cache is off and the statistics of the day are invalidated before every invocation,
+ * so every query calculates its statistics again. The benchmarks starting with cached measure
+ * the same queries when they are answered from the cached statistics and results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class StatisticsBenchmark {
+
+    private static final int INTERVAL_IN_MINUTES = 15;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int customers;
+
+    @Param({"SET", "COLUMNAR", "LIVE"})
+    public String storage;
+
+    private Supermarket supermarket;
+
+    @Setup(Level.Trial)
+    public void createDay() {
+        supermarket = BenchmarkData.supermarket(customers);
+        if (storage.equals("COLUMNAR")) {
+            supermarket.useColumnarStorage();
+        } else if (storage.equals("LIVE")) {
+            supermarket.trackLiveStatistics();
+        }
+        supermarket.setResultCacheCapacity(0);
+    }
+
+    @Setup(Level.Invocation)
+    public void invalidateStatistics() {
+        // the same opening time, which counts as a modification of the day
+        supermarket.setOpenTime(supermarket.getOpenTime());
+    }
+
+    /**
+     * the same day, with the statistics and results cached after the first invocation
+     */
+    @State(Scope.Benchmark)
+    public static class CachedDay {
+
+        private Supermarket supermarket;
+
+        @Setup(Level.Trial)
+        public void createDay(StatisticsBenchmark benchmark) {
+            supermarket = BenchmarkData.supermarket(benchmark.customers);
+            if (benchmark.storage.equals("COLUMNAR")) {
+                supermarket.useColumnarStorage();
+            } else if (benchmark.storage.equals("LIVE")) {
+                supermarket.trackLiveStatistics();
+            }
+        }
+    }
+
+    @Benchmark
+    public SupermarketStatistics calculateStatistics() {
+        return supermarket.calculateStatistics();
+    }
+
+    @Benchmark
+    public int getTotalNumberOfItems() {
+        return supermarket.getTotalNumberOfItems();
+    }
+
+    @Benchmark
+    public Map<Product, Integer> findNumberOfProductsBought() {
+        return supermarket.findNumberOfProductsBought();
+    }
+
+    @Benchmark
+    public Map<Product, Set<String>> findZipcodesPerProduct() {
+        return supermarket.findZipcodesPerProduct();
+    }
+
+    @Benchmark
+    public Map<String, Map<Product, Integer>> findNumberOfProductsByZipcode() {
+        return supermarket.findNumberOfProductsByZipcode();
+    }
+
+    @Benchmark
+    public Map<LocalTime, Integer> countCustomersPerInterval() {
+        return supermarket.countCustomersPerInterval(INTERVAL_IN_MINUTES);
+    }
+
+    @Benchmark
+    public double findHighestBill() {
+        return supermarket.findHighestBill();
+    }
+
+    @Benchmark
+    public Customer findMostPayingCustomer() {
+        return supermarket.findMostPayingCustomer();
+    }
+
+    @Benchmark
+    public double findTotalRevenue() {
+        return supermarket.findTotalRevenue();
+    }
+
+    @Benchmark
+    public double findAverageRevenue() {
+        return supermarket.findAverageRevenue();
+    }
+
+    @Benchmark
+    public Map<String, Double> getRevenueByZipcode() {
+        return supermarket.getRevenueByZipcode();
+    }
+
+    @Benchmark
+    public Set<Product> findMostPopularProducts() {
+        return supermarket.findMostPopularProducts();
+    }
+
+    @Benchmark
+    public Map<String, Product> findMostBoughtProductByZipcode() {
+        return supermarket.findMostBoughtProductByZipcode();
+    }
+
+    @Benchmark
+    public Map<LocalTime, Double> calculateRevenuePerInterval() {
+        return supermarket.calculateRevenuePerInterval(INTERVAL_IN_MINUTES);
+    }
+
+    @Benchmark
+    public SupermarketStatistics cachedCalculateStatistics(CachedDay day) {
+        return day.supermarket.calculateStatistics();
+    }
+
+    @Benchmark
+    public double cachedFindTotalRevenue(CachedDay day) {
+        return day.supermarket.findTotalRevenue();
+    }
+
+    @Benchmark
+    public Map<LocalTime, Integer> cachedCountCustomersPerInterval(CachedDay day) {
+        return day.supermarket.countCustomersPerInterval(INTERVAL_IN_MINUTES);
+    }
+}
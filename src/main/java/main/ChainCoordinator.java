@@ -0,0 +1,31 @@
+package main;
+
+import utilities.StorePartial;
+import utilities.SupermarketChainLoader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes the partial statistics of the stores of a shard, or merges the partials of all shards into the report of the chain
+ */
+public class ChainCoordinator {
+
+    public static void main(String[] args) {
+        if (args.length >= 3 && args[0].equals("shard")) {
+            List<String> storeFiles = Arrays.asList(args).subList(2, args.length);
+            List<StorePartial> partials = new SupermarketChainLoader(args[1], storeFiles).loadPartials();
+            SupermarketChainLoader.mergePartials(partials).write(args[1]);
+        } else if (args.length >= 3 && args[0].equals("merge")) {
+            List<StorePartial> partials = new ArrayList<>();
+            for (int i = 2; i < args.length; i++) {
+                partials.add(StorePartial.read(args[i]));
+            }
+            SupermarketChainLoader.merge(args[1], partials).printStatistics();
+        } else {
+            System.out.println("Usage: ChainCoordinator shard <partial file> <store file>...");
+            System.out.println("       ChainCoordinator merge <chain name> <partial file>...");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package main;
+
+import utilities.SupermarketGenerator;
+
+/**
+ * Generates a synthetic supermarket file in the json text format
+ */
+public class DayGenerator {
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 5) {
+            System.out.println("Usage: DayGenerator <supermarket file> <customers> [products] [zip codes] [seed]");
+            return;
+        }
+        SupermarketGenerator generator = new SupermarketGenerator(args.length > 4 ? Long.parseLong(args[4]) : 1)
+                .customers(Long.parseLong(args[1]));
+        if (args.length > 2) {
+            generator.products(Integer.parseInt(args[2]));
+        }
+        if (args.length > 3) {
+            generator.zipCodes(Integer.parseInt(args[3]));
+        }
+        generator.generate(args[0]);
+    }
+}
@@ -0,0 +1,29 @@
+package main;
+
+import utilities.HistoryStore;
+import utilities.ParallelSupermarketLoader;
+
+import java.time.LocalDate;
+
+/**
+ * Appends a day to the history of a supermarket, or reports the statistics of a range of days of the history
+ */
+public class HistoryReport {
+
+    public static void main(String[] args) {
+        if (args.length == 4 && args[0].equals("append")) {
+            HistoryStore.open(args[1]).append(LocalDate.parse(args[2]), new ParallelSupermarketLoader(args[3]).load());
+        } else if (args.length == 4 && args[0].equals("report")) {
+            HistoryStore history = HistoryStore.open(args[1]);
+            LocalDate from = LocalDate.parse(args[2]);
+            LocalDate to = LocalDate.parse(args[3]);
+            history.load(from, to).printStatistics();
+            System.out.println("\n>>> Revenues per day");
+            history.findRevenuePerDay(from, to).forEach((date, revenue) ->
+                    System.out.printf("%s: \t%.2f%n", date, revenue));
+        } else {
+            System.out.println("Usage: HistoryReport append <history directory> <date> <supermarket file>");
+            System.out.println("       HistoryReport report <history directory> <from date> <to date>");
+        }
+    }
+}
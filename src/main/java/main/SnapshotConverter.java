@@ -0,0 +1,17 @@
+package main;
+
+import utilities.SupermarketSnapshot;
+
+/**
+ * Converts a supermarket file in the json text format to a binary snapshot
+ */
+public class SnapshotConverter {
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: SnapshotConverter <supermarket file> <snapshot file>");
+            return;
+        }
+        SupermarketSnapshot.convert(args[0], args[1]);
+    }
+}
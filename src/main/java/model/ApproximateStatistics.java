@@ -0,0 +1,205 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Approximate product statistics for days too large to count every zip code and product exactly.
+ * The memory use is set by the error bounds instead of by the number of customers:
+ * the zip codes per product are counted in a HyperLogLog per product, the customers per product in
+ * a fixed number of Space-Saving counters and the products per zip code in a Count-Min Sketch.
+ * Every estimate comes with the bounds of its true value.
+ */
+public class ApproximateStatistics {
+
+    public static final double DEFAULT_REACH_ERROR = 0.05;
+    public static final int DEFAULT_POPULAR_PRODUCT_COUNTERS = 1000;
+    public static final double DEFAULT_NUMBER_BOUGHT_EPSILON = 0.0001;
+    public static final double DEFAULT_NUMBER_BOUGHT_DELTA = 0.01;
+    // an interval of two standard errors contains the true value of about 95% of the estimates
+    private static final double REACH_CONFIDENCE = 0.95;
+
+    private int reachPrecision = HyperLogLog.precisionFor(DEFAULT_REACH_ERROR);
+    private int popularProductCounters = DEFAULT_POPULAR_PRODUCT_COUNTERS;
+    private double numberBoughtEpsilon = DEFAULT_NUMBER_BOUGHT_EPSILON;
+    private double numberBoughtDelta = DEFAULT_NUMBER_BOUGHT_DELTA;
+
+    private Map<Product, HyperLogLog> zipcodesPerProduct;
+    private SpaceSaving<Product> customersPerProduct;
+    private CountMinSketch numberBoughtByZipcode;
+    private Map<String, MostBought> mostBoughtByZipcode;
+
+    /**
+     * sets the relative standard error of the number of zip codes per product,
+     * every product takes 1.04^2 / error^2 bytes rounded up to a power of two
+     */
+    public ApproximateStatistics reachError(double relativeError) {
+        checkNotStarted();
+        this.reachPrecision = HyperLogLog.precisionFor(relativeError);
+        return this;
+    }
+
+    /**
+     * sets the number of products of which the number of customers is counted, which caps the memory use.
+     * the error of a count is at most the number of customers of all products divided by the counters
+     */
+    public ApproximateStatistics popularProductCounters(int counters) {
+        checkNotStarted();
+        if (counters < 1) {
+            throw new IllegalArgumentException("There must be at least 1 counter: " + counters);
+        }
+        this.popularProductCounters = counters;
+        return this;
+    }
+
+    /**
+     * sets the error of the number of products bought per zip code: with probability 1 - delta a number
+     * is at most epsilon times the total number of items too high. this takes e / epsilon * ln(1 / delta) counters
+     */
+    public ApproximateStatistics numberBoughtError(double epsilon, double delta) {
+        checkNotStarted();
+        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("Epsilon and delta must be between 0 and 1: " + epsilon + ", " + delta);
+        }
+        this.numberBoughtEpsilon = epsilon;
+        this.numberBoughtDelta = delta;
+        return this;
+    }
+
+    private void checkNotStarted() {
+        if (zipcodesPerProduct != null) {
+            throw new IllegalStateException("Error bounds can't be changed after customers have been added");
+        }
+    }
+
+    /**
+     * @return approximate statistics of the given customers with the default error bounds
+     */
+    public static ApproximateStatistics of(Collection<Customer> customers) {
+        ApproximateStatistics statistics = new ApproximateStatistics();
+        for (Customer customer : customers) {
+            statistics.add(customer);
+        }
+        return statistics;
+    }
+
+    public void add(Customer customer) {
+        if (zipcodesPerProduct == null) {
+            zipcodesPerProduct = new HashMap<>();
+            customersPerProduct = new SpaceSaving<>(popularProductCounters);
+            numberBoughtByZipcode = new CountMinSketch(numberBoughtEpsilon, numberBoughtDelta);
+            mostBoughtByZipcode = new HashMap<>();
+        }
+        String zipCode = customer.getZipCode();
+        long zipCodeHash = Hashing.hash(zipCode);
+        Cart cart = customer.getCart();
+        for (int line = 0; line < cart.size(); line++) {
+            Product product = cart.productAt(line);
+            zipcodesPerProduct.computeIfAbsent(product, newProduct -> new HyperLogLog(reachPrecision)).add(zipCodeHash);
+            customersPerProduct.add(product, 1);
+            long hash = Hashing.hash(zipCode, product.getCode());
+            numberBoughtByZipcode.add(hash, cart.quantityAt(line));
+            updateMostBought(zipCode, product, hash);
+        }
+    }
+
+    /**
+     * keeps the product with the highest estimate per zip code, so the products of a zip code don't have to be kept
+     */
+    private void updateMostBought(String zipCode, Product product, long hash) {
+        MostBought mostBought = mostBoughtByZipcode.get(zipCode);
+        if (mostBought == null) {
+            mostBoughtByZipcode.put(zipCode, new MostBought(product, hash));
+        } else if (!mostBought.product.equals(product)
+                && numberBoughtByZipcode.estimate(hash) > numberBoughtByZipcode.estimate(mostBought.hash)) {
+            mostBought.product = product;
+            mostBought.hash = hash;
+        }
+    }
+
+    /**
+     * @return Map with the estimated number of zip codes per product
+     */
+    public Map<Product, Estimate> getZipcodeReachPerProduct() {
+        Map<Product, Estimate> reach = new HashMap<>();
+        if (zipcodesPerProduct != null) {
+            zipcodesPerProduct.forEach((product, zipCodes) -> {
+                long estimate = zipCodes.estimate();
+                long error = (long) Math.ceil(2 * zipCodes.relativeStandardError() * estimate);
+                reach.put(product, new Estimate(estimate, Math.max(1, estimate - error), estimate + error, REACH_CONFIDENCE));
+            });
+        }
+        return reach;
+    }
+
+    /**
+     * @return relative standard error of the number of zip codes per product
+     */
+    public double getReachError() {
+        return HyperLogLog.relativeStandardError(reachPrecision);
+    }
+
+    /**
+     * the bounds of the counts are guaranteed, the true count lies between the count minus its error and the count
+     *
+     * @return Map with the k products bought by most customers and their number of customers, the highest number first
+     */
+    public Map<Product, Estimate> getMostPopularProducts(int k) {
+        return customersPerProduct == null ? new LinkedHashMap<>() : customersPerProduct.top(k);
+    }
+
+    /**
+     * @return the most the number of customers of a product can be too high
+     */
+    public long getPopularityErrorBound() {
+        return customersPerProduct == null ? 0 : customersPerProduct.errorBound();
+    }
+
+    /**
+     * @return Map with the most bought product per zip code and its estimated number bought
+     */
+    public Map<String, Map.Entry<Product, Estimate>> getMostBoughtProductByZipcode() {
+        Map<String, Map.Entry<Product, Estimate>> mostBoughtProducts = new HashMap<>();
+        if (mostBoughtByZipcode != null) {
+            mostBoughtByZipcode.forEach((zipCode, mostBought) -> mostBoughtProducts.put(zipCode,
+                    new AbstractMap.SimpleImmutableEntry<>(mostBought.product, estimateNumberBought(mostBought.hash))));
+        }
+        return mostBoughtProducts;
+    }
+
+    /**
+     * @return estimated number of the product bought by customers in the zip code
+     */
+    public Estimate estimateNumberBought(String zipCode, Product product) {
+        if (numberBoughtByZipcode == null) {
+            return new Estimate(0, 0, 0, 1.0);
+        }
+        return estimateNumberBought(Hashing.hash(zipCode, product.getCode()));
+    }
+
+    private Estimate estimateNumberBought(long hash) {
+        long estimate = numberBoughtByZipcode.estimate(hash);
+        return new Estimate(estimate, Math.max(0, estimate - numberBoughtByZipcode.errorBound()), estimate,
+                numberBoughtByZipcode.getConfidence());
+    }
+
+    /**
+     * @return the most a number bought per zip code can be too high, with probability getNumberBoughtConfidence()
+     */
+    public long getNumberBoughtErrorBound() {
+        return numberBoughtByZipcode == null ? 0 : numberBoughtByZipcode.errorBound();
+    }
+
+    public double getNumberBoughtConfidence() {
+        return 1 - numberBoughtDelta;
+    }
+
+    private static class MostBought {
+        private Product product;
+        private long hash;
+
+        MostBought(Product product, long hash) {
+            this.product = product;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Counts which products are bought together in the carts of the customers, for the support,
+ * confidence and lift of pairs of products. Only the pairs that occur are counted, as two product
+ * ids packed in one long key of a primitive hash map, so thousands of products don't need a matrix
+ * of all pairs. Partitions of the customers are counted in parallel and merged, each partition
+ * numbers the products in the order it sees them and a merge maps the ids of the other partition.
+ */
+public class BasketAnalysis {
+
+    private final List<Product> products = new ArrayList<>();
+    private final Map<Product, Integer> productIds = new HashMap<>();
+    private int[] basketsPerProduct = new int[16];
+    // the key is the pair of product ids with the lower id in the high 32 bits
+    private final LongIntHashMap basketsPerPair = new LongIntHashMap();
+    private int numberOfBaskets;
+    private volatile Neighbours neighbours;
+
+    private BasketAnalysis() {
+    }
+
+    /**
+     * counts the baskets of the customers in one thread
+     */
+    public static BasketAnalysis of(Collection<Customer> customers) {
+        BasketAnalysis analysis = new BasketAnalysis();
+        int[] basket = new int[16];
+        for (Customer customer : customers) {
+            Cart cart = customer.getCart();
+            if (basket.length < cart.size()) {
+                basket = new int[cart.size()];
+            }
+            for (int line = 0; line < cart.size(); line++) {
+                basket[line] = analysis.idOf(cart.productAt(line));
+            }
+            analysis.addBasket(basket, cart.size());
+        }
+        return analysis;
+    }
+
+    /**
+     * counts the baskets of all customers of the supermarket in partitions on a ForkJoinPool
+     */
+    public static BasketAnalysis of(Supermarket supermarket, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        CustomerTable customerTable = supermarket.getCustomerTable();
+        List<Customer> customers = customerTable != null ? customerTable.asCustomers() : new ArrayList<>(supermarket.getCustomers());
+        int partitionSize = Math.max(1, (customers.size() + parallelism - 1) / parallelism);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<BasketAnalysis>> partitions = new ArrayList<>();
+            for (int start = 0; start < customers.size(); start += partitionSize) {
+                List<Customer> partition = customers.subList(start, Math.min(customers.size(), start + partitionSize));
+                partitions.add(pool.submit(() -> of(partition)));
+            }
+            BasketAnalysis analysis = new BasketAnalysis();
+            for (Future<BasketAnalysis> partition : partitions) {
+                analysis.addAll(partition.get());
+            }
+            return analysis;
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Analysis of the baskets of " + supermarket.getName() + " was interrupted", interrupted);
+        } catch (ExecutionException analysisError) {
+            if (analysisError.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) analysisError.getCause();
+            }
+            throw new IllegalStateException("Could not analyse the baskets of " + supermarket.getName(), analysisError.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return new analysis with the baskets of both analyses, like of a chain of stores
+     */
+    public BasketAnalysis merge(BasketAnalysis other) {
+        BasketAnalysis merged = new BasketAnalysis();
+        merged.addAll(this);
+        merged.addAll(other);
+        return merged;
+    }
+
+    private void addAll(BasketAnalysis other) {
+        int[] ids = new int[other.products.size()];
+        for (int otherId = 0; otherId < ids.length; otherId++) {
+            ids[otherId] = idOf(other.products.get(otherId));
+            basketsPerProduct[ids[otherId]] += other.basketsPerProduct[otherId];
+        }
+        other.basketsPerPair.forEach((pair, baskets) ->
+                basketsPerPair.add(pairOf(ids[LongIntHashMap.high(pair)], ids[LongIntHashMap.low(pair)]), baskets));
+        numberOfBaskets += other.numberOfBaskets;
+    }
+
+    private int idOf(Product product) {
+        Integer id = productIds.get(product);
+        if (id == null) {
+            id = products.size();
+            productIds.put(product, id);
+            products.add(product);
+            if (id == basketsPerProduct.length) {
+                basketsPerProduct = Arrays.copyOf(basketsPerProduct, id * 2);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * counts the basket with the distinct product ids
+     */
+    private void addBasket(int[] basket, int size) {
+        numberOfBaskets++;
+        for (int i = 0; i < size; i++) {
+            basketsPerProduct[basket[i]]++;
+            for (int j = i + 1; j < size; j++) {
+                basketsPerPair.add(pairOf(basket[i], basket[j]), 1);
+            }
+        }
+    }
+
+    private static long pairOf(int id, int otherId) {
+        return id < otherId ? LongIntHashMap.pack(id, otherId) : LongIntHashMap.pack(otherId, id);
+    }
+
+    public int getNumberOfBaskets() {
+        return numberOfBaskets;
+    }
+
+    /**
+     * @return number of different pairs of products that were bought together
+     */
+    public int getNumberOfPairs() {
+        return basketsPerPair.size();
+    }
+
+    /**
+     * @return number of baskets with the product
+     */
+    public int countBasketsWith(Product product) {
+        Integer id = productIds.get(product);
+        return id == null ? 0 : basketsPerProduct[id];
+    }
+
+    /**
+     * @return number of baskets with both products
+     */
+    public int countBasketsWith(Product product, Product other) {
+        Integer id = productIds.get(product);
+        Integer otherId = productIds.get(other);
+        if (id == null || otherId == null) {
+            return 0;
+        }
+        return id.equals(otherId) ? basketsPerProduct[id] : basketsPerPair.get(pairOf(id, otherId));
+    }
+
+    /**
+     * @return part of all baskets with both products
+     */
+    public double getSupport(Product product, Product other) {
+        return numberOfBaskets == 0 ? 0 : (double) countBasketsWith(product, other) / numberOfBaskets;
+    }
+
+    /**
+     * @return part of the baskets with the product that also have the other product
+     */
+    public double getConfidence(Product product, Product other) {
+        int baskets = countBasketsWith(product);
+        return baskets == 0 ? 0 : (double) countBasketsWith(product, other) / baskets;
+    }
+
+    /**
+     * @return how many times more often the products are bought together than if they were bought independently
+     */
+    public double getLift(Product product, Product other) {
+        long expected = (long) countBasketsWith(product) * countBasketsWith(other);
+        return expected == 0 ? 0 : (double) countBasketsWith(product, other) * numberOfBaskets / expected;
+    }
+
+    /**
+     * @return Map with the K products that are most often in a basket with the product, the most often first
+     */
+    public Map<Product, Integer> findProductsBoughtWith(Product product, int k) {
+        TopK<Integer> top = new TopK<>(k);
+        Integer id = productIds.get(product);
+        if (id == null) {
+            return new LinkedHashMap<>();
+        }
+        Neighbours neighbours = neighbours();
+        for (int line = neighbours.offsets[id]; line < neighbours.offsets[id + 1]; line++) {
+            top.offer(line, neighbours.baskets[line]);
+        }
+        Map<Product, Integer> boughtWith = new LinkedHashMap<>();
+        for (int line : top.toList()) {
+            boughtWith.put(products.get(neighbours.ids[line]), neighbours.baskets[line]);
+        }
+        return boughtWith;
+    }
+
+    /**
+     * finds the products with the highest lift with the product, of the products that are bought together
+     * with it in at least the minimum number of baskets, so rare pairs don't get a high lift by chance
+     *
+     * @return Map with the K products and their lift, the highest lift first
+     */
+    public Map<Product, Double> findAssociatedProducts(Product product, int k, int minimumBaskets) {
+        TopK<Integer> top = new TopK<>(k);
+        Integer id = productIds.get(product);
+        if (id == null) {
+            return new LinkedHashMap<>();
+        }
+        Neighbours neighbours = neighbours();
+        for (int line = neighbours.offsets[id]; line < neighbours.offsets[id + 1]; line++) {
+            if (neighbours.baskets[line] >= minimumBaskets) {
+                // the bits of a non negative double sort like the double itself
+                top.offer(line, Double.doubleToLongBits(lift(id, neighbours.ids[line], neighbours.baskets[line])));
+            }
+        }
+        Map<Product, Double> associated = new LinkedHashMap<>();
+        for (int line : top.toList()) {
+            associated.put(products.get(neighbours.ids[line]), lift(id, neighbours.ids[line], neighbours.baskets[line]));
+        }
+        return associated;
+    }
+
+    private double lift(int id, int otherId, int together) {
+        return (double) together * numberOfBaskets / ((long) basketsPerProduct[id] * basketsPerProduct[otherId]);
+    }
+
+    /**
+     * @return the pairs by product, built the first time a product is queried
+     */
+    private Neighbours neighbours() {
+        Neighbours index = neighbours;
+        if (index == null) {
+            index = new Neighbours(products.size(), basketsPerPair);
+            neighbours = index;
+        }
+        return index;
+    }
+
+    /**
+     * The other product and number of baskets of every pair, grouped by product in arrays,
+     * so the pairs of one product are found without a scan over all pairs
+     */
+    private static class Neighbours {
+        // the pairs of product id are from offsets[id] up to offsets[id + 1]
+        private final int[] offsets;
+        private final int[] ids;
+        private final int[] baskets;
+
+        Neighbours(int numberOfProducts, LongIntHashMap basketsPerPair) {
+            offsets = new int[numberOfProducts + 1];
+            basketsPerPair.forEach((pair, together) -> {
+                offsets[LongIntHashMap.high(pair) + 1]++;
+                offsets[LongIntHashMap.low(pair) + 1]++;
+            });
+            for (int id = 0; id < numberOfProducts; id++) {
+                offsets[id + 1] += offsets[id];
+            }
+            ids = new int[offsets[numberOfProducts]];
+            baskets = new int[offsets[numberOfProducts]];
+            int[] next = Arrays.copyOf(offsets, numberOfProducts);
+            basketsPerPair.forEach((pair, together) -> {
+                int id = LongIntHashMap.high(pair);
+                int otherId = LongIntHashMap.low(pair);
+                ids[next[id]] = otherId;
+                baskets[next[id]++] = together;
+                ids[next[otherId]] = id;
+                baskets[next[otherId]++] = together;
+            });
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Cart of a customer with the quantities in a primitive array in the order the products were added,
+ * like the LinkedHashMap Gson reads a cart into. Adding to the cart doesn't box the quantity and
+ * keeps the total number of items and the total bill up to date, so they don't need a scan of the cart.
+ * Read only as a Map, the cart only changes through add. The statistics read the lines by position
+ * with productAt and quantityAt, the Map view makes an entry for every line.
+ */
+class Cart extends AbstractMap<Product, Integer> {
+
+    private static final int MIN_CAPACITY = 4;
+
+    private Product[] products;
+    private int[] quantities;
+    private int size;
+    // position + 1 of the product in products by hash of the product, 0 marks a free slot
+    private int[] slots;
+    private int numberOfItems;
+    private long billInCents;
+    private Set<Map.Entry<Product, Integer>> entrySet;
+
+    Cart() {
+        this(0);
+    }
+
+    Cart(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize) {
+            capacity <<= 1;
+        }
+        products = new Product[capacity];
+        quantities = new int[capacity];
+        slots = new int[capacity * 2];
+    }
+
+    /**
+     * cart with the products of the given cart in the same order
+     */
+    Cart(Map<Product, Integer> cart) {
+        this(cart.size());
+        for (Map.Entry<Product, Integer> entry : cart.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * adds the number to the quantity of the product
+     *
+     * @return true if the product wasn't in the cart yet
+     */
+    boolean add(Product product, int number) {
+        numberOfItems += number;
+        billInCents += product.getPriceInCents() * number;
+        int slot = find(product);
+        if (slots[slot] != 0) {
+            quantities[slots[slot] - 1] += number;
+            return false;
+        }
+        if (size == products.length) {
+            grow();
+            slot = find(product);
+        }
+        products[size] = product;
+        quantities[size] = number;
+        slots[slot] = ++size;
+        return true;
+    }
+
+    /**
+     * @return the product of the line at the position, the lines are in the order the products were added
+     */
+    Product productAt(int position) {
+        return products[position];
+    }
+
+    /**
+     * @return the quantity of the line at the position, without boxing it like the Map view
+     */
+    int quantityAt(int position) {
+        return quantities[position];
+    }
+
+    int getNumberOfItems() {
+        return numberOfItems;
+    }
+
+    long getBillInCents() {
+        return billInCents;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object product) {
+        return product != null && slots[find(product)] != 0;
+    }
+
+    @Override
+    public Integer get(Object product) {
+        if (product == null) {
+            return null;
+        }
+        int position = slots[find(product)];
+        return position == 0 ? null : quantities[position - 1];
+    }
+
+    @Override
+    public Set<Map.Entry<Product, Integer>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<Product, Integer>>() {
+                @Override
+                public Iterator<Map.Entry<Product, Integer>> iterator() {
+                    return new Iterator<Map.Entry<Product, Integer>>() {
+                        private int position;
+
+                        @Override
+                        public boolean hasNext() {
+                            return position < size;
+                        }
+
+                        @Override
+                        public Map.Entry<Product, Integer> next() {
+                            if (position >= size) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<Product, Integer> entry =
+                                    new SimpleImmutableEntry<>(products[position], quantities[position]);
+                            position++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private int find(Object product) {
+        int mask = slots.length - 1;
+        int hash = product.hashCode() * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (slots[slot] != 0 && !products[slots[slot] - 1].equals(product)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        products = Arrays.copyOf(products, products.length * 2);
+        quantities = Arrays.copyOf(quantities, quantities.length * 2);
+        slots = new int[products.length * 2];
+        for (int position = 0; position < size; position++) {
+            slots[find(products[position])] = position + 1;
+        }
+    }
+}
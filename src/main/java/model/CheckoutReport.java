@@ -0,0 +1,113 @@
+package model;
+
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Results of a checkout simulation with a number of cashiers. The waiting times are kept as the
+ * number of customers per second of waiting, so the distribution takes the same memory for any
+ * number of simulated customers.
+ */
+public class CheckoutReport {
+
+    private final int cashiers;
+    private final int numberOfCustomers;
+    private final int[] customersPerWaitingSecond;
+    private final double[] utilisationPerCashier;
+    private final Map<LocalTime, Double> averageLinePerInterval;
+    private final Map<LocalTime, Integer> longestLinePerInterval;
+
+    CheckoutReport(int cashiers, int numberOfCustomers, int[] customersPerWaitingSecond, double[] utilisationPerCashier,
+                   Map<LocalTime, Double> averageLinePerInterval, Map<LocalTime, Integer> longestLinePerInterval) {
+        this.cashiers = cashiers;
+        this.numberOfCustomers = numberOfCustomers;
+        this.customersPerWaitingSecond = customersPerWaitingSecond;
+        this.utilisationPerCashier = utilisationPerCashier;
+        this.averageLinePerInterval = Collections.unmodifiableMap(averageLinePerInterval);
+        this.longestLinePerInterval = Collections.unmodifiableMap(longestLinePerInterval);
+    }
+
+    public int getCashiers() {
+        return cashiers;
+    }
+
+    public int getNumberOfCustomers() {
+        return numberOfCustomers;
+    }
+
+    /**
+     * @return number of customers that waited exactly the given number of seconds before a cashier was free
+     */
+    public int countCustomersWaiting(int seconds) {
+        return seconds >= 0 && seconds < customersPerWaitingSecond.length ? customersPerWaitingSecond[seconds] : 0;
+    }
+
+    public double getAverageWaitingSeconds() {
+        if (numberOfCustomers == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int seconds = 0; seconds < customersPerWaitingSecond.length; seconds++) {
+            total += (long) seconds * customersPerWaitingSecond[seconds];
+        }
+        return (double) total / numberOfCustomers;
+    }
+
+    /**
+     * @param percentile between 0 and 100, like 50 for the median or 95
+     * @return the waiting time in seconds that the percentile of the customers didn't exceed
+     */
+    public int getWaitingSecondsPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        long needed = Math.max(1, (long) Math.ceil(percentile / 100 * numberOfCustomers));
+        long counted = 0;
+        for (int seconds = 0; seconds < customersPerWaitingSecond.length; seconds++) {
+            counted += customersPerWaitingSecond[seconds];
+            if (counted >= needed) {
+                return seconds;
+            }
+        }
+        return 0;
+    }
+
+    public int getLongestWaitingSeconds() {
+        for (int seconds = customersPerWaitingSecond.length - 1; seconds > 0; seconds--) {
+            if (customersPerWaitingSecond[seconds] > 0) {
+                return seconds;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return part of the time from opening until the last customer left that the cashier was serving customers
+     */
+    public double getUtilisation(int cashier) {
+        return utilisationPerCashier[cashier];
+    }
+
+    public double getAverageUtilisation() {
+        double total = 0;
+        for (double utilisation : utilisationPerCashier) {
+            total += utilisation;
+        }
+        return total / cashiers;
+    }
+
+    /**
+     * @return Map ordered by time with the average number of customers waiting in line during each interval
+     */
+    public Map<LocalTime, Double> getAverageLinePerInterval() {
+        return averageLinePerInterval;
+    }
+
+    /**
+     * @return Map ordered by time with the most customers waiting in line at once during each interval
+     */
+    public Map<LocalTime, Integer> getLongestLinePerInterval() {
+        return longestLinePerInterval;
+    }
+}
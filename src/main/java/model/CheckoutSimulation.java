@@ -0,0 +1,233 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Discrete event simulation of the customers of a day checking out at a number of cashiers.
+ * The customers wait in one line and go to the first free cashier in order of queuedAt. The arrivals
+ * are sorted once into a primitive array, the cashiers are a heap of the times they are free again,
+ * so each customer is one step of the event loop in O(log cashiers) without creating objects.
+ * The arrivals are shared by all scenarios, so many numbers of cashiers can be simulated at the same time.
+ */
+public class CheckoutSimulation {
+
+    public static final int SECONDS_PER_CUSTOMER = 30;
+    public static final int SECONDS_PER_ITEM = 3;
+
+    private final Supermarket supermarket;
+    private int secondsPerCustomer = SECONDS_PER_CUSTOMER;
+    private int secondsPerItem = SECONDS_PER_ITEM;
+    private int intervalMinutes = 15;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    // second of arrival in the high and number of items in the low 32 bits, sorted by arrival
+    private long[] arrivals;
+
+    public CheckoutSimulation(Supermarket supermarket) {
+        this.supermarket = supermarket;
+    }
+
+    /**
+     * @param seconds time to pay and pack, the same for every customer
+     */
+    public CheckoutSimulation secondsPerCustomer(int seconds) {
+        if (seconds < 0) {
+            throw new IllegalArgumentException("Seconds per customer can't be negative: " + seconds);
+        }
+        this.secondsPerCustomer = seconds;
+        return this;
+    }
+
+    /**
+     * @param seconds time to scan one item
+     */
+    public CheckoutSimulation secondsPerItem(int seconds) {
+        if (seconds < 0) {
+            throw new IllegalArgumentException("Seconds per item can't be negative: " + seconds);
+        }
+        this.secondsPerItem = seconds;
+        return this;
+    }
+
+    /**
+     * @param minutes length of the intervals of the queue lengths in the report
+     */
+    public CheckoutSimulation intervalMinutes(int minutes) {
+        if (minutes <= 0) {
+            throw new IllegalArgumentException("Length of an interval must be positive: " + minutes);
+        }
+        this.intervalMinutes = minutes;
+        return this;
+    }
+
+    public CheckoutSimulation parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * simulates the day with the given number of cashiers
+     *
+     * @return report with the waiting times, the utilisation of the cashiers and the queue lengths
+     */
+    public CheckoutReport simulate(int cashiers) {
+        if (cashiers <= 0) {
+            throw new IllegalArgumentException("Number of cashiers must be positive: " + cashiers);
+        }
+        long[] arrivals = arrivals();
+        TimeIntervals intervals = new TimeIntervals(supermarket.getOpenTime(), supermarket.getClosingTime(), intervalMinutes);
+
+        // free time of the cashier in the high and number of the cashier in the low 32 bits, ties go to the lowest cashier
+        long[] free = new long[cashiers];
+        for (int cashier = 0; cashier < cashiers; cashier++) {
+            free[cashier] = cashier;
+        }
+        long[] busySeconds = new long[cashiers];
+        int[] waitingSeconds = new int[64];
+        // +1 at the second a customer joins the line and -1 at the second the customer leaves it
+        int[] lineChanges = new int[SupermarketStatistics.SECONDS_PER_DAY + 1];
+        long lastDeparture = supermarket.getClosingTime().toSecondOfDay();
+
+        for (long arrival : arrivals) {
+            int arrivedAt = (int) (arrival >>> 32);
+            int serviceSeconds = secondsPerCustomer + secondsPerItem * (int) arrival;
+            int cashier = (int) free[0];
+            long startAt = Math.max(arrivedAt, free[0] >>> 32);
+            long leaveAt = startAt + serviceSeconds;
+            free[0] = leaveAt << 32 | cashier;
+            siftDown(free);
+
+            int waited = (int) (startAt - arrivedAt);
+            if (waited >= waitingSeconds.length) {
+                waitingSeconds = Arrays.copyOf(waitingSeconds, Math.max(waited + 1, waitingSeconds.length * 2));
+            }
+            waitingSeconds[waited]++;
+            if (waited > 0) {
+                lineChanges[Math.min(arrivedAt, SupermarketStatistics.SECONDS_PER_DAY)]++;
+                lineChanges[(int) Math.min(startAt, SupermarketStatistics.SECONDS_PER_DAY)]--;
+            }
+            busySeconds[cashier] += serviceSeconds;
+            lastDeparture = Math.max(lastDeparture, leaveAt);
+        }
+
+        double[] averageLine = new double[intervals.size()];
+        int[] longestLine = new int[intervals.size()];
+        int line = 0;
+        for (int second = 0; second < SupermarketStatistics.SECONDS_PER_DAY; second++) {
+            line += lineChanges[second];
+            int index = intervals.indexOf(second);
+            if (index >= 0) {
+                averageLine[index] += line;
+                longestLine[index] = Math.max(longestLine[index], line);
+            }
+        }
+        for (int index = 0; index < averageLine.length; index++) {
+            averageLine[index] /= intervals.endSecondOf(index) - intervals.startSecondOf(index);
+        }
+
+        // the cashiers are open from the opening time until the last customer has left
+        long openSeconds = lastDeparture - supermarket.getOpenTime().toSecondOfDay();
+        double[] utilisation = new double[cashiers];
+        for (int cashier = 0; cashier < cashiers; cashier++) {
+            utilisation[cashier] = openSeconds <= 0 ? 0 : (double) busySeconds[cashier] / openSeconds;
+        }
+        return new CheckoutReport(cashiers, arrivals.length, waitingSeconds, utilisation,
+                intervals.toMap(averageLine), intervals.toMap(longestLine));
+    }
+
+    /**
+     * simulates the scenarios of the numbers of cashiers in parallel
+     *
+     * @return Map with the report of every number of cashiers, in the given order
+     */
+    public Map<Integer, CheckoutReport> simulate(List<Integer> numbersOfCashiers) {
+        arrivals();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<CheckoutReport>> scenarios = new ArrayList<>();
+            for (int cashiers : numbersOfCashiers) {
+                scenarios.add(pool.submit(() -> simulate(cashiers)));
+            }
+            Map<Integer, CheckoutReport> reports = new LinkedHashMap<>();
+            for (int i = 0; i < scenarios.size(); i++) {
+                reports.put(numbersOfCashiers.get(i), scenarios.get(i).get());
+            }
+            return reports;
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation of " + supermarket.getName() + " was interrupted", interrupted);
+        } catch (ExecutionException simulationError) {
+            if (simulationError.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) simulationError.getCause();
+            }
+            throw new IllegalStateException("Could not simulate " + supermarket.getName(), simulationError.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return the arrivals of the customers sorted by queuedAt, read from the supermarket the first time
+     */
+    private synchronized long[] arrivals() {
+        if (arrivals == null) {
+            CustomerTable customerTable = supermarket.getCustomerTable();
+            if (customerTable != null) {
+                arrivals = new long[customerTable.size()];
+                for (int customer = 0; customer < customerTable.size(); customer++) {
+                    int items = 0;
+                    for (int line = customerTable.getCartStart(customer); line < customerTable.getCartEnd(customer); line++) {
+                        items += customerTable.getCartQuantity(line);
+                    }
+                    arrivals[customer] = arrival(customerTable.getQueuedAtSecond(customer), items);
+                }
+            } else {
+                arrivals = new long[supermarket.getCustomers().size()];
+                int customer = 0;
+                for (Customer arrived : supermarket.getCustomers()) {
+                    arrivals[customer++] = arrival(arrived.getQueuedAt().toSecondOfDay(), arrived.getNumberOfItems());
+                }
+            }
+            Arrays.sort(arrivals);
+        }
+        return arrivals;
+    }
+
+    /**
+     * packs the second of the arrival above the number of items, so the arrivals sort by second.
+     * a cart with more products returned than bought is served like an empty cart
+     */
+    private static long arrival(int second, int items) {
+        return (long) second << 32 | Math.max(0, items) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * moves the first cashier down the heap to its place after its free time has changed
+     */
+    private static void siftDown(long[] heap) {
+        long moved = heap[0];
+        int position = 0;
+        int half = heap.length >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < heap.length && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (moved <= heap[child]) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = moved;
+    }
+}
@@ -0,0 +1,328 @@
+package model;
+
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Statistics of a supermarket where many checkout lanes add customers and products at the same time.
+ * Counters are LongAdders per product and zip code in concurrent maps, so lanes only contend when
+ * they update the same counter and then without locking. Lanes share the read lock of a read-write lock,
+ * a snapshot takes the write lock for the time it needs to sum the counters and copy the counts per second,
+ * so a snapshot never sees half of a customer or cart line. Single totals and sums per second are read
+ * without any lock while lanes keep adding, so they are up to date but can count a line in one total
+ * before another; reports use a snapshot.
+ */
+public class ConcurrentStatistics implements Customer.CartListener {
+
+    // concurrent maps don't allow null keys, customers without zip code are counted under this key
+    private static final Object NO_ZIP_CODE = new Object();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock laneLock = lock.readLock();
+    private final Lock snapshotLock = lock.writeLock();
+
+    private final LongAdder numberOfCustomers = new LongAdder();
+    private final LongAdder totalNumberOfItems = new LongAdder();
+    private final LongAdder totalRevenueInCents = new LongAdder();
+    private final ConcurrentMap<Product, LongAdder> numberOfProductsBought = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Product, LongAdder> numberOfCustomersPerProduct = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Product, Set<Object>> zipcodesPerProduct = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, ConcurrentMap<Product, LongAdder>> numberOfProductsByZipcode = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, LongAdder> revenueInCentsByZipcode = new ConcurrentHashMap<>();
+    private final AtomicIntegerArray customersPerSecond = new AtomicIntegerArray(SupermarketStatistics.SECONDS_PER_DAY);
+    private final AtomicIntegerArray itemsPerSecond = new AtomicIntegerArray(SupermarketStatistics.SECONDS_PER_DAY);
+    private final AtomicLongArray revenueInCentsPerSecond = new AtomicLongArray(SupermarketStatistics.SECONDS_PER_DAY);
+    private final ConcurrentMap<Customer, AtomicLong> billsInCents = new ConcurrentHashMap<>();
+    private final AtomicReference<HighestBill> highestBill = new AtomicReference<>();
+    // set when a negative number lowers the highest bill, the next snapshot then searches all bills
+    private volatile boolean highestBillLowered;
+
+    /**
+     * adds a customer with its current cart, products can be added to the cart from any lane after this returns
+     */
+    public void add(Customer customer) {
+        // the lines of the cart before it becomes concurrent, no lane adds to it before this returns
+        Cart cart = customer.getCart();
+        customer.useConcurrentCart();
+        laneLock.lock();
+        try {
+            if (billsInCents.putIfAbsent(customer, new AtomicLong()) != null) {
+                throw new IllegalArgumentException("Customer has already been added: " + customer.getQueuedAt());
+            }
+            Object zipKey = zipKey(customer.getZipCode());
+            numberOfProductsByZipcode.computeIfAbsent(zipKey, zipCode -> new ConcurrentHashMap<>());
+            revenueInCentsByZipcode.computeIfAbsent(zipKey, zipCode -> new LongAdder());
+            customersPerSecond.incrementAndGet(customer.getQueuedAt().toSecondOfDay());
+            numberOfCustomers.increment();
+            updateHighestBill(customer, 0);
+            for (int line = 0; line < cart.size(); line++) {
+                addLine(customer, cart.productAt(line), cart.quantityAt(line), true);
+            }
+            customer.addCartListener(this);
+        } finally {
+            laneLock.unlock();
+        }
+    }
+
+    @Override
+    public void addedToCart(Customer customer, Product product, int number, boolean newInCart) {
+        laneLock.lock();
+        try {
+            addLine(customer, product, number, newInCart);
+        } finally {
+            laneLock.unlock();
+        }
+    }
+
+    private void addLine(Customer customer, Product product, int number, boolean newInCart) {
+        Object zipKey = zipKey(customer.getZipCode());
+        long amount = product.getPriceInCents() * number;
+        totalNumberOfItems.add(number);
+        totalRevenueInCents.add(amount);
+        numberOfProductsBought.computeIfAbsent(product, newProduct -> new LongAdder()).add(number);
+        if (newInCart) {
+            numberOfCustomersPerProduct.computeIfAbsent(product, newProduct -> new LongAdder()).increment();
+            zipcodesPerProduct.computeIfAbsent(product, newProduct -> ConcurrentHashMap.newKeySet()).add(zipKey);
+        }
+        numberOfProductsByZipcode.get(zipKey).computeIfAbsent(product, newProduct -> new LongAdder()).add(number);
+        revenueInCentsByZipcode.get(zipKey).add(amount);
+        itemsPerSecond.addAndGet(customer.getQueuedAt().toSecondOfDay(), number);
+        revenueInCentsPerSecond.addAndGet(customer.getQueuedAt().toSecondOfDay(), amount);
+        long bill = billsInCents.get(customer).addAndGet(amount);
+        if (amount >= 0) {
+            updateHighestBill(customer, bill);
+        } else {
+            HighestBill highest = highestBill.get();
+            if (highest != null && highest.customer == customer) {
+                highestBillLowered = true;
+            }
+        }
+    }
+
+    /**
+     * raises the highest bill with compare-and-set, the first bill that reaches an amount keeps it
+     */
+    private void updateHighestBill(Customer customer, long bill) {
+        while (true) {
+            HighestBill highest = highestBill.get();
+            if (highest != null && highest.cents >= bill) {
+                return;
+            }
+            if (highestBill.compareAndSet(highest, new HighestBill(customer, bill))) {
+                return;
+            }
+        }
+    }
+
+    private static Object zipKey(String zipCode) {
+        return zipCode == null ? NO_ZIP_CODE : zipCode;
+    }
+
+    private static String zipCode(Object zipKey) {
+        return zipKey == NO_ZIP_CODE ? null : (String) zipKey;
+    }
+
+    public int getNumberOfCustomers() {
+        return numberOfCustomers.intValue();
+    }
+
+    public int getTotalNumberOfItems() {
+        return totalNumberOfItems.intValue();
+    }
+
+    public double getTotalRevenue() {
+        return Money.toEuros(totalRevenueInCents.sum());
+    }
+
+    public long getTotalRevenueInCents() {
+        return totalRevenueInCents.sum();
+    }
+
+    /**
+     * @return average bill per customer, 0.0 without customers
+     */
+    public double getAverageRevenue() {
+        int customers = numberOfCustomers.intValue();
+        return customers == 0 ? 0.0 : Money.toEuros(totalRevenueInCents.sum()) / customers;
+    }
+
+    /**
+     * @return Map with number of customers per time interval
+     */
+    public Map<LocalTime, Integer> countCustomersPerInterval(TimeIntervals intervals) {
+        int[] counts = new int[intervals.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = (int) sum(customersPerSecond, intervals.startSecondOf(i), intervals.endSecondOf(i));
+        }
+        return intervals.toMap(counts);
+    }
+
+    /**
+     * @return Map with revenues per interval
+     */
+    public Map<LocalTime, Double> calculateRevenuePerInterval(TimeIntervals intervals) {
+        long[] revenues = new long[intervals.size()];
+        for (int i = 0; i < revenues.length; i++) {
+            revenues[i] = sum(revenueInCentsPerSecond, intervals.startSecondOf(i), intervals.endSecondOf(i));
+        }
+        return intervals.toEuroMap(revenues);
+    }
+
+    /**
+     * @return number of customers queued from the from time up to, but not including, the to time
+     */
+    public int countCustomersBetween(LocalTime from, LocalTime to) {
+        return (int) sum(customersPerSecond, from.toSecondOfDay(), to.toSecondOfDay());
+    }
+
+    /**
+     * @return number of items bought by customers queued from the from time up to, but not including, the to time
+     */
+    public long countItemsBetween(LocalTime from, LocalTime to) {
+        return sum(itemsPerSecond, from.toSecondOfDay(), to.toSecondOfDay());
+    }
+
+    /**
+     * @return revenue in euro cents of customers queued from the from time up to, but not including, the to time
+     */
+    public long revenueInCentsBetween(LocalTime from, LocalTime to) {
+        return sum(revenueInCentsPerSecond, from.toSecondOfDay(), to.toSecondOfDay());
+    }
+
+    /**
+     * @return start time of the window of the given length with the most customers, the earliest of equal windows
+     */
+    public LocalTime findBusiestWindow(LocalTime openTime, LocalTime closingTime, int minutes) {
+        return copyTimeIndex().findBusiestWindow(openTime, closingTime, minutes);
+    }
+
+    /**
+     * @return start time of the window of the given length with the highest revenue, the earliest of equal windows
+     */
+    public LocalTime findHighestRevenueWindow(LocalTime openTime, LocalTime closingTime, int minutes) {
+        return copyTimeIndex().findHighestRevenueWindow(openTime, closingTime, minutes);
+    }
+
+    private static long sum(AtomicIntegerArray perSecond, int fromSecond, int toSecond) {
+        long sum = 0;
+        for (int second = Math.max(0, fromSecond); second < Math.min(toSecond, perSecond.length()); second++) {
+            sum += perSecond.get(second);
+        }
+        return sum;
+    }
+
+    private static long sum(AtomicLongArray perSecond, int fromSecond, int toSecond) {
+        long sum = 0;
+        for (int second = Math.max(0, fromSecond); second < Math.min(toSecond, perSecond.length()); second++) {
+            sum += perSecond.get(second);
+        }
+        return sum;
+    }
+
+    /**
+     * @return time index of copies of the counts per second, made without the lock
+     */
+    private TimeIndex copyTimeIndex() {
+        int[] customers = new int[SupermarketStatistics.SECONDS_PER_DAY];
+        int[] items = new int[SupermarketStatistics.SECONDS_PER_DAY];
+        long[] revenues = new long[SupermarketStatistics.SECONDS_PER_DAY];
+        copyPerSecond(customers, items, revenues);
+        return new TimeIndex(customers, items, revenues);
+    }
+
+    private void copyPerSecond(int[] customers, int[] items, long[] revenues) {
+        for (int second = 0; second < SupermarketStatistics.SECONDS_PER_DAY; second++) {
+            customers[second] = customersPerSecond.get(second);
+            items[second] = itemsPerSecond.get(second);
+            revenues[second] = revenueInCentsPerSecond.get(second);
+        }
+    }
+
+    /**
+     * waits for the cart lines that are being added, then sums the counters and copies the counts per second
+     * while the lanes wait, so the sums per interval of the snapshot add up to its totals
+     *
+     * @return consistent snapshot of the statistics
+     */
+    public SupermarketStatistics snapshot() {
+        int summedCustomers;
+        int summedItems;
+        long summedRevenueInCents;
+        HighestBill highest;
+        Map<Product, Integer> productsBought = new HashMap<>();
+        Map<Product, Integer> customersPerProduct = new HashMap<>();
+        Map<Product, Set<String>> zipcodes = new HashMap<>();
+        Map<String, Map<Product, Integer>> productsByZipcode = new HashMap<>();
+        Map<String, Long> revenueByZipcode = new HashMap<>();
+        List<SupermarketStatistics.CustomerBill> highestBills = new ArrayList<>();
+        int[] customers = new int[SupermarketStatistics.SECONDS_PER_DAY];
+        int[] items = new int[SupermarketStatistics.SECONDS_PER_DAY];
+        long[] revenues = new long[SupermarketStatistics.SECONDS_PER_DAY];
+        snapshotLock.lock();
+        try {
+            if (highestBillLowered) {
+                highestBill.set(null);
+                billsInCents.forEach((customer, bill) -> updateHighestBill(customer, bill.get()));
+                highestBillLowered = false;
+            }
+            numberOfProductsBought.forEach((product, count) -> productsBought.put(product, count.intValue()));
+            numberOfCustomersPerProduct.forEach((product, count) -> customersPerProduct.put(product, count.intValue()));
+            zipcodesPerProduct.forEach((product, zipKeys) -> {
+                Set<String> zipCodes = new HashSet<>();
+                for (Object zipKey : zipKeys) {
+                    zipCodes.add(zipCode(zipKey));
+                }
+                zipcodes.put(product, zipCodes);
+            });
+            numberOfProductsByZipcode.forEach((zipKey, counts) -> {
+                Map<Product, Integer> productCount = new HashMap<>();
+                counts.forEach((product, count) -> productCount.put(product, count.intValue()));
+                productsByZipcode.put(zipCode(zipKey), productCount);
+            });
+            revenueInCentsByZipcode.forEach((zipKey, revenue) -> revenueByZipcode.put(zipCode(zipKey), revenue.sum()));
+            summedCustomers = numberOfCustomers.intValue();
+            summedItems = totalNumberOfItems.intValue();
+            summedRevenueInCents = totalRevenueInCents.sum();
+            highest = highestBill.get();
+            // the highest bill first, the others in the order of their bills
+            if (highest != null) {
+                Customer mostPaying = highest.customer;
+                highestBills.add(new SupermarketStatistics.CustomerBill(mostPaying, highest.cents));
+                TopK<Customer> others = new TopK<>(SupermarketStatistics.HIGHEST_BILLS - 1);
+                billsInCents.forEach((customer, bill) -> {
+                    if (customer != mostPaying && others.accepts(bill.get())) {
+                        others.offer(customer, bill.get());
+                    }
+                });
+                for (Customer customer : others.toList()) {
+                    highestBills.add(new SupermarketStatistics.CustomerBill(customer, billsInCents.get(customer).get()));
+                }
+            }
+            copyPerSecond(customers, items, revenues);
+        } finally {
+            snapshotLock.unlock();
+        }
+        return new SupermarketStatistics(summedCustomers, summedItems, summedRevenueInCents, highestBills,
+                productsBought, customersPerProduct, zipcodes, productsByZipcode, revenueByZipcode, customers, items, revenues);
+    }
+
+    private static class HighestBill {
+        private final Customer customer;
+        private final long cents;
+
+        HighestBill(Customer customer, long cents) {
+            this.customer = customer;
+            this.cents = cents;
+        }
+    }
+}
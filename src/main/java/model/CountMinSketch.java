@@ -0,0 +1,61 @@
+package model;
+
+/**
+ * Estimates the count of any key in a fixed table of counters, whatever the number of keys.
+ * An estimate is never lower than the true count and, with probability 1 - delta, at most
+ * epsilon times the total of all counts higher. This holds when no negative counts are added.
+ */
+class CountMinSketch {
+
+    private final double epsilon;
+    private final double delta;
+    private final int width;
+    private final int depth;
+    private final long[] counts;
+    private long total;
+
+    CountMinSketch(double epsilon, double delta) {
+        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("Epsilon and delta must be between 0 and 1: " + epsilon + ", " + delta);
+        }
+        this.epsilon = epsilon;
+        this.delta = delta;
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        this.depth = (int) Math.ceil(Math.log(1 / delta));
+        this.counts = new long[Math.multiplyExact(width, depth)];
+    }
+
+    void add(long hash, long count) {
+        for (int row = 0; row < depth; row++) {
+            counts[row * width + column(hash, row)] += count;
+        }
+        total += count;
+    }
+
+    long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[row * width + column(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * @return the most an estimate can be higher than the true count, with probability getConfidence()
+     */
+    long errorBound() {
+        return (long) Math.ceil(epsilon * total);
+    }
+
+    double getConfidence() {
+        return 1 - delta;
+    }
+
+    /**
+     * each row uses another combination of the two halves of the hash, as if it had its own hash function
+     */
+    private int column(long hash, int row) {
+        int combined = (int) hash + row * (int) (hash >>> 32);
+        return Math.floorMod(combined, width);
+    }
+}
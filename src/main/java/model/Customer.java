@@ -1,8 +1,10 @@
 package model;
 import java.time.LocalTime;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 /**
  * Supermarket Customer check-out and Cashier simulation
  *
@@ -11,7 +13,9 @@ import java.util.Objects;
 public class Customer implements Comparable<Customer> {
     private LocalTime queuedAt;
     private String zipCode;
-    private Map<Product, Integer> itemsCart = new HashMap<>();
+    // a Cart, except for the LinkedHashMap Gson reads a cart into until it is first used and a concurrent cart
+    private Map<Product, Integer> itemsCart = new Cart();
+    private transient volatile CartListener cartListener;
 
 
     public Customer() {
@@ -22,6 +26,14 @@ public class Customer implements Comparable<Customer> {
         this.zipCode = zipCode;
     }
 
+    /**
+     * customer with a cart that keeps the order of the given cart, like the carts Gson reads into a LinkedHashMap
+     */
+    Customer(LocalTime queuedAt, String zipCode, Map<Product, Integer> itemsCart) {
+        this(queuedAt, zipCode);
+        this.itemsCart = new Cart(itemsCart);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -45,6 +57,10 @@ public class Customer implements Comparable<Customer> {
      * @return Het totale aantal items in het winkelwagentje.
      */
     public int getNumberOfItems() {
+        Cart cart = cart();
+        if (cart != null) {
+            return cart.getNumberOfItems();
+        }
         int numItems = 0;
         for (int quantity : itemsCart.values()) numItems += quantity;
         return numItems;
@@ -52,21 +68,52 @@ public class Customer implements Comparable<Customer> {
 
 
     public void addToCart(Product product, int number) {
-        if (itemsCart.containsKey(product)) {
-            int huidigeQuantity = itemsCart.get(product);
-            itemsCart.put(product, huidigeQuantity + number);
-        } else {
-            itemsCart.put(product, number);
+        Cart cart = cart();
+        boolean newInCart = cart == null ? addToConcurrentCart(product, number) : cart.add(product, number);
+        if (cartListener != null) {
+            cartListener.addedToCart(this, product, number, newInCart);
+        }
+    }
+
+    /**
+     * adds the number with compare-and-set, so no quantity is lost when lanes add to the same cart
+     *
+     * @return true if the product wasn't in the cart yet
+     */
+    private boolean addToConcurrentCart(Product product, int number) {
+        ConcurrentMap<Product, Integer> cart = (ConcurrentMap<Product, Integer>) itemsCart;
+        while (true) {
+            Integer quantity = cart.putIfAbsent(product, number);
+            if (quantity == null) {
+                return true;
+            }
+            if (cart.replace(product, quantity, quantity + number)) {
+                return false;
+            }
         }
     }
 
     public double calculateTotalBill() {
-        return itemsCart.entrySet().stream()
-                .mapToDouble(entry -> entry.getKey().getPrice() * entry.getValue())
-                .sum();
+        return Money.toEuros(calculateTotalBillInCents());
+    }
+
+    /**
+     * @return total bill in euro cents, exact whatever the order of the cart
+     */
+    public long calculateTotalBillInCents() {
+        Cart cart = cart();
+        if (cart != null) {
+            return cart.getBillInCents();
+        }
+        long bill = 0;
+        for (Map.Entry<Product, Integer> entry : itemsCart.entrySet()) {
+            bill += entry.getKey().getPriceInCents() * entry.getValue();
+        }
+        return bill;
     }
 
     public String toString() {
+        Map<Product, Integer> itemsCart = getItemsCart();
         StringBuilder result = new StringBuilder("queuedAt: " + queuedAt);
         result.append("\nzipCode: ").append(zipCode);
         result.append("\nPurchases:");
@@ -78,6 +125,13 @@ public class Customer implements Comparable<Customer> {
     }
 
 
+    /**
+     * replaces the zip code by the equal zip code of the dictionary, so customers share one String per zip code
+     */
+    public void internZipCode(ZipCodeDictionary zipCodes) {
+        this.zipCode = zipCodes.intern(zipCode);
+    }
+
     public LocalTime getQueuedAt() {
         return queuedAt;
     }
@@ -86,8 +140,126 @@ public class Customer implements Comparable<Customer> {
         return zipCode;
     }
 
+    /**
+     * @return the cart in the order the products were added, read only
+     */
     public Map<Product, Integer> getItemsCart() {
-        return itemsCart;
+        Cart cart = cart();
+        return cart == null ? itemsCart : cart;
+    }
+
+    /**
+     * @return the cart to read its lines by position, a copy of a concurrent cart
+     */
+    Cart getCart() {
+        Cart cart = cart();
+        return cart == null ? new Cart(itemsCart) : cart;
+    }
+
+    /**
+     * Gson fills the field with a LinkedHashMap of the cart in the file, which is replaced by a Cart
+     * with its totals the first time the cart is used
+     *
+     * @return the cart with the totals, null for a concurrent cart
+     */
+    private Cart cart() {
+        Map<Product, Integer> cart = itemsCart;
+        if (cart instanceof Cart) {
+            return (Cart) cart;
+        }
+        if (cart instanceof ConcurrentMap) {
+            return null;
+        }
+        Cart loaded = new Cart(cart);
+        itemsCart = loaded;
+        return loaded;
+    }
+
+    /**
+     * Replaces the cart by a concurrent map, so products can be added to the cart from several threads
+     */
+    void useConcurrentCart() {
+        if (!(itemsCart instanceof ConcurrentMap)) {
+            itemsCart = new ConcurrentHashMap<>(itemsCart);
+        }
+    }
+
+    /**
+     * Adds a listener that is told about every product added to the cart, like the live statistics
+     * of the supermarket the customer checks out at. A customer has one listener in most cases,
+     * more listeners are kept together in a CartListeners.
+     */
+    void addCartListener(CartListener listener) {
+        if (cartListener == null || cartListener == listener) {
+            cartListener = listener;
+        } else if (cartListener instanceof CartListeners) {
+            cartListener = ((CartListeners) cartListener).with(listener);
+        } else {
+            cartListener = new CartListeners(new CartListener[]{cartListener}).with(listener);
+        }
+    }
+
+    void removeCartListener(CartListener listener) {
+        if (cartListener == listener) {
+            cartListener = null;
+        } else if (cartListener instanceof CartListeners) {
+            cartListener = ((CartListeners) cartListener).without(listener);
+        }
+    }
+
+    /**
+     * Listener for products that are added to the cart of a customer
+     */
+    interface CartListener {
+        /**
+         * called after the product is added
+         *
+         * @param newInCart true if the product wasn't in the cart before
+         */
+        void addedToCart(Customer customer, Product product, int number, boolean newInCart);
+    }
+
+    /**
+     * Immutable group of listeners, a new group is made when a listener is added or removed
+     */
+    private static class CartListeners implements CartListener {
+        private final CartListener[] listeners;
+
+        CartListeners(CartListener[] listeners) {
+            this.listeners = listeners;
+        }
+
+        CartListener with(CartListener listener) {
+            for (CartListener existing : listeners) {
+                if (existing == listener) {
+                    return this;
+                }
+            }
+            CartListener[] more = Arrays.copyOf(listeners, listeners.length + 1);
+            more[listeners.length] = listener;
+            return new CartListeners(more);
+        }
+
+        CartListener without(CartListener listener) {
+            CartListener[] fewer = new CartListener[listeners.length];
+            int size = 0;
+            for (CartListener existing : listeners) {
+                if (existing != listener) {
+                    fewer[size++] = existing;
+                }
+            }
+            if (size == listeners.length) {
+                return this;
+            }
+            return size == 1 ? fewer[0] : new CartListeners(Arrays.copyOf(fewer, size));
+        }
+
+        @Override
+        public void addedToCart(Customer customer, Product product, int number, boolean newInCart) {
+            for (CartListener listener : listeners) {
+                listener.addedToCart(customer, product, number, newInCart);
+            }
+        }
     }
 
 
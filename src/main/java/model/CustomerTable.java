@@ -0,0 +1,287 @@
+package model;
+
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Columnar storage of the customers of a day in primitive arrays. Products and zip codes are stored once
+ * in a dictionary and referred to by their id, the carts are stored like a sparse matrix: the cart of
+ * customer i holds the products and quantities from cartOffsets[i] up to cartOffsets[i + 1].
+ * A product appears at most once in each cart, like in the map of a Customer.
+ * The statistics are calculated by scanning the arrays, Customer objects are only created as views.
+ */
+public class CustomerTable {
+
+    private static final int NO_ZIP_CODE = ZipCodeDictionary.NO_ZIP_CODE;
+
+    private final Product[] products;
+    private final long[] pricesInCents;
+    private final String[] zipCodes;
+    private final int[] queuedAtSeconds;
+    private final int[] zipIds;
+    private final int[] cartOffsets;
+    private final int[] cartProductIds;
+    private final int[] cartQuantities;
+
+    public CustomerTable(Product[] products, String[] zipCodes, int[] queuedAtSeconds, int[] zipIds,
+                         int[] cartOffsets, int[] cartProductIds, int[] cartQuantities) {
+        if (queuedAtSeconds.length != zipIds.length || cartOffsets.length != queuedAtSeconds.length + 1
+                || cartProductIds.length != cartQuantities.length
+                || cartOffsets[queuedAtSeconds.length] != cartProductIds.length) {
+            throw new IllegalArgumentException("Columns of the customer table have different lengths");
+        }
+        this.products = products;
+        this.zipCodes = zipCodes;
+        this.queuedAtSeconds = queuedAtSeconds;
+        this.zipIds = zipIds;
+        this.cartOffsets = cartOffsets;
+        this.cartProductIds = cartProductIds;
+        this.cartQuantities = cartQuantities;
+        this.pricesInCents = new long[products.length];
+        for (int i = 0; i < products.length; i++) {
+            pricesInCents[i] = products[i].getPriceInCents();
+        }
+    }
+
+    /**
+     * stores the customers in columns, in the iteration order of the collection
+     *
+     * @return table with the customers
+     */
+    public static CustomerTable of(Collection<Customer> customers) {
+        Map<Product, Integer> productIds = new IdentityHashMap<>();
+        List<Product> products = new ArrayList<>();
+        ZipCodeDictionary zipCodes = new ZipCodeDictionary();
+        int numberOfLines = 0;
+        for (Customer customer : customers) {
+            numberOfLines += customer.getItemsCart().size();
+        }
+        int[] queuedAtSeconds = new int[customers.size()];
+        int[] zipIds = new int[customers.size()];
+        int[] cartOffsets = new int[customers.size() + 1];
+        int[] cartProductIds = new int[numberOfLines];
+        int[] cartQuantities = new int[numberOfLines];
+        int index = 0;
+        int line = 0;
+        for (Customer customer : customers) {
+            queuedAtSeconds[index] = customer.getQueuedAt().toSecondOfDay();
+            zipIds[index] = zipCodes.idOf(customer.getZipCode());
+            cartOffsets[index] = line;
+            Cart cart = customer.getCart();
+            for (int position = 0; position < cart.size(); position++) {
+                Product product = cart.productAt(position);
+                Integer productId = productIds.get(product);
+                if (productId == null) {
+                    productId = products.size();
+                    productIds.put(product, productId);
+                    products.add(product);
+                }
+                cartProductIds[line] = productId;
+                cartQuantities[line] = cart.quantityAt(position);
+                line++;
+            }
+            index++;
+        }
+        cartOffsets[index] = line;
+        return new CustomerTable(products.toArray(new Product[0]), zipCodes.toArray(),
+                queuedAtSeconds, zipIds, cartOffsets, cartProductIds, cartQuantities);
+    }
+
+    public int size() {
+        return queuedAtSeconds.length;
+    }
+
+    public int getNumberOfProducts() {
+        return products.length;
+    }
+
+    public int getNumberOfZipCodes() {
+        return zipCodes.length;
+    }
+
+    public Product getProduct(int productId) {
+        return products[productId];
+    }
+
+    public String getZipCode(int zipId) {
+        return zipId == NO_ZIP_CODE ? null : zipCodes[zipId];
+    }
+
+    public int getQueuedAtSecond(int customer) {
+        return queuedAtSeconds[customer];
+    }
+
+    public int getZipId(int customer) {
+        return zipIds[customer];
+    }
+
+    public int getCartStart(int customer) {
+        return cartOffsets[customer];
+    }
+
+    public int getCartEnd(int customer) {
+        return cartOffsets[customer + 1];
+    }
+
+    public int getCartProductId(int line) {
+        return cartProductIds[line];
+    }
+
+    public int getCartQuantity(int line) {
+        return cartQuantities[line];
+    }
+
+    public int getTotalNumberOfItems() {
+        int totalItems = 0;
+        for (int quantity : cartQuantities) {
+            totalItems += quantity;
+        }
+        return totalItems;
+    }
+
+    public double calculateTotalBill(int customer) {
+        return Money.toEuros(calculateTotalBillInCents(customer));
+    }
+
+    public long calculateTotalBillInCents(int customer) {
+        long bill = 0;
+        for (int line = cartOffsets[customer]; line < cartOffsets[customer + 1]; line++) {
+            bill += pricesInCents[cartProductIds[line]] * cartQuantities[line];
+        }
+        return bill;
+    }
+
+    /**
+     * @return a new Customer object with the data of the customer in the table
+     */
+    public Customer customerAt(int customer) {
+        Customer view = new Customer(LocalTime.ofSecondOfDay(queuedAtSeconds[customer]), getZipCode(zipIds[customer]));
+        for (int line = cartOffsets[customer]; line < cartOffsets[customer + 1]; line++) {
+            view.addToCart(products[cartProductIds[line]], cartQuantities[line]);
+        }
+        return view;
+    }
+
+    /**
+     * @return List that creates a Customer view of a row of the table on every get
+     */
+    public List<Customer> asCustomers() {
+        return new AbstractList<>() {
+            @Override
+            public Customer get(int index) {
+                return customerAt(index);
+            }
+
+            @Override
+            public int size() {
+                return CustomerTable.this.size();
+            }
+        };
+    }
+
+    public Map<LocalTime, Integer> countCustomersPerInterval(TimeIntervals intervals) {
+        int[] counts = new int[intervals.size()];
+        for (int customer = 0; customer < size(); customer++) {
+            int index = intervals.indexOf(queuedAtSeconds[customer]);
+            if (index >= 0) {
+                counts[index]++;
+            }
+        }
+        return intervals.toMap(counts);
+    }
+
+    public Map<LocalTime, Double> calculateRevenuePerInterval(TimeIntervals intervals) {
+        long[] revenues = new long[intervals.size()];
+        for (int customer = 0; customer < size(); customer++) {
+            int index = intervals.indexOf(queuedAtSeconds[customer]);
+            if (index >= 0) {
+                revenues[index] += calculateTotalBillInCents(customer);
+            }
+        }
+        return intervals.toEuroMap(revenues);
+    }
+
+    /**
+     * calculates all statistics in one scan over the columns, aggregated in arrays by product id and zip id
+     *
+     * @return snapshot with the statistics of all customers in the table
+     */
+    public SupermarketStatistics calculateStatistics() {
+        int[] quantityPerProduct = new int[products.length];
+        int[] customersPerProduct = new int[products.length];
+        long[] revenuePerZip = new long[zipCodes.length];
+        boolean hasCustomerWithoutZipCode = false;
+        long revenueWithoutZipCode = 0;
+        int[] customersPerSecond = new int[SupermarketStatistics.SECONDS_PER_DAY];
+        int[] itemsPerSecond = new int[SupermarketStatistics.SECONDS_PER_DAY];
+        long[] revenuePerSecond = new long[SupermarketStatistics.SECONDS_PER_DAY];
+        LongIntHashMap quantityPerZipAndProduct = new LongIntHashMap(cartProductIds.length);
+        int totalItems = 0;
+        long totalRevenue = 0;
+        TopK<Integer> highestBills = new TopK<>(SupermarketStatistics.HIGHEST_BILLS);
+
+        for (int customer = 0; customer < size(); customer++) {
+            int zipId = zipIds[customer];
+            // customers without zip code are aggregated under the id after the last zip code
+            int zipKey = zipId == NO_ZIP_CODE ? zipCodes.length : zipId;
+            long bill = 0;
+            int items = 0;
+            for (int line = cartOffsets[customer]; line < cartOffsets[customer + 1]; line++) {
+                int productId = cartProductIds[line];
+                int quantity = cartQuantities[line];
+                bill += pricesInCents[productId] * quantity;
+                items += quantity;
+                quantityPerProduct[productId] += quantity;
+                customersPerProduct[productId]++;
+                quantityPerZipAndProduct.add(LongIntHashMap.pack(zipKey, productId), quantity);
+            }
+            if (zipId == NO_ZIP_CODE) {
+                hasCustomerWithoutZipCode = true;
+                revenueWithoutZipCode += bill;
+            } else {
+                revenuePerZip[zipId] += bill;
+            }
+            customersPerSecond[queuedAtSeconds[customer]]++;
+            itemsPerSecond[queuedAtSeconds[customer]] += items;
+            revenuePerSecond[queuedAtSeconds[customer]] += bill;
+            totalItems += items;
+            totalRevenue += bill;
+            if (highestBills.accepts(bill)) {
+                highestBills.offer(customer, bill);
+            }
+        }
+
+        Map<Product, Integer> numberOfProductsBought = new LinkedHashMap<>();
+        Map<Product, Integer> numberOfCustomersPerProduct = new LinkedHashMap<>();
+        for (int productId = 0; productId < products.length; productId++) {
+            if (customersPerProduct[productId] > 0) {
+                numberOfProductsBought.merge(products[productId], quantityPerProduct[productId], Integer::sum);
+                numberOfCustomersPerProduct.merge(products[productId], customersPerProduct[productId], Integer::sum);
+            }
+        }
+        Map<String, Long> revenueByZipcode = new HashMap<>();
+        Map<String, Map<Product, Integer>> numberOfProductsByZipcode = new LinkedHashMap<>();
+        for (int zipId = 0; zipId < zipCodes.length; zipId++) {
+            revenueByZipcode.put(zipCodes[zipId], revenuePerZip[zipId]);
+            numberOfProductsByZipcode.put(zipCodes[zipId], new HashMap<>());
+        }
+        if (hasCustomerWithoutZipCode) {
+            revenueByZipcode.put(null, revenueWithoutZipCode);
+            numberOfProductsByZipcode.put(null, new HashMap<>());
+        }
+        Map<Product, Set<String>> zipcodesPerProduct = new LinkedHashMap<>();
+        quantityPerZipAndProduct.forEach((key, quantity) -> {
+            String zipCode = getZipCode(LongIntHashMap.high(key) == zipCodes.length ? NO_ZIP_CODE : LongIntHashMap.high(key));
+            Product product = products[LongIntHashMap.low(key)];
+            numberOfProductsByZipcode.get(zipCode).merge(product, quantity, Integer::sum);
+            zipcodesPerProduct.computeIfAbsent(product, newProduct -> new HashSet<>()).add(zipCode);
+        });
+
+        List<SupermarketStatistics.CustomerBill> bills = new ArrayList<>();
+        for (int customer : highestBills.toList()) {
+            bills.add(new SupermarketStatistics.CustomerBill(customerAt(customer), calculateTotalBillInCents(customer)));
+        }
+        return new SupermarketStatistics(size(), totalItems, totalRevenue, bills, numberOfProductsBought, numberOfCustomersPerProduct,
+                zipcodesPerProduct, numberOfProductsByZipcode, revenueByZipcode, customersPerSecond, itemsPerSecond, revenuePerSecond);
+    }
+}
@@ -0,0 +1,191 @@
+package model;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Dimension to group the customers or the lines of their carts by in a Query, like the zip code or the product.
+ * A dimension gives every value it sees an int id during a query, so groups of several dimensions
+ * are found by the ids packed in one long key.
+ *
+ * @param <K> type of the values of the dimension
+ */
+public abstract class Dimension<K> {
+
+    /**
+     * groups by the zip code of the customer, customers without zip code by null
+     */
+    public static final Dimension<String> ZIP_CODE = new Dimension<String>("zipCode") {
+        @Override
+        Values<String> values(LocalTime openTime, LocalTime closingTime) {
+            return new Dictionary<String>() {
+                @Override
+                int idOf(int second, String zipCode, Product product) {
+                    return idOfValue(zipCode);
+                }
+            };
+        }
+    };
+
+    /**
+     * groups by the product of the lines of the carts, a customer is in the group of each product in the cart
+     */
+    public static final Dimension<Product> PRODUCT = new Dimension<Product>("product") {
+        @Override
+        boolean isPerLine() {
+            return true;
+        }
+
+        @Override
+        Values<Product> values(LocalTime openTime, LocalTime closingTime) {
+            return new Dictionary<Product>() {
+                @Override
+                int idOf(int second, String zipCode, Product product) {
+                    return idOfValue(product);
+                }
+            };
+        }
+    };
+
+    private final String name;
+
+    private Dimension(String name) {
+        this.name = name;
+    }
+
+    /**
+     * groups by the first characters of the zip code, like ZipCodeIndex.AREA or ZipCodeIndex.REGION
+     */
+    public static Dimension<String> zipCodePrefix(int length) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Prefix length must be positive: " + length);
+        }
+        return new Dimension<String>("zipCodePrefix(" + length + ")") {
+            @Override
+            Values<String> values(LocalTime openTime, LocalTime closingTime) {
+                return new Dictionary<String>() {
+                    // the prefix of each zip code is only cut once
+                    private final Map<String, Integer> idsOfZipCodes = new HashMap<>();
+
+                    @Override
+                    int idOf(int second, String zipCode, Product product) {
+                        Integer id = idsOfZipCodes.get(zipCode);
+                        if (id == null) {
+                            id = idOfValue(zipCode == null ? null : zipCode.substring(0, Math.min(length, zipCode.length())));
+                            idsOfZipCodes.put(zipCode, id);
+                        }
+                        return id;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * groups by the interval of the opening hours the customer queued in, by the start time of the interval.
+     * customers outside the opening hours are left out, like in Supermarket.countCustomersPerInterval
+     */
+    public static Dimension<LocalTime> interval(int minutes) {
+        if (minutes <= 0) {
+            throw new IllegalArgumentException("Length of an interval must be positive: " + minutes);
+        }
+        return new Dimension<LocalTime>("interval(" + minutes + ")") {
+            @Override
+            Values<LocalTime> values(LocalTime openTime, LocalTime closingTime) {
+                TimeIntervals intervals = new TimeIntervals(openTime, closingTime, minutes);
+                return new Values<LocalTime>() {
+                    @Override
+                    int idOf(int second, String zipCode, Product product) {
+                        return intervals.indexOf(second);
+                    }
+
+                    @Override
+                    LocalTime valueOf(int id) {
+                        return intervals.startOf(id);
+                    }
+
+                    @Override
+                    int numberOfValues() {
+                        return intervals.size();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * @return true if the dimension is a property of the lines of the carts instead of the customers
+     */
+    boolean isPerLine() {
+        return false;
+    }
+
+    /**
+     * @param openTime    opening time of the supermarket that is queried
+     * @param closingTime closing time of the supermarket that is queried
+     * @return new values for one execution of a query
+     */
+    abstract Values<K> values(LocalTime openTime, LocalTime closingTime);
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Dimension && name.equals(((Dimension<?>) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * The values of a dimension seen during one execution of a query, by id
+     */
+    abstract static class Values<K> {
+
+        /**
+         * @return id of the value of the customer or line, -1 to leave the customer out
+         */
+        abstract int idOf(int second, String zipCode, Product product);
+
+        abstract K valueOf(int id);
+
+        /**
+         * @return number of values if every id from 0 is a value even without customers, -1 otherwise
+         */
+        int numberOfValues() {
+            return -1;
+        }
+    }
+
+    /**
+     * Values that get the next id when they are first seen
+     */
+    private abstract static class Dictionary<K> extends Values<K> {
+        private final Map<K, Integer> ids = new HashMap<>();
+        private final List<K> values = new ArrayList<>();
+
+        int idOfValue(K value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        @Override
+        K valueOf(int id) {
+            return values.get(id);
+        }
+    }
+}
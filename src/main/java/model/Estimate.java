@@ -0,0 +1,50 @@
+package model;
+
+/**
+ * An approximate count with the bounds between which the true count lies with the given confidence
+ */
+public final class Estimate {
+
+    private final long value;
+    private final long lowerBound;
+    private final long upperBound;
+    private final double confidence;
+
+    public Estimate(long value, long lowerBound, long upperBound, double confidence) {
+        this.value = value;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.confidence = confidence;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public long getLowerBound() {
+        return lowerBound;
+    }
+
+    public long getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * @return probability that the true count lies between the bounds, 1.0 if the bounds are guaranteed
+     */
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * @return true if the count lies between the bounds
+     */
+    public boolean contains(long count) {
+        return count >= lowerBound && count <= upperBound;
+    }
+
+    @Override
+    public String toString() {
+        return value + " [" + lowerBound + ", " + upperBound + "] (" + Math.round(confidence * 100) + "%)";
+    }
+}
@@ -0,0 +1,36 @@
+package model;
+
+/**
+ * Binary indexed tree over a fixed number of positions, like the seconds of a day.
+ * Adding to a position and the sum of a range of positions both take O(log size),
+ * so sums per interval stay cheap while values keep changing.
+ */
+class FenwickTree {
+
+    private final long[] tree;
+
+    FenwickTree(int size) {
+        this.tree = new long[size + 1];
+    }
+
+    void add(int position, long delta) {
+        for (int i = position + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * @return sum of the positions from (inclusive) up to to (exclusive)
+     */
+    long sum(int from, int to) {
+        return prefixSum(to) - prefixSum(from);
+    }
+
+    private long prefixSum(int end) {
+        long sum = 0;
+        for (int i = Math.min(end, tree.length - 1); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+}
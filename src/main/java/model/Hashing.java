@@ -0,0 +1,48 @@
+package model;
+
+/**
+ * 64 bit hashes of strings for the sketches of the approximate statistics. String.hashCode() has
+ * only 32 bits, which is too few to tell millions of values apart.
+ */
+final class Hashing {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    // null hashes to another value than the empty string
+    private static final long NULL_HASH = 0x9e3779b97f4a7c15L;
+
+    private Hashing() {
+    }
+
+    static long hash(String value) {
+        return mix(add(FNV_OFFSET_BASIS, value));
+    }
+
+    /**
+     * @return hash of the pair of values, different from the hash of the values concatenated
+     */
+    static long hash(String first, String second) {
+        return mix(add(add(FNV_OFFSET_BASIS, first) * FNV_PRIME, second));
+    }
+
+    private static long add(long hash, String value) {
+        if (value == null) {
+            return (hash ^ NULL_HASH) * FNV_PRIME;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return (hash ^ value.length()) * FNV_PRIME;
+    }
+
+    /**
+     * spreads every bit of the hash over all bits, like the finalizer of MurmurHash3
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,86 @@
+package model;
+
+/**
+ * Estimates the number of distinct values added to it in 2^precision bytes, whatever the number of values.
+ * The relative standard error of the estimate is 1.04 / sqrt(2^precision).
+ */
+class HyperLogLog {
+
+    static final int MIN_PRECISION = 4;
+    static final int MAX_PRECISION = 16;
+
+    private final int precision;
+    private final byte[] registers;
+
+    HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * @return the lowest precision with a relative standard error of at most the given error
+     */
+    static int precisionFor(double relativeError) {
+        if (!(relativeError > 0)) {
+            throw new IllegalArgumentException("Relative error must be positive: " + relativeError);
+        }
+        double registers = Math.pow(1.04 / relativeError, 2);
+        int precision = Math.max(MIN_PRECISION, 64 - Long.numberOfLeadingZeros((long) Math.ceil(registers) - 1));
+        if (precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Relative error is too small, the lowest error is "
+                    + relativeStandardError(MAX_PRECISION) + ": " + relativeError);
+        }
+        return precision;
+    }
+
+    static double relativeStandardError(int precision) {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    void add(long hash) {
+        // the first bits choose the register, the register keeps the longest run of leading zeros of the other bits
+        int index = (int) (hash >>> (64 - precision));
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int emptyRegisters = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                emptyRegisters++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        // small numbers of values are counted more precisely from the number of empty registers
+        if (estimate <= 2.5 * m && emptyRegisters > 0) {
+            estimate = m * Math.log((double) m / emptyRegisters);
+        }
+        return Math.round(estimate);
+    }
+
+    double relativeStandardError() {
+        return relativeStandardError(precision);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+}
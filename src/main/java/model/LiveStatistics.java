@@ -0,0 +1,443 @@
+package model;
+
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Statistics of a supermarket that are kept up to date while customers check out.
+ * Every customer added or removed and every product added to the cart of a customer updates the totals,
+ * the counts per product and zip code, the revenue per second of the day, the highest bill
+ * and the most popular products, so queries don't have to scan the customers again.
+ * Maps are returned as unmodifiable views that follow the changes, the highest bill is found
+ * in O(log n) and the statistics per interval in O(log n) for each interval.
+ */
+public class LiveStatistics implements Customer.CartListener {
+
+    private int numberOfCustomers;
+    private int totalNumberOfItems;
+    private long totalRevenueInCents;
+    private final Map<Product, Integer> numberOfProductsBought = new HashMap<>();
+    private final Map<Product, Integer> numberOfCustomersPerProduct = new HashMap<>();
+    // the number of customers with the product in their cart per zip code, its keys are the zip codes of the product
+    private final Map<Product, Map<String, Integer>> customersPerZipcodePerProduct = new HashMap<>();
+    private final Map<Product, Set<String>> zipcodesPerProductView = new HashMap<>();
+    private final Map<String, Integer> customersPerZipcode = new HashMap<>();
+    private final Map<String, Map<Product, Integer>> numberOfProductsByZipcode = new HashMap<>();
+    private final Map<String, Map<Product, Integer>> numberOfProductsByZipcodeView = new HashMap<>();
+    private final Map<String, Long> revenueInCentsByZipcode = new HashMap<>();
+    private final Map<String, Double> revenueByZipcode = new HashMap<>();
+    private final Map<String, Product> mostBoughtProductByZipcode = new HashMap<>();
+    private final Set<Product> mostPopularProducts = new HashSet<>();
+    private int mostPopularCount;
+    private final FenwickTree customersPerSecond = new FenwickTree(SupermarketStatistics.SECONDS_PER_DAY);
+    private final FenwickTree itemsPerSecond = new FenwickTree(SupermarketStatistics.SECONDS_PER_DAY);
+    private final FenwickTree revenueInCentsPerSecond = new FenwickTree(SupermarketStatistics.SECONDS_PER_DAY);
+    // the bills ordered from highest to lowest, the first customer added wins if bills are equal
+    private final Map<Customer, Bill> billsByCustomer = new IdentityHashMap<>();
+    private final TreeSet<Bill> bills = new TreeSet<>();
+    // the order in which the customers were added, never reused after a customer is removed
+    private long nextSequence;
+
+    /**
+     * adds a customer with its current cart and follows the products that are added to the cart later on
+     */
+    public void add(Customer customer) {
+        if (billsByCustomer.containsKey(customer)) {
+            throw new IllegalArgumentException("Customer has already been added: " + customer.getQueuedAt());
+        }
+        Bill bill = new Bill(customer, nextSequence++);
+        billsByCustomer.put(customer, bill);
+        bills.add(bill);
+        productsOfZipcode(customer.getZipCode());
+        customersPerZipcode.merge(customer.getZipCode(), 1, Integer::sum);
+        customersPerSecond.add(customer.getQueuedAt().toSecondOfDay(), 1);
+        numberOfCustomers++;
+        Cart cart = customer.getCart();
+        for (int line = 0; line < cart.size(); line++) {
+            addedToCart(customer, cart.productAt(line), cart.quantityAt(line), true);
+        }
+        customer.addCartListener(this);
+    }
+
+    @Override
+    public void addedToCart(Customer customer, Product product, int number, boolean newInCart) {
+        String zipCode = customer.getZipCode();
+        long amount = product.getPriceInCents() * number;
+        totalNumberOfItems += number;
+        totalRevenueInCents += amount;
+        numberOfProductsBought.put(product, numberOfProductsBought.getOrDefault(product, 0) + number);
+        if (newInCart) {
+            int customers = numberOfCustomersPerProduct.getOrDefault(product, 0) + 1;
+            numberOfCustomersPerProduct.put(product, customers);
+            updateMostPopular(product, customers);
+            Map<String, Integer> customersPerZipcode = customersPerZipcodePerProduct.get(product);
+            if (customersPerZipcode == null) {
+                customersPerZipcode = new HashMap<>();
+                customersPerZipcodePerProduct.put(product, customersPerZipcode);
+                zipcodesPerProductView.put(product, Collections.unmodifiableSet(customersPerZipcode.keySet()));
+            }
+            customersPerZipcode.merge(zipCode, 1, Integer::sum);
+        }
+        Map<Product, Integer> productsOfZipcode = productsOfZipcode(zipCode);
+        int count = productsOfZipcode.getOrDefault(product, 0) + number;
+        productsOfZipcode.put(product, count);
+        updateMostBought(zipCode, productsOfZipcode, product, count, number);
+
+        long revenue = revenueInCentsByZipcode.get(zipCode) + amount;
+        revenueInCentsByZipcode.put(zipCode, revenue);
+        revenueByZipcode.put(zipCode, Money.toEuros(revenue));
+        itemsPerSecond.add(customer.getQueuedAt().toSecondOfDay(), number);
+        revenueInCentsPerSecond.add(customer.getQueuedAt().toSecondOfDay(), amount);
+
+        Bill bill = billsByCustomer.get(customer);
+        bills.remove(bill);
+        bill.cents += amount;
+        bills.add(bill);
+    }
+
+    /**
+     * removes a customer with its cart, the statistics are the same as if the customer was never added
+     */
+    public void remove(Customer customer) {
+        Bill bill = billsByCustomer.remove(customer);
+        if (bill == null) {
+            throw new IllegalArgumentException("Customer has not been added: " + customer.getQueuedAt());
+        }
+        customer.removeCartListener(this);
+        bills.remove(bill);
+        String zipCode = customer.getZipCode();
+        int second = customer.getQueuedAt().toSecondOfDay();
+        customersPerSecond.add(second, -1);
+        numberOfCustomers--;
+        Map<Product, Integer> productsOfZipcode = numberOfProductsByZipcode.get(zipCode);
+        Cart cart = customer.getCart();
+        for (int line = 0; line < cart.size(); line++) {
+            Product product = cart.productAt(line);
+            int number = cart.quantityAt(line);
+            long amount = product.getPriceInCents() * number;
+            totalNumberOfItems -= number;
+            totalRevenueInCents -= amount;
+            itemsPerSecond.add(second, -number);
+            revenueInCentsPerSecond.add(second, -amount);
+            long revenue = revenueInCentsByZipcode.get(zipCode) - amount;
+            revenueInCentsByZipcode.put(zipCode, revenue);
+            revenueByZipcode.put(zipCode, Money.toEuros(revenue));
+
+            Map<String, Integer> customersPerZipcodeOfProduct = customersPerZipcodePerProduct.get(product);
+            if (customersPerZipcodeOfProduct.merge(zipCode, -1, Integer::sum) == 0) {
+                customersPerZipcodeOfProduct.remove(zipCode);
+                productsOfZipcode.remove(product);
+            } else {
+                productsOfZipcode.put(product, productsOfZipcode.get(product) - number);
+            }
+            int customers = numberOfCustomersPerProduct.get(product) - 1;
+            if (customers == 0) {
+                numberOfCustomersPerProduct.remove(product);
+                numberOfProductsBought.remove(product);
+                customersPerZipcodePerProduct.remove(product);
+                zipcodesPerProductView.remove(product);
+            } else {
+                numberOfCustomersPerProduct.put(product, customers);
+                numberOfProductsBought.put(product, numberOfProductsBought.get(product) - number);
+            }
+            if (mostPopularProducts.remove(product) && mostPopularProducts.isEmpty()) {
+                findMostPopular();
+            }
+        }
+        if (customersPerZipcode.merge(zipCode, -1, Integer::sum) == 0) {
+            customersPerZipcode.remove(zipCode);
+            numberOfProductsByZipcode.remove(zipCode);
+            numberOfProductsByZipcodeView.remove(zipCode);
+            revenueInCentsByZipcode.remove(zipCode);
+            revenueByZipcode.remove(zipCode);
+            mostBoughtProductByZipcode.remove(zipCode);
+        } else {
+            findMostBought(zipCode, productsOfZipcode);
+        }
+    }
+
+    private void findMostPopular() {
+        mostPopularCount = 0;
+        for (Map.Entry<Product, Integer> entry : numberOfCustomersPerProduct.entrySet()) {
+            updateMostPopular(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void findMostBought(String zipCode, Map<Product, Integer> productsOfZipcode) {
+        Product mostBought = null;
+        for (Map.Entry<Product, Integer> entry : productsOfZipcode.entrySet()) {
+            if (mostBought == null || entry.getValue() > productsOfZipcode.get(mostBought)) {
+                mostBought = entry.getKey();
+            }
+        }
+        if (mostBought == null) {
+            mostBoughtProductByZipcode.remove(zipCode);
+        } else {
+            mostBoughtProductByZipcode.put(zipCode, mostBought);
+        }
+    }
+
+    private Map<Product, Integer> productsOfZipcode(String zipCode) {
+        Map<Product, Integer> productsOfZipcode = numberOfProductsByZipcode.get(zipCode);
+        if (productsOfZipcode == null) {
+            productsOfZipcode = new HashMap<>();
+            numberOfProductsByZipcode.put(zipCode, productsOfZipcode);
+            numberOfProductsByZipcodeView.put(zipCode, Collections.unmodifiableMap(productsOfZipcode));
+            revenueInCentsByZipcode.put(zipCode, 0L);
+            revenueByZipcode.put(zipCode, 0.0);
+        }
+        return productsOfZipcode;
+    }
+
+    /**
+     * adds the product to the most popular products when it reaches their number of customers. a product
+     * that loses a customer can only lower that number, then remove() searches them again with findMostPopular
+     */
+    private void updateMostPopular(Product product, int customers) {
+        if (customers > mostPopularCount) {
+            mostPopularCount = customers;
+            mostPopularProducts.clear();
+        }
+        if (customers == mostPopularCount) {
+            mostPopularProducts.add(product);
+        }
+    }
+
+    /**
+     * only a negative number of the most bought product of a zip code makes it search the products of that zip code
+     */
+    private void updateMostBought(String zipCode, Map<Product, Integer> productsOfZipcode, Product product, int count, int number) {
+        Product mostBought = mostBoughtProductByZipcode.get(zipCode);
+        if (mostBought == null || count > productsOfZipcode.get(mostBought)) {
+            mostBoughtProductByZipcode.put(zipCode, product);
+        } else if (mostBought.equals(product) && number < 0) {
+            for (Map.Entry<Product, Integer> entry : productsOfZipcode.entrySet()) {
+                if (entry.getValue() > productsOfZipcode.get(mostBought)) {
+                    mostBought = entry.getKey();
+                }
+            }
+            mostBoughtProductByZipcode.put(zipCode, mostBought);
+        }
+    }
+
+    public int getNumberOfCustomers() {
+        return numberOfCustomers;
+    }
+
+    public int getTotalNumberOfItems() {
+        return totalNumberOfItems;
+    }
+
+    public double getTotalRevenue() {
+        return Money.toEuros(totalRevenueInCents);
+    }
+
+    public long getTotalRevenueInCents() {
+        return totalRevenueInCents;
+    }
+
+    /**
+     * @return average bill per customer, 0.0 without customers
+     */
+    public double getAverageRevenue() {
+        return numberOfCustomers == 0 ? 0.0 : Money.toEuros(totalRevenueInCents) / numberOfCustomers;
+    }
+
+    public double getHighestBill() {
+        return Money.toEuros(getHighestBillInCents());
+    }
+
+    public long getHighestBillInCents() {
+        return bills.isEmpty() ? 0 : bills.first().cents;
+    }
+
+    /**
+     * @return the first customer added with the highest bill, null without customers
+     */
+    public Customer getMostPayingCustomer() {
+        return bills.isEmpty() ? null : bills.first().customer;
+    }
+
+    /**
+     * the bills are kept sorted, so this only visits the first k of them
+     *
+     * @return List with the k customers with the highest bills, the highest bill first
+     */
+    public List<Customer> getMostPayingCustomers(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("K can not be negative: " + k);
+        }
+        List<Customer> mostPayingCustomers = new ArrayList<>(Math.min(k, bills.size()));
+        for (Bill bill : bills) {
+            if (mostPayingCustomers.size() == k) {
+                break;
+            }
+            mostPayingCustomers.add(bill.customer);
+        }
+        return mostPayingCustomers;
+    }
+
+    /**
+     * @return Map with total number of purchases per product
+     */
+    public Map<Product, Integer> getNumberOfProductsBought() {
+        return Collections.unmodifiableMap(numberOfProductsBought);
+    }
+
+    /**
+     * @return Map with the number of customers that have a product in their cart
+     */
+    public Map<Product, Integer> getNumberOfCustomersPerProduct() {
+        return Collections.unmodifiableMap(numberOfCustomersPerProduct);
+    }
+
+    /**
+     * @return Map with set of zipcodes per product
+     */
+    public Map<Product, Set<String>> getZipcodesPerProduct() {
+        return Collections.unmodifiableMap(zipcodesPerProductView);
+    }
+
+    /**
+     * zipcodes of customers with an empty cart are included with an empty map
+     *
+     * @return Map with map of product and number per zipcode
+     */
+    public Map<String, Map<Product, Integer>> getNumberOfProductsByZipcode() {
+        return Collections.unmodifiableMap(numberOfProductsByZipcodeView);
+    }
+
+    /**
+     * @return Map with revenues per zip code, not ordered
+     */
+    public Map<String, Double> getRevenueByZipcode() {
+        return Collections.unmodifiableMap(revenueByZipcode);
+    }
+
+    /**
+     * @return Map with revenues in euro cents per zip code, not ordered
+     */
+    public Map<String, Long> getRevenueInCentsByZipcode() {
+        return Collections.unmodifiableMap(revenueInCentsByZipcode);
+    }
+
+    /**
+     * @return Set with products bought by most customers
+     */
+    public Set<Product> getMostPopularProducts() {
+        return Collections.unmodifiableSet(mostPopularProducts);
+    }
+
+    /**
+     * if multiple products have the same maximum count, just pick one.
+     *
+     * @return Map with most bought product per zip code
+     */
+    public Map<String, Product> getMostBoughtProductByZipcode() {
+        return Collections.unmodifiableMap(mostBoughtProductByZipcode);
+    }
+
+    /**
+     * @return Map with number of customers per time interval
+     */
+    public Map<LocalTime, Integer> countCustomersPerInterval(TimeIntervals intervals) {
+        int[] counts = new int[intervals.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = (int) customersPerSecond.sum(intervals.startSecondOf(i), intervals.endSecondOf(i));
+        }
+        return intervals.toMap(counts);
+    }
+
+    /**
+     * @return Map with revenues per interval
+     */
+    public Map<LocalTime, Double> calculateRevenuePerInterval(TimeIntervals intervals) {
+        long[] revenues = new long[intervals.size()];
+        for (int i = 0; i < revenues.length; i++) {
+            revenues[i] = revenueInCentsPerSecond.sum(intervals.startSecondOf(i), intervals.endSecondOf(i));
+        }
+        return intervals.toEuroMap(revenues);
+    }
+
+    /**
+     * @return number of customers queued from the from time up to, but not including, the to time
+     */
+    public int countCustomersBetween(LocalTime from, LocalTime to) {
+        return (int) sumBetween(customersPerSecond, from, to);
+    }
+
+    /**
+     * @return number of items bought by customers queued from the from time up to, but not including, the to time
+     */
+    public long countItemsBetween(LocalTime from, LocalTime to) {
+        return sumBetween(itemsPerSecond, from, to);
+    }
+
+    /**
+     * @return revenue in euro cents of customers queued from the from time up to, but not including, the to time
+     */
+    public long revenueInCentsBetween(LocalTime from, LocalTime to) {
+        return sumBetween(revenueInCentsPerSecond, from, to);
+    }
+
+    /**
+     * @return start time of the window of the given length with the most customers, the earliest of equal windows
+     */
+    public LocalTime findBusiestWindow(LocalTime openTime, LocalTime closingTime, int minutes) {
+        return TimeIndex.findPeakWindow(customersPerSecond::sum, openTime, closingTime, minutes);
+    }
+
+    /**
+     * @return start time of the window of the given length with the highest revenue, the earliest of equal windows
+     */
+    public LocalTime findHighestRevenueWindow(LocalTime openTime, LocalTime closingTime, int minutes) {
+        return TimeIndex.findPeakWindow(revenueInCentsPerSecond::sum, openTime, closingTime, minutes);
+    }
+
+    private static long sumBetween(FenwickTree perSecond, LocalTime from, LocalTime to) {
+        int fromSecond = from.toSecondOfDay();
+        int toSecond = to.toSecondOfDay();
+        return toSecond > fromSecond ? perSecond.sum(fromSecond, toSecond) : 0;
+    }
+
+    /**
+     * @return immutable snapshot of the current statistics, for a report that must not change while it is printed
+     */
+    public SupermarketStatistics snapshot() {
+        int[] customers = new int[SupermarketStatistics.SECONDS_PER_DAY];
+        int[] items = new int[SupermarketStatistics.SECONDS_PER_DAY];
+        long[] revenues = new long[SupermarketStatistics.SECONDS_PER_DAY];
+        for (int second = 0; second < SupermarketStatistics.SECONDS_PER_DAY; second++) {
+            customers[second] = (int) customersPerSecond.sum(second, second + 1);
+            items[second] = (int) itemsPerSecond.sum(second, second + 1);
+            revenues[second] = revenueInCentsPerSecond.sum(second, second + 1);
+        }
+        List<SupermarketStatistics.CustomerBill> highestBills = new ArrayList<>();
+        for (Bill bill : bills) {
+            if (highestBills.size() == SupermarketStatistics.HIGHEST_BILLS) {
+                break;
+            }
+            highestBills.add(new SupermarketStatistics.CustomerBill(bill.customer, bill.cents));
+        }
+        return new SupermarketStatistics(numberOfCustomers, totalNumberOfItems, totalRevenueInCents,
+                highestBills, numberOfProductsBought, numberOfCustomersPerProduct,
+                zipcodesPerProductView, numberOfProductsByZipcode, revenueInCentsByZipcode, customers, items, revenues);
+    }
+
+    private static class Bill implements Comparable<Bill> {
+        private final Customer customer;
+        private final long sequence;
+        private long cents;
+
+        Bill(Customer customer, long sequence) {
+            this.customer = customer;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Bill other) {
+            int compare = Long.compare(other.cents, cents);
+            return compare != 0 ? compare : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from long keys to int values, without boxing of keys or values.
+ * Used to aggregate pairs of ids, like a zip code id and a product id packed in one long.
+ * Long.MIN_VALUE marks a free slot and can't be used as key, packed non negative ids never are.
+ */
+class LongIntHashMap {
+
+    private static final long FREE = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * packs two non negative ids in one key
+     */
+    static long pack(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    static int high(long key) {
+        return (int) (key >>> 32);
+    }
+
+    static int low(long key) {
+        return (int) key;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(long key) {
+        int slot = find(key);
+        return keys[slot] == FREE ? 0 : values[slot];
+    }
+
+    boolean containsKey(long key) {
+        return keys[find(key)] != FREE;
+    }
+
+    /**
+     * adds the delta to the value of the key, a missing key starts at 0
+     *
+     * @return the new value of the key
+     */
+    int add(long key, int delta) {
+        int slot = find(key);
+        if (keys[slot] == FREE) {
+            put(slot, key, delta);
+            return delta;
+        }
+        values[slot] += delta;
+        return values[slot];
+    }
+
+    void put(long key, int value) {
+        int slot = find(key);
+        if (keys[slot] == FREE) {
+            put(slot, key, value);
+            return;
+        }
+        values[slot] = value;
+    }
+
+    private void put(int slot, long key, int value) {
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        if (size * 4 > keys.length * 3) {
+            grow();
+        }
+    }
+
+    void forEach(Entry entry) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                entry.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * adds all entries of the other map to this map
+     */
+    void addAll(LongIntHashMap other) {
+        other.forEach(this::add);
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(keys.length << 1);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != FREE) {
+                int newSlot = find(oldKeys[slot]);
+                keys[newSlot] = oldKeys[slot];
+                values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        values = new int[capacity];
+    }
+
+    interface Entry {
+        void accept(long key, int value);
+    }
+}
@@ -0,0 +1,23 @@
+package model;
+
+/**
+ * Measures a Query can aggregate per group. Money is in euro cents, like the other exact sums.
+ */
+public enum Measure {
+    /**
+     * number of items bought
+     */
+    QUANTITY,
+    /**
+     * revenue in euro cents
+     */
+    REVENUE,
+    /**
+     * number of different customers
+     */
+    CUSTOMERS,
+    /**
+     * highest total bill in euro cents of the customers in the group
+     */
+    HIGHEST_BILL
+}
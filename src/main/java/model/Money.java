@@ -0,0 +1,36 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money amounts as a long number of euro cents. Sums of cents are exact, so totals and revenues
+ * are identical to the cent whatever the order in which bills are added up.
+ */
+public final class Money {
+
+    private static final int CENTS_PER_EURO = 100;
+
+    private Money() {
+    }
+
+    /**
+     * @return the amount in euros rounded to whole cents
+     */
+    public static long toCents(double euros) {
+        return Math.round(euros * CENTS_PER_EURO);
+    }
+
+    /**
+     * parses a decimal amount in euros, like the price in a supermarket file, without rounding errors of doubles
+     *
+     * @return the amount rounded to whole cents
+     */
+    public static long parseCents(String euros) {
+        return new BigDecimal(euros).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static double toEuros(long cents) {
+        return (double) cents / CENTS_PER_EURO;
+    }
+}
@@ -12,14 +12,28 @@ public class Product implements Comparable<Product> {
     private String code;
     private String description;
     private double price;
+    // the price in whole cents, rounded once when the product is created
+    private transient long priceInCents;
 
     public Product() {
     }
 
     public Product(String code, String description, double price) {
+        this(code, description, price, Money.toCents(price));
+    }
+
+    private Product(String code, String description, double price, long priceInCents) {
         this.code = code;
         this.description = description;
         this.price = price;
+        this.priceInCents = priceInCents;
+    }
+
+    /**
+     * @return product with a price of exactly the given number of euro cents
+     */
+    public static Product ofCents(String code, String description, long priceInCents) {
+        return new Product(code, description, Money.toEuros(priceInCents), priceInCents);
     }
 
     @Override
@@ -62,5 +76,12 @@ public class Product implements Comparable<Product> {
         return price;
     }
 
+    /**
+     * @return the price in whole euro cents, used for exact sums of money
+     */
+    public long getPriceInCents() {
+        return priceInCents;
+    }
+
 
 }
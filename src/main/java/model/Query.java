@@ -0,0 +1,63 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Declares a group-by of the customers of a supermarket on up to three dimensions and the measures
+ * to aggregate per group, like the revenue per zip code and interval. Several queries are executed
+ * together in one pass over the customers by Supermarket.query.
+ */
+public final class Query {
+
+    static final int MAX_DIMENSIONS = 3;
+
+    private final List<Dimension<?>> dimensions;
+    private final Set<Measure> measures = EnumSet.noneOf(Measure.class);
+
+    private Query(List<Dimension<?>> dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    /**
+     * @return query that groups by the dimensions, in this order
+     */
+    public static Query groupBy(Dimension<?>... dimensions) {
+        if (dimensions.length == 0 || dimensions.length > MAX_DIMENSIONS) {
+            throw new IllegalArgumentException("A query groups by 1 to " + MAX_DIMENSIONS + " dimensions: " + dimensions.length);
+        }
+        List<Dimension<?>> distinct = new ArrayList<>();
+        for (Dimension<?> dimension : dimensions) {
+            if (distinct.contains(dimension)) {
+                throw new IllegalArgumentException("A query can only group by " + dimension + " once");
+            }
+            distinct.add(dimension);
+        }
+        return new Query(Collections.unmodifiableList(distinct));
+    }
+
+    /**
+     * adds the measures to aggregate per group
+     */
+    public Query measure(Measure... measures) {
+        this.measures.addAll(Arrays.asList(measures));
+        return this;
+    }
+
+    public List<Dimension<?>> getDimensions() {
+        return dimensions;
+    }
+
+    public Set<Measure> getMeasures() {
+        return Collections.unmodifiableSet(measures);
+    }
+
+    @Override
+    public String toString() {
+        return "groupBy " + dimensions + " measure " + measures;
+    }
+}
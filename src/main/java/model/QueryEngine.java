@@ -0,0 +1,204 @@
+package model;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Executes queries together in one pass over the customers. Each query keeps its groups in primitive
+ * arrays, found by the ids of the values of its dimensions packed in one long key of a LongIntHashMap,
+ * so adding a customer or a line of a cart to a group doesn't create objects.
+ */
+class QueryEngine {
+
+    private final Aggregation[] aggregations;
+    private int customer = -1;
+
+    private QueryEngine(List<Query> queries, LocalTime openTime, LocalTime closingTime) {
+        aggregations = new Aggregation[queries.size()];
+        for (int i = 0; i < aggregations.length; i++) {
+            aggregations[i] = new Aggregation(queries.get(i), openTime, closingTime);
+        }
+    }
+
+    /**
+     * @return the results of the queries over the customers, in the order of the queries
+     */
+    static List<QueryResult> execute(List<Query> queries, Collection<Customer> customers, LocalTime openTime, LocalTime closingTime) {
+        QueryEngine engine = new QueryEngine(queries, openTime, closingTime);
+        for (Customer customer : customers) {
+            engine.startCustomer(customer.getQueuedAt().toSecondOfDay(), customer.getZipCode(),
+                    customer.getNumberOfItems(), customer.calculateTotalBillInCents());
+            Cart cart = customer.getCart();
+            for (int line = 0; line < cart.size(); line++) {
+                engine.addLine(cart.productAt(line), cart.quantityAt(line));
+            }
+        }
+        return engine.results();
+    }
+
+    /**
+     * @return the results of the queries over the customers of the columns of the table
+     */
+    static List<QueryResult> execute(List<Query> queries, CustomerTable table, LocalTime openTime, LocalTime closingTime) {
+        QueryEngine engine = new QueryEngine(queries, openTime, closingTime);
+        for (int customer = 0; customer < table.size(); customer++) {
+            int items = 0;
+            for (int line = table.getCartStart(customer); line < table.getCartEnd(customer); line++) {
+                items += table.getCartQuantity(line);
+            }
+            engine.startCustomer(table.getQueuedAtSecond(customer), table.getZipCode(table.getZipId(customer)),
+                    items, table.calculateTotalBillInCents(customer));
+            for (int line = table.getCartStart(customer); line < table.getCartEnd(customer); line++) {
+                engine.addLine(table.getProduct(table.getCartProductId(line)), table.getCartQuantity(line));
+            }
+        }
+        return engine.results();
+    }
+
+    private void startCustomer(int second, String zipCode, int items, long bill) {
+        customer++;
+        for (Aggregation aggregation : aggregations) {
+            aggregation.startCustomer(customer, second, zipCode, items, bill);
+        }
+    }
+
+    private void addLine(Product product, int quantity) {
+        for (Aggregation aggregation : aggregations) {
+            aggregation.addLine(customer, product, quantity);
+        }
+    }
+
+    private List<QueryResult> results() {
+        List<QueryResult> results = new ArrayList<>();
+        for (Aggregation aggregation : aggregations) {
+            results.add(aggregation.result());
+        }
+        return results;
+    }
+
+    /**
+     * The groups of one query
+     */
+    private static class Aggregation {
+        private static final int MIN_CAPACITY = 16;
+
+        private final Query query;
+        private final Dimension.Values<?>[] values;
+        private final boolean[] perLine;
+        private final boolean hasLineDimension;
+        // bits per id in the key of a group
+        private final int bits;
+        // group + 1 by the key of the ids of the group
+        private final LongIntHashMap groups = new LongIntHashMap();
+        private long[] keys = new long[MIN_CAPACITY];
+        private long[][] measures = new long[Measure.values().length][MIN_CAPACITY];
+        private int[] lastCustomer = new int[MIN_CAPACITY];
+        private int size;
+
+        // state of the customer that is added
+        private final int[] ids;
+        private int second;
+        private String zipCode;
+        private long bill;
+        private boolean leftOut;
+
+        Aggregation(Query query, LocalTime openTime, LocalTime closingTime) {
+            this.query = query;
+            List<Dimension<?>> dimensions = query.getDimensions();
+            values = new Dimension.Values<?>[dimensions.size()];
+            perLine = new boolean[dimensions.size()];
+            boolean lines = false;
+            for (int dimension = 0; dimension < values.length; dimension++) {
+                values[dimension] = dimensions.get(dimension).values(openTime, closingTime);
+                perLine[dimension] = dimensions.get(dimension).isPerLine();
+                lines |= perLine[dimension];
+            }
+            hasLineDimension = lines;
+            // an id is a non negative int, three ids get 20 bits each
+            bits = Math.min(Integer.SIZE - 1, Long.SIZE / values.length - 1);
+            ids = new int[values.length];
+        }
+
+        void startCustomer(int customer, int second, String zipCode, int items, long bill) {
+            this.second = second;
+            this.zipCode = zipCode;
+            this.bill = bill;
+            leftOut = false;
+            for (int dimension = 0; dimension < values.length; dimension++) {
+                if (!perLine[dimension]) {
+                    ids[dimension] = values[dimension].idOf(second, zipCode, null);
+                    leftOut |= ids[dimension] < 0;
+                }
+            }
+            if (!hasLineDimension && !leftOut) {
+                add(customer, items, bill);
+            }
+        }
+
+        void addLine(int customer, Product product, int quantity) {
+            if (!hasLineDimension || leftOut) {
+                return;
+            }
+            for (int dimension = 0; dimension < values.length; dimension++) {
+                if (perLine[dimension]) {
+                    ids[dimension] = values[dimension].idOf(second, zipCode, product);
+                }
+            }
+            add(customer, quantity, product.getPriceInCents() * quantity);
+        }
+
+        private void add(int customer, int quantity, long revenue) {
+            long key = 0;
+            for (int id : ids) {
+                if (id >= 1L << bits) {
+                    throw new IllegalStateException("Too many values to group " + query + " by");
+                }
+                key = key << bits | id;
+            }
+            int group = groups.get(key) - 1;
+            if (group < 0) {
+                group = newGroup(key);
+            }
+            measures[Measure.QUANTITY.ordinal()][group] += quantity;
+            measures[Measure.REVENUE.ordinal()][group] += revenue;
+            if (lastCustomer[group] != customer) {
+                lastCustomer[group] = customer;
+                measures[Measure.CUSTOMERS.ordinal()][group]++;
+                long[] highestBills = measures[Measure.HIGHEST_BILL.ordinal()];
+                highestBills[group] = Math.max(highestBills[group], bill);
+            }
+        }
+
+        private int newGroup(long key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                lastCustomer = Arrays.copyOf(lastCustomer, size * 2);
+                for (int measure = 0; measure < measures.length; measure++) {
+                    measures[measure] = Arrays.copyOf(measures[measure], size * 2);
+                }
+            }
+            keys[size] = key;
+            lastCustomer[size] = -1;
+            groups.put(key, size + 1);
+            return size++;
+        }
+
+        QueryResult result() {
+            int[][] groupIds = new int[size][values.length];
+            long mask = (1L << bits) - 1;
+            for (int group = 0; group < size; group++) {
+                for (int dimension = 0; dimension < values.length; dimension++) {
+                    groupIds[group][dimension] = (int) (keys[group] >>> (bits * (values.length - 1 - dimension)) & mask);
+                }
+            }
+            long[][] measured = new long[measures.length][];
+            for (int measure = 0; measure < measures.length; measure++) {
+                measured[measure] = Arrays.copyOf(measures[measure], size);
+            }
+            return new QueryResult(query, values, groupIds, measured);
+        }
+    }
+}
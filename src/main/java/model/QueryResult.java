@@ -0,0 +1,109 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Groups of a Query with their measures, in the order in which the groups were first seen.
+ */
+public class QueryResult {
+
+    private final Query query;
+    private final Dimension.Values<?>[] values;
+    // ids of the values of the dimensions per group
+    private final int[][] ids;
+    // measures by the ordinal of the measure and the group
+    private final long[][] measures;
+
+    QueryResult(Query query, Dimension.Values<?>[] values, int[][] ids, long[][] measures) {
+        this.query = query;
+        this.values = values;
+        this.ids = ids;
+        this.measures = measures;
+    }
+
+    public Query getQuery() {
+        return query;
+    }
+
+    /**
+     * @return number of groups
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return values of the dimensions of the group, in the order of the dimensions of the query
+     */
+    public List<Object> getKey(int group) {
+        Object[] key = new Object[values.length];
+        for (int dimension = 0; dimension < values.length; dimension++) {
+            key[dimension] = values[dimension].valueOf(ids[group][dimension]);
+        }
+        return Collections.unmodifiableList(Arrays.asList(key));
+    }
+
+    public long get(int group, Measure measure) {
+        return measuresOf(measure)[group];
+    }
+
+    /**
+     * a dimension with fixed values, like the intervals of the opening hours, has all of them in order,
+     * with 0 for the values without customers
+     *
+     * @return Map with the measure per value of the dimension of a query of one dimension
+     */
+    public <K> Map<K, Long> toMap(Dimension<K> dimension, Measure measure) {
+        checkDimensions(dimension);
+        long[] measured = measuresOf(measure);
+        Dimension.Values<K> valuesOfDimension = valuesOf(0);
+        Map<K, Long> map = new LinkedHashMap<>();
+        for (int id = 0; id < valuesOfDimension.numberOfValues(); id++) {
+            map.put(valuesOfDimension.valueOf(id), 0L);
+        }
+        for (int group = 0; group < ids.length; group++) {
+            map.put(valuesOfDimension.valueOf(ids[group][0]), measured[group]);
+        }
+        return map;
+    }
+
+    /**
+     * @return Map with a Map of the measure per value of the second dimension per value of the first dimension
+     */
+    public <K, V> Map<K, Map<V, Long>> toMap(Dimension<K> first, Dimension<V> second, Measure measure) {
+        checkDimensions(first, second);
+        long[] measured = measuresOf(measure);
+        Dimension.Values<K> firstValues = valuesOf(0);
+        Dimension.Values<V> secondValues = valuesOf(1);
+        Map<K, Map<V, Long>> map = new LinkedHashMap<>();
+        for (int group = 0; group < ids.length; group++) {
+            map.computeIfAbsent(firstValues.valueOf(ids[group][0]), value -> new LinkedHashMap<>())
+                    .put(secondValues.valueOf(ids[group][1]), measured[group]);
+        }
+        return map;
+    }
+
+    private void checkDimensions(Dimension<?>... dimensions) {
+        if (!query.getDimensions().equals(List.of(dimensions))) {
+            throw new IllegalArgumentException("Result of " + query + " is not grouped by " + List.of(dimensions));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K> Dimension.Values<K> valuesOf(int dimension) {
+        return (Dimension.Values<K>) values[dimension];
+    }
+
+    private long[] measuresOf(Measure measure) {
+        Set<Measure> measured = query.getMeasures();
+        if (!measured.contains(measure)) {
+            throw new IllegalArgumentException("Result of " + query + " has no " + measure);
+        }
+        return measures[measure.ordinal()];
+    }
+}
@@ -0,0 +1,178 @@
+package model;
+
+import java.io.*;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Writes the text of a report through a large buffer to any Appendable, like System.out, a Writer
+ * or a StringBuilder. Numbers are formatted by hand into the buffer instead of with printf, with the
+ * same text as %d and %.2f: amounts in euro cents are exact and other amounts are rounded half up.
+ * The decimal separator is the one of the default format locale, like printf uses.
+ */
+public class ReportWriter implements Flushable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    // amounts below this many cents are exactly representable, so their double can be written as cents
+    private static final double MAX_EXACT_CENTS = 1e15;
+
+    private final Appendable out;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final char decimalSeparator;
+    private final String lineSeparator = System.lineSeparator();
+    private int length;
+
+    public ReportWriter(Appendable out) {
+        this.out = out;
+        this.decimalSeparator = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)).getDecimalSeparator();
+    }
+
+    public ReportWriter(OutputStream out, Charset charset) {
+        this(new OutputStreamWriter(out, charset));
+    }
+
+    public ReportWriter append(char c) {
+        if (length == buffer.length) {
+            flushBuffer();
+        }
+        buffer[length++] = c;
+        return this;
+    }
+
+    /**
+     * appends the text, or null like %s does
+     */
+    public ReportWriter append(String text) {
+        String value = String.valueOf(text);
+        if (value.length() > buffer.length - length) {
+            flushBuffer();
+            if (value.length() > buffer.length) {
+                write(value);
+                return this;
+            }
+        }
+        value.getChars(0, value.length(), buffer, length);
+        length += value.length();
+        return this;
+    }
+
+    public ReportWriter append(Object value) {
+        return append(String.valueOf(value));
+    }
+
+    /**
+     * appends the text padded with spaces to the width, like %-<width>s
+     */
+    public ReportWriter appendPadded(String text, int width) {
+        String value = String.valueOf(text);
+        append(value);
+        for (int i = value.length(); i < width; i++) {
+            append(' ');
+        }
+        return this;
+    }
+
+    /**
+     * appends the number like %d
+     */
+    public ReportWriter append(long number) {
+        if (number == Long.MIN_VALUE) {
+            return append(Long.toString(number));
+        }
+        if (number < 0) {
+            append('-');
+            number = -number;
+        }
+        if (buffer.length - length < 19) {
+            flushBuffer();
+        }
+        int digits = 1;
+        for (long rest = number / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    /**
+     * appends an amount in euro cents with two decimals, like %.2f of the amount in euros
+     */
+    public ReportWriter appendEuros(long cents) {
+        if (cents < 0) {
+            append('-');
+        }
+        long absoluteCents = Math.abs(cents);
+        append(absoluteCents / 100);
+        append(decimalSeparator);
+        append((char) ('0' + absoluteCents / 10 % 10));
+        return append((char) ('0' + absoluteCents % 10));
+    }
+
+    /**
+     * appends the amount with two decimals like %.2f, amounts that are whole cents are formatted by hand
+     */
+    public ReportWriter appendEuros(double amount) {
+        double absoluteAmount = Math.abs(amount);
+        if (absoluteAmount < MAX_EXACT_CENTS / 100) {
+            long cents = Math.round(absoluteAmount * 100);
+            if (cents / 100.0 == absoluteAmount) {
+                if (Double.compare(amount, 0.0) < 0) {
+                    append('-');
+                }
+                return appendEuros(cents);
+            }
+        }
+        return append(String.format(Locale.getDefault(Locale.Category.FORMAT), "%.2f", amount));
+    }
+
+    /**
+     * appends the line separator of the system, like println and %n
+     */
+    public ReportWriter newLine() {
+        return append(lineSeparator);
+    }
+
+    /**
+     * writes the buffer to the output and flushes the output
+     */
+    @Override
+    public void flush() {
+        flushBuffer();
+        if (out instanceof Flushable) {
+            try {
+                ((Flushable) out).flush();
+            } catch (IOException flushError) {
+                throw new UncheckedIOException("Could not flush the report", flushError);
+            }
+        }
+    }
+
+    private void flushBuffer() {
+        if (length > 0) {
+            if (out instanceof Writer) {
+                try {
+                    ((Writer) out).write(buffer, 0, length);
+                } catch (IOException writeError) {
+                    throw new UncheckedIOException("Could not write the report", writeError);
+                }
+            } else {
+                write(CharBuffer.wrap(buffer, 0, length));
+            }
+            length = 0;
+        }
+    }
+
+    private void write(CharSequence text) {
+        try {
+            out.append(text);
+        } catch (IOException writeError) {
+            throw new UncheckedIOException("Could not write the report", writeError);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package model;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of the results of the queries of a supermarket, by the query and its parameters.
+ * Every result has a weight of about one per entry of a map or list or per line of a report, and the
+ * least recently used results are evicted when the total weight passes the capacity. The results belong
+ * to one count of the modifications of the supermarket, they are all dropped when the count has changed.
+ */
+public class ResultCache {
+
+    public static final int DEFAULT_CAPACITY = 100_000;
+    private static final int CHARACTERS_PER_LINE = 100;
+
+    // in order of access, the least recently used result first
+    private final Map<Object, Result> results = new LinkedHashMap<>(16, 0.75f, true);
+    private int capacity = DEFAULT_CAPACITY;
+    private long weight;
+    private long modifications;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * @return the cached result of the key, or the result of the calculation which is cached if it isn't too heavy
+     */
+    @SuppressWarnings("unchecked")
+    synchronized <V> V get(Object key, long modifications, Supplier<V> calculation) {
+        if (modifications != this.modifications) {
+            if (!results.isEmpty()) {
+                invalidations++;
+            }
+            clear();
+            this.modifications = modifications;
+        }
+        Result result = results.get(key);
+        if (result != null) {
+            hits++;
+            return (V) result.value;
+        }
+        misses++;
+        V value = calculation.get();
+        int weightOfValue = weightOf(value);
+        if (weightOfValue <= capacity) {
+            results.put(key, new Result(value, weightOfValue));
+            weight += weightOfValue;
+            evict();
+        }
+        return value;
+    }
+
+    private static int weightOf(Object value) {
+        if (value instanceof Map) {
+            return ((Map<?, ?>) value).size() + 1;
+        }
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).size() + 1;
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length() / CHARACTERS_PER_LINE + 1;
+        }
+        return 1;
+    }
+
+    private void evict() {
+        Iterator<Result> leastRecentlyUsed = results.values().iterator();
+        while (weight > capacity && leastRecentlyUsed.hasNext()) {
+            weight -= leastRecentlyUsed.next().weight;
+            leastRecentlyUsed.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * @param capacity total weight of the cached results, 0 to cache nothing
+     */
+    public synchronized void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity of the cache can't be negative: " + capacity);
+        }
+        this.capacity = capacity;
+        evict();
+    }
+
+    public synchronized void clear() {
+        results.clear();
+        weight = 0;
+    }
+
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of cached results
+     */
+    public synchronized int size() {
+        return results.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return number of results that were found in the cache
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of results that had to be calculated
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return number of results that were dropped to stay within the capacity
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return number of times the results were dropped because the products, customers or carts changed
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public synchronized double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    private static class Result {
+        private final Object value;
+        private final int weight;
+
+        Result(Object value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Finds the most frequent items with a fixed number of counters. An item without a counter takes the counter
+ * of the least counted item and inherits its count as error, so a count is never lower than the true count
+ * and at most its error higher. Every item with a true count above total / capacity has a counter.
+ */
+class SpaceSaving<T> {
+
+    private final int capacity;
+    private final Map<T, Counter<T>> counters = new HashMap<>();
+    // least counted first, of equal counts the oldest counter first
+    private final TreeSet<Counter<T>> countersByCount = new TreeSet<>();
+    private long total;
+    private long sequence;
+
+    SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    void add(T item, long count) {
+        total += count;
+        Counter<T> counter = counters.get(item);
+        if (counter != null) {
+            countersByCount.remove(counter);
+            counter = new Counter<>(item, counter.count + count, counter.error, sequence++);
+        } else if (counters.size() < capacity) {
+            counter = new Counter<>(item, count, 0, sequence++);
+        } else {
+            Counter<T> evicted = countersByCount.pollFirst();
+            counters.remove(evicted.item);
+            counter = new Counter<>(item, evicted.count + count, evicted.count, sequence++);
+        }
+        counters.put(item, counter);
+        countersByCount.add(counter);
+    }
+
+    /**
+     * @return Map with the k items with the highest counts and their estimated counts, the highest count first
+     */
+    Map<T, Estimate> top(int k) {
+        TopK<Counter<T>> top = new TopK<>(k);
+        for (Counter<T> counter : counters.values()) {
+            top.offer(counter, counter.count);
+        }
+        Map<T, Estimate> estimates = new LinkedHashMap<>();
+        for (Counter<T> counter : top.toList()) {
+            estimates.put(counter.item, new Estimate(counter.count, counter.count - counter.error, counter.count, 1.0));
+        }
+        return estimates;
+    }
+
+    /**
+     * @return the most a count can be higher than the true count, items without counter have a lower true count
+     */
+    long errorBound() {
+        return counters.size() < capacity ? 0 : countersByCount.first().count;
+    }
+
+    private static class Counter<T> implements Comparable<Counter<T>> {
+        private final T item;
+        private final long count;
+        private final long error;
+        private final long sequence;
+
+        Counter(T item, long count, long error, long sequence) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Counter<T> other) {
+            int compare = Long.compare(count, other.count);
+            return compare != 0 ? compare : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -2,8 +2,9 @@ package model;
 
 import java.time.LocalTime;
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Supermarket Customer and purchase statistics
@@ -17,6 +18,18 @@ public class Supermarket {
     private Set<Customer> customers;
     private LocalTime openTime;
     private LocalTime closingTime;
+    private transient SupermarketStatistics streamedStatistics;
+    private transient CustomerTable customerTable;
+    private transient LiveStatistics liveStatistics;
+    private transient ConcurrentStatistics concurrentStatistics;
+    private transient ApproximateStatistics approximateStatistics;
+    // counts every change of the products, customers and carts, the cached statistics belong to one count
+    private transient long modifications;
+    private transient long modificationsOfStatistics;
+    private transient SupermarketStatistics cachedStatistics;
+    private transient ChangeTracker changeTracker;
+    // results of the queries and reports by their parameters, for the same count of modifications
+    private transient ResultCache resultCache;
     private static final int INTERVAL_IN_MINUTES = 15;
 
     public Supermarket() {
@@ -31,12 +44,30 @@ public class Supermarket {
     }
 
     public void initializeCollections() {
-        products = new HashSet<>();
-        customers = new HashSet<>();
-
+        if (changeTracker == null) {
+            changeTracker = new ChangeTracker();
+        }
+        products = new TrackedSet<>(changeTracker.products);
+        customers = new TrackedSet<>(changeTracker.customers);
+        if (liveStatistics != null) {
+            liveStatistics = new LiveStatistics();
+        }
+        modifications++;
     }
 
     public int getTotalNumberOfItems() {
+        if (liveStatistics != null) {
+            return liveStatistics.getTotalNumberOfItems();
+        }
+        if (concurrentStatistics != null) {
+            return concurrentStatistics.getTotalNumberOfItems();
+        }
+        if (streamedStatistics != null) {
+            return streamedStatistics.getTotalNumberOfItems();
+        }
+        if (customerTable != null) {
+            return customerTable.getTotalNumberOfItems();
+        }
         int totalItems = 0;
         for (Customer customer : customers) {
             totalItems += customer.getNumberOfItems();
@@ -44,13 +75,245 @@ public class Supermarket {
         return totalItems;
     }
 
-    private void printErrorMessage() {
-        System.out.println("No products or customers have been set up...");
+    private void printErrorMessage(ReportWriter report) {
+        report.append("No products or customers have been set up...").newLine();
     }
 
     private boolean checkSetupErrorProductCustomers() {
         return this.customers == null || this.products == null ||
-                this.customers.size() == 0 || this.products.size() == 0;
+                getNumberOfCustomers() == 0 || this.products.size() == 0;
+    }
+
+    /**
+     * @return number of customers, including the customers of streamed statistics or the customer table
+     */
+    public int getNumberOfCustomers() {
+        if (streamedStatistics != null) {
+            return streamedStatistics.getNumberOfCustomers();
+        }
+        return customerTable != null ? customerTable.size() : customers.size();
+    }
+
+    /**
+     * Adds a customer that checks out. With live statistics the statistics are updated right away,
+     * also when products are added to the cart of the customer later on.
+     *
+     * @return true if the customer was added, false if an equal customer was already there
+     */
+    public boolean addCustomer(Customer customer) {
+        if (streamedStatistics != null || customerTable != null) {
+            throw new IllegalStateException("Customers can't be added to streamed statistics or a customer table");
+        }
+        // the change tracker of the customers set adds the customer to the live statistics
+        if (!customers.add(customer)) {
+            return false;
+        }
+        if (concurrentStatistics != null) {
+            concurrentStatistics.add(customer);
+        }
+        return true;
+    }
+
+    /**
+     * Keeps the statistics up to date from now on, while customers are added with addCustomer()
+     * and products are added to their carts. All queries are answered from the live statistics
+     * without scanning the customers again.
+     */
+    public void trackLiveStatistics() {
+        if (concurrentStatistics != null) {
+            throw new IllegalStateException("Live statistics can't be tracked with concurrent checkouts");
+        }
+        if (streamedStatistics != null || customerTable != null) {
+            throw new IllegalStateException("Live statistics need the customers in the customers set");
+        }
+        if (liveStatistics == null) {
+            liveStatistics = new LiveStatistics();
+            for (Customer customer : customers) {
+                liveStatistics.add(customer);
+            }
+        }
+    }
+
+    /**
+     * @return the live statistics, or null if they are not tracked
+     */
+    public LiveStatistics getLiveStatistics() {
+        return liveStatistics;
+    }
+
+    /**
+     * Lets many checkout lanes add customers with addCustomer() and products to their carts at the same time.
+     * The products and customers are moved to concurrent sets and the statistics are kept in concurrent counters,
+     * every query is answered from a consistent snapshot of those counters.
+     */
+    public void useConcurrentCheckouts() {
+        if (liveStatistics != null || streamedStatistics != null || customerTable != null) {
+            throw new IllegalStateException("Concurrent checkouts need the customers in the customers set");
+        }
+        if (concurrentStatistics == null) {
+            Set<Product> concurrentProducts = ConcurrentHashMap.newKeySet();
+            concurrentProducts.addAll(products);
+            products = concurrentProducts;
+            Set<Customer> concurrentCustomers = ConcurrentHashMap.newKeySet();
+            concurrentCustomers.addAll(customers);
+            // the lanes don't pay for tracking changes, concurrent statistics are never cached
+            for (Customer customer : concurrentCustomers) {
+                customer.removeCartListener(changeTracker);
+            }
+            customers = concurrentCustomers;
+            concurrentStatistics = new ConcurrentStatistics();
+            for (Customer customer : customers) {
+                concurrentStatistics.add(customer);
+            }
+        }
+    }
+
+    /**
+     * Moves the customers from the customers set to a columnar customer table, which needs much less memory.
+     * All statistics and reports are answered from the table, getCustomerTable() gives the customers as views.
+     */
+    public void useColumnarStorage() {
+        if (liveStatistics != null || concurrentStatistics != null) {
+            throw new IllegalStateException("Customers with live or concurrent statistics can't be moved to a customer table");
+        }
+        if (customerTable == null) {
+            setCustomerTable(CustomerTable.of(customers));
+        }
+    }
+
+    /**
+     * Sets the customer table with the customers of this supermarket, instead of the customers set
+     */
+    public void setCustomerTable(CustomerTable customerTable) {
+        this.customerTable = customerTable;
+        customers.clear();
+        modifications++;
+    }
+
+    /**
+     * @return the customer table in columnar storage, or null if the customers are in the customers set
+     */
+    public CustomerTable getCustomerTable() {
+        return customerTable;
+    }
+
+    /**
+     * Sets the statistics of customers that have been streamed from a file without keeping them
+     * in the customers set. All statistics and reports are answered from these statistics.
+     */
+    public void setStreamedStatistics(SupermarketStatistics streamedStatistics) {
+        this.streamedStatistics = streamedStatistics;
+        modifications++;
+    }
+
+    /**
+     * sets approximate statistics of the customers, next to the exact statistics
+     */
+    public void setApproximateStatistics(ApproximateStatistics approximateStatistics) {
+        this.approximateStatistics = approximateStatistics;
+    }
+
+    /**
+     * @return the approximate statistics, calculated from the customers if they were not set
+     */
+    public ApproximateStatistics getApproximateStatistics() {
+        if (approximateStatistics == null) {
+            if (customerTable != null) {
+                return ApproximateStatistics.of(customerTable.asCustomers());
+            }
+            return ApproximateStatistics.of(customers);
+        }
+        return approximateStatistics;
+    }
+
+    /**
+     * calculates all customer, product and revenue statistics in a single pass over the customers.
+     * The statistics are cached and shared by all queries and reports, they are only calculated again
+     * after products or customers have been added or removed or products have been added to a cart.
+     *
+     * @return snapshot with the statistics, which can be reused as long as the customers don't change
+     */
+    public SupermarketStatistics calculateStatistics() {
+        if (concurrentStatistics != null) {
+            return concurrentStatistics.snapshot();
+        }
+        if (cachedStatistics == null || modificationsOfStatistics != modifications) {
+            if (liveStatistics != null) {
+                cachedStatistics = liveStatistics.snapshot();
+            } else if (streamedStatistics != null) {
+                cachedStatistics = streamedStatistics;
+            } else if (customerTable != null) {
+                cachedStatistics = customerTable.calculateStatistics();
+            } else {
+                cachedStatistics = SupermarketStatistics.of(customers);
+            }
+            modificationsOfStatistics = modifications;
+        }
+        return cachedStatistics;
+    }
+
+    /**
+     * @return cache of the results of the queries and reports, with its hits and misses
+     */
+    public ResultCache getResultCache() {
+        if (resultCache == null) {
+            resultCache = new ResultCache();
+        }
+        return resultCache;
+    }
+
+    /**
+     * @param capacity total weight of the cached results, about one per entry or per line of a report, 0 to cache nothing
+     */
+    public void setResultCacheCapacity(int capacity) {
+        getResultCache().setCapacity(capacity);
+    }
+
+    /**
+     * the result of the query by its key from the cache, as long as the products, customers and carts don't change.
+     * the results of concurrent checkouts change without modifications, so they are always calculated
+     */
+    private <V> V cached(List<?> key, Supplier<V> calculation) {
+        if (concurrentStatistics != null) {
+            return calculation.get();
+        }
+        return getResultCache().get(key, modifications, calculation);
+    }
+
+    /**
+     * the text of a report from the cache, written by the printer into a StringBuilder when it isn't cached.
+     * the key includes the format locale, which decides the decimal separator of the report
+     */
+    private void printCached(Appendable out, String report, Consumer<ReportWriter> printer) {
+        String text = cached(List.of(report, Locale.getDefault(Locale.Category.FORMAT)), () -> {
+            StringBuilder builder = new StringBuilder();
+            ReportWriter writer = new ReportWriter(builder);
+            printer.accept(writer);
+            writer.flush();
+            return builder.toString();
+        });
+        ReportWriter writer = new ReportWriter(out);
+        writer.append(text);
+        writer.flush();
+    }
+
+    /**
+     * report statistics of products, customers and revenues from one snapshot of the statistics
+     */
+    public void printStatistics() {
+        printStatistics(System.out);
+    }
+
+    /**
+     * writes the report of products, customers and revenues from one snapshot of the statistics
+     */
+    public void printStatistics(Appendable out) {
+        printCached(out, "printStatistics", report -> {
+            SupermarketStatistics statistics = calculateStatistics();
+            printProductStatistics(report, statistics);
+            printCustomerStatistics(report, statistics);
+            printRevenueStatistics(report, statistics);
+        });
     }
 
     /**
@@ -58,15 +321,19 @@ public class Supermarket {
      * heb ik opgesplitst in kleiner methodes
      */
     public void printProductStatistics() {
+        printCached(System.out, "printProductStatistics", report -> printProductStatistics(report, calculateStatistics()));
+    }
+
+    private void printProductStatistics(ReportWriter report, SupermarketStatistics statistics) {
         if (checkSetupErrorProductCustomers()) {
-            printErrorMessage();
+            printErrorMessage(report);
             return;
         }
-        printTopCustomerStatistics();
-        printProductSummary();
-        printProductZipCodes();
-        printMostPopularProducts();
-        printMostBoughtProductsPerZipCode();
+        printTopCustomerStatistics(report);
+        printProductSummary(report, statistics);
+        printProductZipCodes(report, statistics);
+        printMostPopularProducts(report, statistics);
+        printMostBoughtProductsPerZipCode(report, statistics);
     }
 
     /**
@@ -74,21 +341,31 @@ public class Supermarket {
      *ik heb deze methode ook uit elkaar gehaald omdat hij anders te lang werd
      */
     public void printCustomerStatistics() {
+        printCached(System.out, "printCustomerStatistics", report -> printCustomerStatistics(report, calculateStatistics()));
+    }
+
+    private void printCustomerStatistics(ReportWriter report, SupermarketStatistics statistics) {
         if (checkSetupErrorProductCustomers()) {
-            printErrorMessage();
+            printErrorMessage(report);
             return;
         }
-        System.out.println("\n>>>>> Customer Statistics of all purchases <<<<<\n");
-        System.out.printf("Customer with the highest bill of %.2f euro:\n%s\n\n", findHighestBill(), findMostPayingCustomer());
-        printCustomersPerInterval();
-    }
-
-
-    private void printCustomersPerInterval() {
-        System.out.println(">>> Time intervals with number of customers\n");
-        countCustomersPerInterval(Supermarket.INTERVAL_IN_MINUTES).forEach((startTime, count) -> {
-            LocalTime endTime = startTime.plusMinutes(Supermarket.INTERVAL_IN_MINUTES);
-            System.out.printf("Between %s and %s, the number of customers was %d\n", startTime, endTime, count);
+        report.append("\n>>>>> Customer Statistics of all purchases <<<<<\n").newLine();
+        report.append("Customer with the highest bill of ").appendEuros(statistics.getHighestBillInCents())
+                .append(" euro:\n").append(statistics.getMostPayingCustomer()).append("\n\n");
+        printCustomersPerInterval(report, statistics);
+    }
+
+
+    private void printCustomersPerInterval(ReportWriter report, SupermarketStatistics statistics) {
+        report.append(">>> Time intervals with number of customers\n").newLine();
+        // concurrent lanes keep adding, so the report takes its intervals from the same snapshot as its totals
+        Map<LocalTime, Integer> customersPerInterval = concurrentStatistics != null
+                ? statistics.countCustomersPerInterval(new TimeIntervals(openTime, closingTime, INTERVAL_IN_MINUTES))
+                : countCustomersPerInterval(INTERVAL_IN_MINUTES);
+        customersPerInterval.forEach((startTime, count) -> {
+            LocalTime endTime = endOfInterval(startTime, Supermarket.INTERVAL_IN_MINUTES);
+            report.append("Between ").append(startTime).append(" and ").append(endTime)
+                    .append(", the number of customers was ").append(count).append('\n');
         });
     }
 
@@ -97,103 +374,124 @@ public class Supermarket {
      * deze heb ik ook uit elkaar gehaald en opgesplitst in kleinere methodes
      */
     public void printRevenueStatistics() {
-        System.out.println("\n>>>>> Revenue Statistics of all purchases <<<<<");
-        System.out.printf("\nTotal revenue = %.2f\nAverage revenue per customer = %.2f\n", findTotalRevenue(), findAverageRevenue());
-        System.out.println();
-        printRevenuesByZipcode();
-        System.out.println();
-        printRevenuesByTimeInterval();
-    }
-
-    private void printRevenuesByZipcode() {
-        System.out.print(">>> Revenues per zip-code:\n");
-        Map<String, Double> revenues = this.getRevenueByZipcode();
-        revenues.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .forEach(entry -> System.out.printf("%s: \t%.2f\n", entry.getKey(), entry.getValue()));
+        printCached(System.out, "printRevenueStatistics", report -> printRevenueStatistics(report, calculateStatistics()));
+    }
 
+    private void printRevenueStatistics(ReportWriter report, SupermarketStatistics statistics) {
+        report.append("\n>>>>> Revenue Statistics of all purchases <<<<<").newLine();
+        report.append("\nTotal revenue = ").appendEuros(statistics.getTotalRevenueInCents())
+                .append("\nAverage revenue per customer = ").appendEuros(statistics.getAverageRevenue()).append('\n');
+        report.newLine();
+        printRevenuesByZipcode(report, statistics);
+        report.newLine();
+        printRevenuesByTimeInterval(report, statistics);
     }
 
-    private void printRevenuesByTimeInterval() {
-        System.out.printf(">>> Revenues per interval of %d minutes\n", INTERVAL_IN_MINUTES);
-        Map<LocalTime, Double> revenuesPerInterval = calculateRevenuePerInterval(INTERVAL_IN_MINUTES);
+    private void printRevenuesByZipcode(ReportWriter report, SupermarketStatistics statistics) {
+        report.append(">>> Revenues per zip-code:\n");
+        List<Map.Entry<String, Long>> revenues = new ArrayList<>(statistics.getRevenueInCentsByZipcode().entrySet());
+        revenues.sort(Map.Entry.comparingByKey());
+        for (Map.Entry<String, Long> entry : revenues) {
+            report.append(entry.getKey()).append(": \t").appendEuros(entry.getValue()).append('\n');
+        }
+    }
+
+    private void printRevenuesByTimeInterval(ReportWriter report, SupermarketStatistics statistics) {
+        report.append(">>> Revenues per interval of ").append(INTERVAL_IN_MINUTES).append(" minutes\n");
+        Map<LocalTime, Double> revenuesPerInterval = concurrentStatistics != null
+                ? statistics.calculateRevenuePerInterval(new TimeIntervals(openTime, closingTime, INTERVAL_IN_MINUTES))
+                : calculateRevenuePerInterval(INTERVAL_IN_MINUTES);
         for (Map.Entry<LocalTime, Double> entry : revenuesPerInterval.entrySet()) {
             LocalTime startTime = entry.getKey();
             double revenue = entry.getValue();
-            LocalTime endTime = startTime.plusMinutes(INTERVAL_IN_MINUTES);
-            System.out.printf("Between %s and %s the revenue was %.2f\n", startTime, endTime, revenue);
+            LocalTime endTime = endOfInterval(startTime, INTERVAL_IN_MINUTES);
+            report.append("Between ").append(startTime).append(" and ").append(endTime)
+                    .append(" the revenue was ").appendEuros(revenue).append('\n');
         }
     }
 
-    private void printTopCustomerStatistics() {
-        System.out.printf("\nCustomer Statistics of '%s' between %s and %s\n",
-                this.name, this.openTime, this.closingTime);
+    /**
+     * @return end time of the interval, the closing time for a last interval that is shorter than the others
+     */
+    private LocalTime endOfInterval(LocalTime startTime, int minutes) {
+        LocalTime endTime = startTime.plusMinutes(minutes);
+        return endTime.isAfter(closingTime) ? closingTime : endTime;
+    }
+
+    private void printTopCustomerStatistics(ReportWriter report) {
+        report.append("\nCustomer Statistics of '").append(this.name).append("' between ")
+                .append(this.openTime).append(" and ").append(this.closingTime).append('\n');
     }
 
-    private void printProductSummary() {
-        System.out.println("\n>>>>> Product Statistics of all purchases <<<<<");
-        System.out.println();
-        System.out.printf("%d customers have shopped %d items out of %d different products\n",
-                this.customers.size(), this.getTotalNumberOfItems(), this.products.size());
-        System.out.println();
-        System.out.println(">>> Products and total number bought:");
+    private void printProductSummary(ReportWriter report, SupermarketStatistics statistics) {
+        report.append("\n>>>>> Product Statistics of all purchases <<<<<").newLine();
+        report.newLine();
+        report.append(statistics.getNumberOfCustomers()).append(" customers have shopped ")
+                .append(statistics.getTotalNumberOfItems()).append(" items out of ")
+                .append(this.products.size()).append(" different products\n");
+        report.newLine();
+        report.append(">>> Products and total number bought:").newLine();
+        Map<Product, Integer> numberOfProductsBought = statistics.getNumberOfProductsBought();
         List<Product> sortedProducts = new ArrayList<>(products);
         Collections.sort(sortedProducts);
         for (Product product : sortedProducts) {
-            int numBought = findNumberOfProductsBought().getOrDefault(product, 0);
-            System.out.printf("%-30s \t%d %n", product.getDescription(), numBought);
+            int numBought = numberOfProductsBought.getOrDefault(product, 0);
+            report.appendPadded(product.getDescription(), 30).append(" \t").append(numBought).append(' ').newLine();
         }
-        System.out.println();
+        report.newLine();
     }
 
-    private void printProductZipCodes() {
-        System.out.println(">>> Products and zipcodes");
-        Map<Product, Set<String>> zipCodesPerProduct = findZipcodesPerProduct();
+    private void printProductZipCodes(ReportWriter report, SupermarketStatistics statistics) {
+        report.append(">>> Products and zipcodes").newLine();
+        Map<Product, Set<String>> zipCodesPerProduct = statistics.getZipcodesPerProduct();
         List<Map.Entry<Product, Set<String>>> sortedEntries = new ArrayList<>(zipCodesPerProduct.entrySet());
         Collections.sort(sortedEntries, (entry1, entry2) -> Integer.compare(entry2.getValue().size(), entry1.getValue().size()));
         for (Map.Entry<Product, Set<String>> entry : sortedEntries) {
             Product product = entry.getKey();
             Set<String> zipCodes = entry.getValue();
-            String formattedZipCodes = formatZipCodes(zipCodes);
-            System.out.printf("%-30s\n \t%s\n", product.getDescription(), formattedZipCodes);
+            report.appendPadded(product.getDescription(), 30).append("\n \t");
+            printZipCodes(report, zipCodes);
+            report.append('\n');
         }
-        System.out.println();
+        report.newLine();
     }
 
-
-    private String formatZipCodes(Set<String> zipCodes) {
+    /**
+     * writes the zip codes separated by commas, with a new line after every 8 zip codes.
+     * the last separator is left out, except its comma when the last line is full
+     */
+    private void printZipCodes(ReportWriter report, Set<String> zipCodes) {
         final int ZIP_CODES_PER_LINE = 8;
-        final int ZIP_CODE_SEPARATOR_LENGTH = 2;
-        StringBuilder formattedZipCodes = new StringBuilder();
         int count = 0;
         for (String zipCode : zipCodes) {
-            formattedZipCodes.append(zipCode).append(", ");
+            report.append(zipCode);
             count++;
-            if (count % ZIP_CODES_PER_LINE == 0) { formattedZipCodes.append("\n\t"); }
-        }
-        if (formattedZipCodes.length() > 0) {
-            formattedZipCodes.setLength(formattedZipCodes.length() - ZIP_CODE_SEPARATOR_LENGTH);
+            if (count < zipCodes.size()) {
+                report.append(", ");
+                if (count % ZIP_CODES_PER_LINE == 0) { report.append("\n\t"); }
+            } else if (count % ZIP_CODES_PER_LINE == 0) {
+                report.append(", ");
+            }
         }
-        return formattedZipCodes.toString();
     }
 
-    private void printMostPopularProducts() {
-        System.out.println(">>> Most popular products");
-        System.out.println();
-        Set<Product> mostPopularProducts = findMostPopularProducts();
-        System.out.println("Product(s) bought by most customers: ");
+    private void printMostPopularProducts(ReportWriter report, SupermarketStatistics statistics) {
+        report.append(">>> Most popular products").newLine();
+        report.newLine();
+        Set<Product> mostPopularProducts = statistics.getMostPopularProducts();
+        report.append("Product(s) bought by most customers: ").newLine();
         for (Product product : mostPopularProducts) {
-            System.out.printf("\t %s", product.getDescription());
+            report.append("\t ").append(product.getDescription());
         }
-        System.out.println();
+        report.newLine();
     }
 
     /**
      * Print de meest gekochte producten per postcode en wordt gesorteerd op de meeste postcodes per product dus het product met de meeste zipcodes staat bovenaan.
      */
-    private void printMostBoughtProductsPerZipCode() {
-        System.out.println(">>> Most bought products per zipcode\n");
-        findNumberOfProductsByZipcode().entrySet().stream()
+    private void printMostBoughtProductsPerZipCode(ReportWriter report, SupermarketStatistics statistics) {
+        report.append(">>> Most bought products per zipcode\n").newLine();
+        statistics.getNumberOfProductsByZipcode().entrySet().stream()
                 .sorted(Map.Entry.comparingByKey())
                 .forEach(entry -> {
                     String zipcode = entry.getKey();
@@ -202,24 +500,17 @@ public class Supermarket {
                     productCount.entrySet().stream()
                             .filter(e -> e.getValue() == maxCount)
                             .map(Map.Entry::getKey)
-                            .forEach(product -> System.out.printf("%s \t %s%n", zipcode, product.getDescription()));
+                            .forEach(product -> report.append(zipcode).append(" \t ").append(product.getDescription()).newLine());
                 });
     }
     /**
      * @return Map with total number of purchases per product
      */
     public Map<Product, Integer> findNumberOfProductsBought() {
-        Map<Product, Integer> numberOfProductsBought = new HashMap<>();
-        for (Customer customer : customers) {
-            Map<Product, Integer> itemsCart = customer.getItemsCart();
-            for (Map.Entry<Product, Integer> entry : itemsCart.entrySet()) {
-                Product product = entry.getKey();
-                int quantity = entry.getValue();
-
-                numberOfProductsBought.put(product, numberOfProductsBought.getOrDefault(product, 0) + quantity);
-            }
+        if (liveStatistics != null) {
+            return liveStatistics.getNumberOfProductsBought();
         }
-        return numberOfProductsBought;
+        return calculateStatistics().getNumberOfProductsBought();
     }
 
     /**
@@ -228,19 +519,10 @@ public class Supermarket {
      * @return Map with set of zipcodes per product
      */
     public Map<Product, Set<String>> findZipcodesPerProduct() {
-        Map<Product, Set<String>> zipcodesPerProduct = new HashMap<>();
-
-        for (Customer customer : customers) {
-            Map<Product, Integer> itemsCart = customer.getItemsCart();
-            for (Product product : itemsCart.keySet()) {
-                String zipCode = customer.getZipCode();
-                if (!zipcodesPerProduct.containsKey(product)) {
-                    zipcodesPerProduct.put(product, new HashSet<>());
-                }
-                zipcodesPerProduct.get(product).add(zipCode);
-            }
+        if (liveStatistics != null) {
+            return liveStatistics.getZipcodesPerProduct();
         }
-        return zipcodesPerProduct;
+        return calculateStatistics().getZipcodesPerProduct();
     }
 
     /**
@@ -249,20 +531,10 @@ public class Supermarket {
      * @return Map with map of product and number per zipcode
      */
     public Map<String, Map<Product, Integer>> findNumberOfProductsByZipcode() {
-        Map<String, Map<Product, Integer>> numberOfProductsByZipcode = new HashMap<>();
-        for (Customer customer : customers) {
-            String zipCode = customer.getZipCode();
-            Map<Product, Integer> itemsCart = customer.getItemsCart();
-            if (!numberOfProductsByZipcode.containsKey(zipCode)) {
-                numberOfProductsByZipcode.put(zipCode, new HashMap<>());
-            }
-            for (Map.Entry<Product, Integer> entry : itemsCart.entrySet()) {
-                Product product = entry.getKey();
-                int quantity = entry.getValue();
-                numberOfProductsByZipcode.get(zipCode).put(product, numberOfProductsByZipcode.get(zipCode).getOrDefault(product, 0) + quantity);
-            }
+        if (liveStatistics != null) {
+            return liveStatistics.getNumberOfProductsByZipcode();
         }
-        return numberOfProductsByZipcode;
+        return calculateStatistics().getNumberOfProductsByZipcode();
     }
 
     /**
@@ -276,44 +548,42 @@ public class Supermarket {
 
     /**
      * calculates a map with number of customers per time interval that is also ordered by time
+     * a customer queued exactly at the boundary of two intervals is counted in the later interval
      *
      * @return Map with number of customers per time interval
      */
     public Map<LocalTime, Integer> countCustomersPerInterval(int minutes) {
-        Map<LocalTime, Integer> customersPerInterval = new TreeMap<>();
-        LocalTime startTime = openTime;
-        LocalTime endTime = openTime.plusMinutes(minutes);
-        while (endTime.isBefore(closingTime) || endTime.equals(closingTime)) {
-            LocalTime finalStartTime = startTime;
-            LocalTime finalEndTime = endTime;
-            int count = (int) customers.stream()
-                    .filter(customer -> customer.getQueuedAt().isAfter(finalStartTime) && customer.getQueuedAt().isBefore(finalEndTime))
-                    .count();
-            customersPerInterval.put(startTime, count);
-            startTime = endTime;
-            endTime = endTime.plusMinutes(minutes);
-        }
-        return customersPerInterval;
+        return cached(List.of("countCustomersPerInterval", minutes), () -> {
+            TimeIntervals intervals = new TimeIntervals(openTime, closingTime, minutes);
+            if (liveStatistics != null) {
+                return Collections.unmodifiableMap(liveStatistics.countCustomersPerInterval(intervals));
+            }
+            if (concurrentStatistics != null) {
+                return Collections.unmodifiableMap(concurrentStatistics.countCustomersPerInterval(intervals));
+            }
+            // the time index of the cached statistics sums each interval without a scan over the customers
+            return Collections.unmodifiableMap(calculateStatistics().countCustomersPerInterval(intervals));
+        });
     }
 
     /**
      * @return value of the highest bill
      */
     public double findHighestBill() {
-        return customers.stream()
-                .mapToDouble(Customer::calculateTotalBill)
-                .max()
-                .orElse(0.0);
+        if (liveStatistics != null) {
+            return liveStatistics.getHighestBill();
+        }
+        return calculateStatistics().getHighestBill();
     }
 
     /**
      * @return customer with the highest bill
      */
     public Customer findMostPayingCustomer() {
-        Optional<Customer> mostPayingCustomer = customers.stream()
-                .max(Comparator.comparingDouble(Customer::calculateTotalBill));
-
-        return mostPayingCustomer.orElse(null);
+        if (liveStatistics != null) {
+            return liveStatistics.getMostPayingCustomer();
+        }
+        return calculateStatistics().getMostPayingCustomer();
     }
 
 
@@ -323,10 +593,13 @@ public class Supermarket {
      * @return total revenue
      */
     public double findTotalRevenue() {
-        return customers.stream()
-                .flatMap(customer -> customer.getItemsCart().entrySet().stream())
-                .mapToDouble(entry -> entry.getKey().getPrice() * entry.getValue())
-                .sum();
+        if (liveStatistics != null) {
+            return liveStatistics.getTotalRevenue();
+        }
+        if (concurrentStatistics != null) {
+            return concurrentStatistics.getTotalRevenue();
+        }
+        return calculateStatistics().getTotalRevenue();
     }
 
     /**
@@ -335,10 +608,13 @@ public class Supermarket {
      * @return average revenue
      */
     public double findAverageRevenue() {
-        return customers.stream()
-                .mapToDouble(Customer::calculateTotalBill)
-                .average()
-                .orElse(0.0);
+        if (liveStatistics != null) {
+            return liveStatistics.getAverageRevenue();
+        }
+        if (concurrentStatistics != null) {
+            return concurrentStatistics.getAverageRevenue();
+        }
+        return calculateStatistics().getAverageRevenue();
     }
 
     /**
@@ -347,13 +623,37 @@ public class Supermarket {
      * @return Map with revenues per zip code
      */
     public Map<String, Double> getRevenueByZipcode() {
-        return customers.stream()
-                .collect(Collectors.groupingBy(Customer::getZipCode, Collectors.summingDouble(Customer::calculateTotalBill)))
-                .entrySet().stream()
-                .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (oldValue, newValue) -> oldValue, LinkedHashMap::new));
+        if (liveStatistics != null) {
+            return liveStatistics.getRevenueByZipcode();
+        }
+        return calculateStatistics().getRevenueByZipcode();
+    }
+
+
+    /**
+     * rolls the revenues per zip code up to the first prefixLength characters of the zip codes,
+     * like ZipCodeIndex.AREA for the 4 digits of a Dutch postcode or ZipCodeIndex.REGION for its first 2 digits
+     *
+     * @return Map with revenues per zip code prefix, ordered by prefix
+     */
+    public Map<String, Double> getRevenueByZipcodePrefix(int prefixLength) {
+        return cached(List.of("getRevenueByZipcodePrefix", prefixLength), () -> {
+            Map<String, Double> revenues = new LinkedHashMap<>();
+            calculateStatistics().getZipCodeIndex().revenueInCentsByPrefix(prefixLength)
+                    .forEach((prefix, revenue) -> revenues.put(prefix, Money.toEuros(revenue)));
+            return Collections.unmodifiableMap(revenues);
+        });
     }
 
+    /**
+     * calculates the revenue of the zip codes from and to the given zip codes, both included,
+     * without visiting the zip codes in between
+     *
+     * @return total revenue of the range of zip codes
+     */
+    public double findRevenueOfZipcodes(String from, String to) {
+        return Money.toEuros(calculateStatistics().getZipCodeIndex().revenueInCentsBetween(from, to));
+    }
 
     /**
      * finds the product(s) found in the most carts of customers
@@ -361,15 +661,10 @@ public class Supermarket {
      * @return Set with products bought by most customers
      */
     public Set<Product> findMostPopularProducts() {
-        Map<Product, Long> productCount = customers.stream()
-                .flatMap(customer -> customer.getItemsCart().keySet().stream())
-                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
-        long maxCount = productCount.values().stream().max(Long::compare).orElse(0L);
-        Set<Product> mostPopularProducts = productCount.entrySet().stream()
-                .filter(entry -> entry.getValue() == maxCount)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toSet());
-        return mostPopularProducts;
+        if (liveStatistics != null) {
+            return liveStatistics.getMostPopularProducts();
+        }
+        return calculateStatistics().getMostPopularProducts();
     }
 
     /**
@@ -379,22 +674,142 @@ public class Supermarket {
      * @return Map with most bought product per zip code
      */
     public Map<String, Product> findMostBoughtProductByZipcode() {
-        Map<String, Map<Product, Integer>> productsByZipcode = findNumberOfProductsByZipcode();
-        Map<String, Product> mostBoughtProductByZipcode = new HashMap<>();
-        for (Map.Entry<String, Map<Product, Integer>> entry : productsByZipcode.entrySet()) {
-            String zipcode = entry.getKey();
-            Map<Product, Integer> productCount = entry.getValue();
-            int maxCount = productCount.values().stream()
-                    .max(Integer::compare)
-                    .orElse(0);
-            for (Map.Entry<Product, Integer> productEntry : productCount.entrySet()) {
-                if (productEntry.getValue() == maxCount) {
-                    mostBoughtProductByZipcode.put(zipcode, productEntry.getKey());
-                    break;
+        if (liveStatistics != null) {
+            return liveStatistics.getMostBoughtProductByZipcode();
+        }
+        return calculateStatistics().getMostBoughtProductByZipcode();
+    }
+
+    /**
+     * finds the k products with the most items bought, findNumberOfProductsBought() limited to the top k
+     *
+     * @return Map with the k products bought most and their number, the highest number first
+     */
+    public Map<Product, Integer> findTopProductsByQuantity(int k) {
+        return cached(List.of("findTopProductsByQuantity", k),
+                () -> Collections.unmodifiableMap(TopK.ofCounts(findNumberOfProductsBought(), k)));
+    }
+
+    /**
+     * finds the k products found in the most carts, the first of them is one of findMostPopularProducts()
+     *
+     * @return Map with the k products bought by most customers and their number of customers, the highest number first
+     */
+    public Map<Product, Integer> findTopProductsByCustomers(int k) {
+        return cached(List.of("findTopProductsByCustomers", k), () -> {
+            if (liveStatistics != null) {
+                return Collections.unmodifiableMap(TopK.ofCounts(liveStatistics.getNumberOfCustomersPerProduct(), k));
+            }
+            return Collections.unmodifiableMap(TopK.ofCounts(calculateStatistics().getNumberOfCustomersPerProduct(), k));
+        });
+    }
+
+    /**
+     * finds the k products bought in the most zip codes
+     *
+     * @return Map with the k products bought in most zip codes and their number of zip codes, the highest number first
+     */
+    public Map<Product, Integer> findTopProductsByZipcodes(int k) {
+        return cached(List.of("findTopProductsByZipcodes", k), () -> {
+            Map<Product, Set<String>> zipcodesPerProduct = findZipcodesPerProduct();
+            TopK<Product> top = new TopK<>(k);
+            for (Map.Entry<Product, Set<String>> entry : zipcodesPerProduct.entrySet()) {
+                top.offer(entry.getKey(), entry.getValue().size());
+            }
+            Map<Product, Integer> topProducts = new LinkedHashMap<>();
+            for (Product product : top.toList()) {
+                topProducts.put(product, zipcodesPerProduct.get(product).size());
+            }
+            return Collections.unmodifiableMap(topProducts);
+        });
+    }
+
+    /**
+     * finds the k zip codes with the highest revenue, getRevenueByZipcode() limited to the top k
+     *
+     * @return Map with the k zip codes with the highest revenues and their revenue, the highest revenue first
+     */
+    public Map<String, Double> findTopZipcodesByRevenue(int k) {
+        return cached(List.of("findTopZipcodesByRevenue", k), () -> {
+            Map<String, Long> revenueInCentsByZipcode = liveStatistics != null ?
+                    liveStatistics.getRevenueInCentsByZipcode() : calculateStatistics().getRevenueInCentsByZipcode();
+            TopK<String> top = new TopK<>(k);
+            for (Map.Entry<String, Long> entry : revenueInCentsByZipcode.entrySet()) {
+                top.offer(entry.getKey(), entry.getValue());
+            }
+            Map<String, Double> topZipcodes = new LinkedHashMap<>();
+            for (String zipCode : top.toList()) {
+                topZipcodes.put(zipCode, Money.toEuros(revenueInCentsByZipcode.get(zipCode)));
+            }
+            return Collections.unmodifiableMap(topZipcodes);
+        });
+    }
+
+    /**
+     * finds the k customers with the highest bills, the first of them is findMostPayingCustomer().
+     * streamed and merged statistics keep the customers of their highest bills,
+     * so they give at most SupermarketStatistics.HIGHEST_BILLS customers
+     *
+     * @return List with the k customers with the highest bills, the highest bill first
+     */
+    public List<Customer> findTopCustomersByBill(int k) {
+        return cached(List.of("findTopCustomersByBill", k), () -> {
+            if (liveStatistics != null) {
+                return Collections.unmodifiableList(liveStatistics.getMostPayingCustomers(k));
+            }
+            if (streamedStatistics != null) {
+                return Collections.unmodifiableList(streamedStatistics.getMostPayingCustomers(k));
+            }
+            if (customerTable != null) {
+                TopK<Integer> top = new TopK<>(k);
+                for (int customer = 0; customer < customerTable.size(); customer++) {
+                    top.offer(customer, customerTable.calculateTotalBillInCents(customer));
+                }
+                List<Customer> topCustomers = new ArrayList<>();
+                for (int customer : top.toList()) {
+                    topCustomers.add(customerTable.customerAt(customer));
                 }
+                return Collections.unmodifiableList(topCustomers);
             }
+            TopK<Customer> top = new TopK<>(k);
+            for (Customer customer : customers) {
+                top.offer(customer, customer.calculateTotalBillInCents());
+            }
+            return Collections.unmodifiableList(top.toList());
+        });
+    }
+
+    /**
+     * executes the query in one pass over the customers
+     *
+     * @return groups of the query with their measures
+     */
+    public QueryResult query(Query query) {
+        return query(List.of(query)).get(0);
+    }
+
+    /**
+     * executes all queries together in one pass over the customers, so more questions don't need more passes
+     *
+     * @return List with the result of every query, in the order of the queries
+     */
+    public List<QueryResult> query(List<Query> queries) {
+        if (streamedStatistics != null) {
+            throw new IllegalStateException("Customers of " + name + " have been streamed, they can't be queried");
+        }
+        if (customerTable != null) {
+            return QueryEngine.execute(queries, customerTable, openTime, closingTime);
         }
-        return mostBoughtProductByZipcode;
+        return QueryEngine.execute(queries, customers, openTime, closingTime);
+    }
+
+    /**
+     * counts the products bought together in the carts of the customers, in parallel over all processors
+     *
+     * @return analysis of the support, confidence and lift of the pairs of products
+     */
+    public BasketAnalysis analyzeBaskets() {
+        return BasketAnalysis.of(this, Runtime.getRuntime().availableProcessors());
     }
 
     /**
@@ -403,22 +818,95 @@ public class Supermarket {
      * @return Map with revenues per interval
      */
     public Map<LocalTime, Double> calculateRevenuePerInterval(int minutes) {
-        Map<LocalTime, Double> revenuePerInterval = new TreeMap<>();
-        LocalTime startTime = openTime;
-        LocalTime endTime = openTime.plusMinutes(minutes);
-        while (endTime.isBefore(closingTime) || endTime.equals(closingTime)) {
-            LocalTime finalStartTime = startTime;
-            LocalTime finalEndTime = endTime;
-            double totalRevenue = customers.stream()
-                    .filter(customer -> customer.getQueuedAt().isAfter(finalStartTime) && customer.getQueuedAt().isBefore(finalEndTime))
-                    .flatMap(customer -> customer.getItemsCart().entrySet().stream())
-                    .mapToDouble(entry -> entry.getKey().getPrice() * entry.getValue())
-                    .sum();
-            revenuePerInterval.put(startTime, totalRevenue);
-            startTime = endTime;
-            endTime = endTime.plusMinutes(minutes);
-        }
-        return revenuePerInterval;
+        return cached(List.of("calculateRevenuePerInterval", minutes), () -> {
+            TimeIntervals intervals = new TimeIntervals(openTime, closingTime, minutes);
+            if (liveStatistics != null) {
+                return Collections.unmodifiableMap(liveStatistics.calculateRevenuePerInterval(intervals));
+            }
+            if (concurrentStatistics != null) {
+                return Collections.unmodifiableMap(concurrentStatistics.calculateRevenuePerInterval(intervals));
+            }
+            return Collections.unmodifiableMap(calculateStatistics().calculateRevenuePerInterval(intervals));
+        });
+    }
+
+    /**
+     * @return number of customers queued from the from time up to, but not including, the to time
+     */
+    public int countCustomersBetween(LocalTime from, LocalTime to) {
+        if (liveStatistics != null) {
+            return liveStatistics.countCustomersBetween(from, to);
+        }
+        if (concurrentStatistics != null) {
+            return concurrentStatistics.countCustomersBetween(from, to);
+        }
+        return calculateStatistics().getTimeIndex().countCustomersBetween(from, to);
+    }
+
+    /**
+     * @return number of items bought by customers queued from the from time up to, but not including, the to time
+     */
+    public long countItemsBetween(LocalTime from, LocalTime to) {
+        if (liveStatistics != null) {
+            return liveStatistics.countItemsBetween(from, to);
+        }
+        if (concurrentStatistics != null) {
+            return concurrentStatistics.countItemsBetween(from, to);
+        }
+        return calculateStatistics().getTimeIndex().countItemsBetween(from, to);
+    }
+
+    /**
+     * @return revenue of customers queued from the from time up to, but not including, the to time
+     */
+    public double findRevenueBetween(LocalTime from, LocalTime to) {
+        if (liveStatistics != null) {
+            return Money.toEuros(liveStatistics.revenueInCentsBetween(from, to));
+        }
+        if (concurrentStatistics != null) {
+            return Money.toEuros(concurrentStatistics.revenueInCentsBetween(from, to));
+        }
+        return Money.toEuros(calculateStatistics().getTimeIndex().revenueInCentsBetween(from, to));
+    }
+
+    /**
+     * finds the busiest window of the given length within the opening hours, a window can start at any second
+     *
+     * @return start time of the window with the most customers, the earliest of equal windows
+     */
+    public LocalTime findBusiestInterval(int minutes) {
+        if (liveStatistics != null) {
+            return liveStatistics.findBusiestWindow(openTime, closingTime, minutes);
+        }
+        if (concurrentStatistics != null) {
+            return concurrentStatistics.findBusiestWindow(openTime, closingTime, minutes);
+        }
+        return calculateStatistics().getTimeIndex().findBusiestWindow(openTime, closingTime, minutes);
+    }
+
+    /**
+     * @return start time of the window of the given length within the opening hours with the highest revenue
+     */
+    public LocalTime findHighestRevenueInterval(int minutes) {
+        if (liveStatistics != null) {
+            return liveStatistics.findHighestRevenueWindow(openTime, closingTime, minutes);
+        }
+        if (concurrentStatistics != null) {
+            return concurrentStatistics.findHighestRevenueWindow(openTime, closingTime, minutes);
+        }
+        return calculateStatistics().getTimeIndex().findHighestRevenueWindow(openTime, closingTime, minutes);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocalTime getOpenTime() {
+        return openTime;
+    }
+
+    public LocalTime getClosingTime() {
+        return closingTime;
     }
 
     public Set<Product> getProducts() {
@@ -431,11 +919,54 @@ public class Supermarket {
 
     public void setOpenTime(LocalTime openTime) {
         this.openTime = openTime;
+        // the intervals and reports depend on the opening hours
+        modifications++;
     }
 
     public void setClosingTime(LocalTime closingTime) {
         this.closingTime = closingTime;
+        modifications++;
     }
 
+    /**
+     * Counts the changes of the products and customers sets and of the carts of the customers in the set
+     */
+    private class ChangeTracker implements Customer.CartListener {
+        private final TrackedSet.Tracker<Product> products = new TrackedSet.Tracker<>() {
+            @Override
+            public void added(Product product) {
+                modifications++;
+            }
+
+            @Override
+            public void removed(Product product) {
+                modifications++;
+            }
+        };
+
+        private final TrackedSet.Tracker<Customer> customers = new TrackedSet.Tracker<>() {
+            @Override
+            public void added(Customer customer) {
+                modifications++;
+                customer.addCartListener(ChangeTracker.this);
+                if (liveStatistics != null) {
+                    liveStatistics.add(customer);
+                }
+            }
+
+            @Override
+            public void removed(Customer customer) {
+                modifications++;
+                customer.removeCartListener(ChangeTracker.this);
+                if (liveStatistics != null) {
+                    liveStatistics.remove(customer);
+                }
+            }
+        };
 
+        @Override
+        public void addedToCart(Customer customer, Product product, int number, boolean newInCart) {
+            modifications++;
+        }
+    }
 }
@@ -0,0 +1,692 @@
+package model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Immutable snapshot of the customer, product and revenue statistics of a supermarket.
+ * All statistics are calculated in a single pass over the customers and their carts,
+ * so a report only has to traverse the data of a day once.
+ */
+public class SupermarketStatistics {
+
+    static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    /**
+     * number of highest bills a snapshot keeps with their customers, merged snapshots find their top customers in them
+     */
+    public static final int HIGHEST_BILLS = 100;
+
+    private final int numberOfCustomers;
+    private final int totalNumberOfItems;
+    private final long totalRevenueInCents;
+    private final long highestBillInCents;
+    private final Customer mostPayingCustomer;
+    private final List<CustomerBill> highestBills;
+    private final Map<Product, Integer> numberOfProductsBought;
+    private final Map<Product, Integer> numberOfCustomersPerProduct;
+    private final Map<Product, Set<String>> zipcodesPerProduct;
+    private final Map<String, Map<Product, Integer>> numberOfProductsByZipcode;
+    private final Map<String, Long> revenueInCentsByZipcode;
+    private final Map<String, Double> revenueByZipcode;
+    private final Set<Product> mostPopularProducts;
+    private final Map<String, Product> mostBoughtProductByZipcode;
+    private final int[] customersPerSecond;
+    private final int[] itemsPerSecond;
+    private final long[] revenueInCentsPerSecond;
+    // built on first use, the snapshot doesn't change so the index can be shared
+    private volatile ZipCodeIndex zipCodeIndex;
+    private volatile TimeIndex timeIndex;
+
+    SupermarketStatistics(int numberOfCustomers, int totalNumberOfItems, long totalRevenueInCents,
+                          List<CustomerBill> highestBills,
+                          Map<Product, Integer> numberOfProductsBought,
+                          Map<Product, Integer> numberOfCustomersPerProduct,
+                          Map<Product, Set<String>> zipcodesPerProduct,
+                          Map<String, Map<Product, Integer>> numberOfProductsByZipcode,
+                          Map<String, Long> revenueInCentsByZipcode,
+                          int[] customersPerSecond, int[] itemsPerSecond, long[] revenueInCentsPerSecond) {
+        this.numberOfCustomers = numberOfCustomers;
+        this.totalNumberOfItems = totalNumberOfItems;
+        this.totalRevenueInCents = totalRevenueInCents;
+        // the highest bill first, the first of equal bills found first
+        this.highestBills = List.copyOf(highestBills.subList(0, Math.min(highestBills.size(), HIGHEST_BILLS)));
+        this.highestBillInCents = highestBills.isEmpty() ? 0 : highestBills.get(0).cents;
+        this.mostPayingCustomer = highestBills.isEmpty() ? null : highestBills.get(0).customer;
+        // linked copies keep the iteration order of the accumulated maps, so reports stay identical
+        this.numberOfProductsBought = Collections.unmodifiableMap(new LinkedHashMap<>(numberOfProductsBought));
+        this.numberOfCustomersPerProduct = Collections.unmodifiableMap(new LinkedHashMap<>(numberOfCustomersPerProduct));
+
+        Map<Product, Set<String>> zipcodes = new LinkedHashMap<>();
+        zipcodesPerProduct.forEach((product, zipCodes) ->
+                zipcodes.put(product, Collections.unmodifiableSet(new LinkedHashSet<>(zipCodes))));
+        this.zipcodesPerProduct = Collections.unmodifiableMap(zipcodes);
+
+        Map<String, Map<Product, Integer>> productsByZipcode = new LinkedHashMap<>();
+        numberOfProductsByZipcode.forEach((zipCode, productCount) ->
+                productsByZipcode.put(zipCode, Collections.unmodifiableMap(new LinkedHashMap<>(productCount))));
+        this.numberOfProductsByZipcode = Collections.unmodifiableMap(productsByZipcode);
+
+        // ordered by revenue, highest revenue first
+        List<Map.Entry<String, Long>> revenues = new ArrayList<>(revenueInCentsByZipcode.entrySet());
+        revenues.sort(Map.Entry.comparingByValue(Comparator.reverseOrder()));
+        Map<String, Long> sortedRevenuesInCents = new LinkedHashMap<>();
+        Map<String, Double> sortedRevenues = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : revenues) {
+            sortedRevenuesInCents.put(entry.getKey(), entry.getValue());
+            sortedRevenues.put(entry.getKey(), Money.toEuros(entry.getValue()));
+        }
+        this.revenueInCentsByZipcode = Collections.unmodifiableMap(sortedRevenuesInCents);
+        this.revenueByZipcode = Collections.unmodifiableMap(sortedRevenues);
+
+        // the most popular and most bought products are derived once, all reports share them
+        this.mostPopularProducts = Collections.unmodifiableSet(findMostPopularProducts(this.numberOfCustomersPerProduct));
+        this.mostBoughtProductByZipcode = Collections.unmodifiableMap(findMostBoughtProductByZipcode(this.numberOfProductsByZipcode));
+
+        this.customersPerSecond = customersPerSecond == null ? null : customersPerSecond.clone();
+        this.itemsPerSecond = itemsPerSecond == null ? null : itemsPerSecond.clone();
+        this.revenueInCentsPerSecond = revenueInCentsPerSecond == null ? null : revenueInCentsPerSecond.clone();
+    }
+
+    /**
+     * calculates the statistics of the given customers in a single pass
+     *
+     * @return snapshot with the statistics of all customers
+     */
+    public static SupermarketStatistics of(Collection<Customer> customers) {
+        Accumulator accumulator = new Accumulator();
+        for (Customer customer : customers) {
+            accumulator.add(customer);
+        }
+        return accumulator.build();
+    }
+
+    /**
+     * merges the statistics of two groups of customers, like those of two stores of a chain.
+     * merging is associative, so the statistics of many stores can be merged in any grouping.
+     * of equal highest bills those of this snapshot rank first
+     *
+     * @return snapshot with the statistics of the customers of both snapshots
+     */
+    public SupermarketStatistics merge(SupermarketStatistics other) {
+        Map<Product, Integer> productsBought = new LinkedHashMap<>(numberOfProductsBought);
+        other.numberOfProductsBought.forEach((product, count) -> productsBought.merge(product, count, Integer::sum));
+        Map<Product, Integer> customersPerProduct = new LinkedHashMap<>(numberOfCustomersPerProduct);
+        other.numberOfCustomersPerProduct.forEach((product, count) -> customersPerProduct.merge(product, count, Integer::sum));
+
+        Map<Product, Set<String>> zipcodes = new LinkedHashMap<>();
+        zipcodesPerProduct.forEach((product, zipCodes) -> zipcodes.put(product, new LinkedHashSet<>(zipCodes)));
+        other.zipcodesPerProduct.forEach((product, zipCodes) ->
+                zipcodes.computeIfAbsent(product, newProduct -> new LinkedHashSet<>()).addAll(zipCodes));
+
+        Map<String, Map<Product, Integer>> productsByZipcode = new LinkedHashMap<>();
+        numberOfProductsByZipcode.forEach((zipCode, productCount) -> productsByZipcode.put(zipCode, new LinkedHashMap<>(productCount)));
+        other.numberOfProductsByZipcode.forEach((zipCode, productCount) -> {
+            Map<Product, Integer> mergedCount = productsByZipcode.computeIfAbsent(zipCode, newZipCode -> new LinkedHashMap<>());
+            productCount.forEach((product, count) -> mergedCount.merge(product, count, Integer::sum));
+        });
+
+        Map<String, Long> revenues = new LinkedHashMap<>(revenueInCentsByZipcode);
+        other.revenueInCentsByZipcode.forEach((zipCode, revenue) -> revenues.merge(zipCode, revenue, Long::sum));
+
+        TopK<CustomerBill> bills = new TopK<>(HIGHEST_BILLS);
+        offerBills(bills, highestBills);
+        offerBills(bills, other.highestBills);
+        return new SupermarketStatistics(numberOfCustomers + other.numberOfCustomers,
+                totalNumberOfItems + other.totalNumberOfItems, totalRevenueInCents + other.totalRevenueInCents,
+                bills.toList(), productsBought, customersPerProduct, zipcodes, productsByZipcode, revenues,
+                sum(customersPerSecond, other.customersPerSecond), sum(itemsPerSecond, other.itemsPerSecond),
+                sum(revenueInCentsPerSecond, other.revenueInCentsPerSecond));
+    }
+
+    private static void offerBills(TopK<CustomerBill> top, List<CustomerBill> bills) {
+        for (CustomerBill bill : bills) {
+            top.offer(bill, bill.cents);
+        }
+    }
+
+    private static int[] sum(int[] first, int[] second) {
+        if (first == null || second == null) {
+            return first == null ? second : first;
+        }
+        int[] sum = first.clone();
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] += second[i];
+        }
+        return sum;
+    }
+
+    private static long[] sum(long[] first, long[] second) {
+        if (first == null || second == null) {
+            return first == null ? second : first;
+        }
+        long[] sum = first.clone();
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] += second[i];
+        }
+        return sum;
+    }
+
+    /**
+     * writes the statistics without the customers, only the carts of the customers with the highest bills are written.
+     * products and zip codes are written once in a dictionary and referred to by their position in it
+     */
+    public void write(DataOutputStream out) throws IOException {
+        Map<Product, Integer> productIds = new LinkedHashMap<>();
+        Map<String, Integer> zipIds = new LinkedHashMap<>();
+        numberOfProductsBought.keySet().forEach(product -> productIds.putIfAbsent(product, productIds.size()));
+        numberOfCustomersPerProduct.keySet().forEach(product -> productIds.putIfAbsent(product, productIds.size()));
+        zipcodesPerProduct.forEach((product, zipCodes) -> {
+            productIds.putIfAbsent(product, productIds.size());
+            zipCodes.forEach(zipCode -> zipIds.putIfAbsent(zipCode, zipIds.size()));
+        });
+        numberOfProductsByZipcode.forEach((zipCode, productCount) -> {
+            zipIds.putIfAbsent(zipCode, zipIds.size());
+            productCount.keySet().forEach(product -> productIds.putIfAbsent(product, productIds.size()));
+        });
+        revenueInCentsByZipcode.keySet().forEach(zipCode -> zipIds.putIfAbsent(zipCode, zipIds.size()));
+        // stores of a chain can sell equal products at their own price, so the carts have a dictionary of the product objects
+        Map<Product, Integer> cartProductIds = new IdentityHashMap<>();
+        List<Product> cartProducts = new ArrayList<>();
+        for (CustomerBill bill : highestBills) {
+            zipIds.putIfAbsent(bill.customer.getZipCode(), zipIds.size());
+            for (Product product : bill.customer.getItemsCart().keySet()) {
+                if (cartProductIds.putIfAbsent(product, cartProducts.size()) == null) {
+                    cartProducts.add(product);
+                }
+            }
+        }
+
+        out.writeInt(numberOfCustomers);
+        out.writeInt(totalNumberOfItems);
+        out.writeLong(totalRevenueInCents);
+        writeProducts(out, productIds.keySet());
+        out.writeInt(zipIds.size());
+        for (String zipCode : zipIds.keySet()) {
+            writeString(out, zipCode);
+        }
+        writeCounts(out, numberOfProductsBought, productIds);
+        writeCounts(out, numberOfCustomersPerProduct, productIds);
+        out.writeInt(zipcodesPerProduct.size());
+        for (Map.Entry<Product, Set<String>> entry : zipcodesPerProduct.entrySet()) {
+            out.writeInt(productIds.get(entry.getKey()));
+            out.writeInt(entry.getValue().size());
+            for (String zipCode : entry.getValue()) {
+                out.writeInt(zipIds.get(zipCode));
+            }
+        }
+        out.writeInt(numberOfProductsByZipcode.size());
+        for (Map.Entry<String, Map<Product, Integer>> entry : numberOfProductsByZipcode.entrySet()) {
+            out.writeInt(zipIds.get(entry.getKey()));
+            writeCounts(out, entry.getValue(), productIds);
+        }
+        out.writeInt(revenueInCentsByZipcode.size());
+        for (Map.Entry<String, Long> entry : revenueInCentsByZipcode.entrySet()) {
+            out.writeInt(zipIds.get(entry.getKey()));
+            out.writeLong(entry.getValue());
+        }
+        // only the seconds at which customers queued
+        int seconds = 0;
+        for (int second = 0; customersPerSecond != null && second < SECONDS_PER_DAY; second++) {
+            if (customersPerSecond[second] != 0 || itemsPerSecond[second] != 0 || revenueInCentsPerSecond[second] != 0) {
+                seconds++;
+            }
+        }
+        out.writeBoolean(customersPerSecond != null);
+        out.writeInt(seconds);
+        for (int second = 0; customersPerSecond != null && second < SECONDS_PER_DAY; second++) {
+            if (customersPerSecond[second] != 0 || itemsPerSecond[second] != 0 || revenueInCentsPerSecond[second] != 0) {
+                out.writeInt(second);
+                out.writeInt(customersPerSecond[second]);
+                out.writeInt(itemsPerSecond[second]);
+                out.writeLong(revenueInCentsPerSecond[second]);
+            }
+        }
+        writeProducts(out, cartProducts);
+        out.writeInt(highestBills.size());
+        for (CustomerBill bill : highestBills) {
+            out.writeLong(bill.cents);
+            out.writeInt(bill.customer.getQueuedAt().toSecondOfDay());
+            out.writeInt(zipIds.get(bill.customer.getZipCode()));
+            writeCounts(out, bill.customer.getItemsCart(), cartProductIds);
+        }
+    }
+
+    /**
+     * @return statistics written by write(), with new Customer objects for the highest bills with their carts in the same order
+     */
+    public static SupermarketStatistics read(DataInputStream in) throws IOException {
+        int numberOfCustomers = in.readInt();
+        int totalNumberOfItems = in.readInt();
+        long totalRevenueInCents = in.readLong();
+        Product[] products = readProducts(in);
+        String[] zipCodes = new String[in.readInt()];
+        for (int i = 0; i < zipCodes.length; i++) {
+            zipCodes[i] = readString(in);
+        }
+        Map<Product, Integer> productsBought = readCounts(in, products);
+        Map<Product, Integer> customersPerProduct = readCounts(in, products);
+        Map<Product, Set<String>> zipcodes = new LinkedHashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            Set<String> zipCodesOfProduct = new LinkedHashSet<>();
+            zipcodes.put(products[in.readInt()], zipCodesOfProduct);
+            for (int j = in.readInt(); j > 0; j--) {
+                zipCodesOfProduct.add(zipCodes[in.readInt()]);
+            }
+        }
+        Map<String, Map<Product, Integer>> productsByZipcode = new LinkedHashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            String zipCode = zipCodes[in.readInt()];
+            productsByZipcode.put(zipCode, readCounts(in, products));
+        }
+        Map<String, Long> revenues = new LinkedHashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            String zipCode = zipCodes[in.readInt()];
+            revenues.put(zipCode, in.readLong());
+        }
+        int[] customers = in.readBoolean() ? new int[SECONDS_PER_DAY] : null;
+        int[] items = customers == null ? null : new int[SECONDS_PER_DAY];
+        long[] revenuesPerSecond = customers == null ? null : new long[SECONDS_PER_DAY];
+        for (int i = in.readInt(); i > 0; i--) {
+            int second = in.readInt();
+            customers[second] = in.readInt();
+            items[second] = in.readInt();
+            revenuesPerSecond[second] = in.readLong();
+        }
+        Product[] cartProducts = readProducts(in);
+        List<CustomerBill> highestBills = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            long cents = in.readLong();
+            LocalTime queuedAt = LocalTime.ofSecondOfDay(in.readInt());
+            highestBills.add(new CustomerBill(new Customer(queuedAt, zipCodes[in.readInt()], readCounts(in, cartProducts)), cents));
+        }
+        return new SupermarketStatistics(numberOfCustomers, totalNumberOfItems, totalRevenueInCents,
+                highestBills, productsBought, customersPerProduct, zipcodes, productsByZipcode, revenues,
+                customers, items, revenuesPerSecond);
+    }
+
+    private static void writeProducts(DataOutputStream out, Collection<Product> products) throws IOException {
+        out.writeInt(products.size());
+        for (Product product : products) {
+            writeString(out, product.getCode());
+            writeString(out, product.getDescription());
+            out.writeDouble(product.getPrice());
+        }
+    }
+
+    private static Product[] readProducts(DataInputStream in) throws IOException {
+        Product[] products = new Product[in.readInt()];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = new Product(readString(in), readString(in), in.readDouble());
+        }
+        return products;
+    }
+
+    private static void writeCounts(DataOutputStream out, Map<Product, Integer> counts, Map<Product, Integer> productIds) throws IOException {
+        out.writeInt(counts.size());
+        for (Map.Entry<Product, Integer> entry : counts.entrySet()) {
+            out.writeInt(productIds.get(entry.getKey()));
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    private static Map<Product, Integer> readCounts(DataInputStream in, Product[] products) throws IOException {
+        Map<Product, Integer> counts = new LinkedHashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            Product product = products[in.readInt()];
+            counts.put(product, in.readInt());
+        }
+        return counts;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    public int getNumberOfCustomers() {
+        return numberOfCustomers;
+    }
+
+    public int getTotalNumberOfItems() {
+        return totalNumberOfItems;
+    }
+
+    public double getTotalRevenue() {
+        return Money.toEuros(totalRevenueInCents);
+    }
+
+    public long getTotalRevenueInCents() {
+        return totalRevenueInCents;
+    }
+
+    /**
+     * @return average bill per customer, 0.0 without customers
+     */
+    public double getAverageRevenue() {
+        return numberOfCustomers == 0 ? 0.0 : Money.toEuros(totalRevenueInCents) / numberOfCustomers;
+    }
+
+    public double getHighestBill() {
+        return Money.toEuros(highestBillInCents);
+    }
+
+    public long getHighestBillInCents() {
+        return highestBillInCents;
+    }
+
+    /**
+     * @return the first customer found with the highest bill, null without customers
+     */
+    public Customer getMostPayingCustomer() {
+        return mostPayingCustomer;
+    }
+
+    /**
+     * @return List with the k customers with the highest bills, the highest bill first, at most HIGHEST_BILLS customers
+     */
+    public List<Customer> getMostPayingCustomers(int k) {
+        List<Customer> mostPayingCustomers = new ArrayList<>(Math.min(k, highestBills.size()));
+        for (CustomerBill bill : highestBills) {
+            if (mostPayingCustomers.size() == k) {
+                break;
+            }
+            mostPayingCustomers.add(bill.customer);
+        }
+        return mostPayingCustomers;
+    }
+
+    /**
+     * @return Map with total number of purchases per product
+     */
+    public Map<Product, Integer> getNumberOfProductsBought() {
+        return numberOfProductsBought;
+    }
+
+    /**
+     * @return Map with the number of customers that have a product in their cart
+     */
+    public Map<Product, Integer> getNumberOfCustomersPerProduct() {
+        return numberOfCustomersPerProduct;
+    }
+
+    /**
+     * @return Map with set of zipcodes per product
+     */
+    public Map<Product, Set<String>> getZipcodesPerProduct() {
+        return zipcodesPerProduct;
+    }
+
+    /**
+     * zipcodes of customers with an empty cart are included with an empty map
+     *
+     * @return Map with map of product and number per zipcode
+     */
+    public Map<String, Map<Product, Integer>> getNumberOfProductsByZipcode() {
+        return numberOfProductsByZipcode;
+    }
+
+    /**
+     * @return Map with revenues per zip code, ordered by revenue with the highest revenue first
+     */
+    public Map<String, Double> getRevenueByZipcode() {
+        return revenueByZipcode;
+    }
+
+    /**
+     * @return Map with revenues in euro cents per zip code, ordered by revenue with the highest revenue first
+     */
+    public Map<String, Long> getRevenueInCentsByZipcode() {
+        return revenueInCentsByZipcode;
+    }
+
+    /**
+     * @return sorted index of the zip codes for revenue of ranges of zip codes and roll-ups by postcode area or region
+     */
+    public ZipCodeIndex getZipCodeIndex() {
+        ZipCodeIndex index = zipCodeIndex;
+        if (index == null) {
+            index = ZipCodeIndex.of(this);
+            zipCodeIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * @return Set with products bought by most customers
+     */
+    public Set<Product> getMostPopularProducts() {
+        return mostPopularProducts;
+    }
+
+    /**
+     * if multiple products have the same maximum count, just pick one.
+     *
+     * @return Map with most bought product per zip code
+     */
+    public Map<String, Product> getMostBoughtProductByZipcode() {
+        return mostBoughtProductByZipcode;
+    }
+
+    /**
+     * the top 1 product by number of customers, together with the products that have the same number
+     */
+    private static Set<Product> findMostPopularProducts(Map<Product, Integer> numberOfCustomersPerProduct) {
+        Set<Product> mostPopularProducts = new HashSet<>();
+        Map<Product, Integer> top = TopK.ofCounts(numberOfCustomersPerProduct, 1);
+        if (top.isEmpty()) {
+            return mostPopularProducts;
+        }
+        int maxCount = top.values().iterator().next();
+        for (Map.Entry<Product, Integer> entry : numberOfCustomersPerProduct.entrySet()) {
+            if (entry.getValue() == maxCount) {
+                mostPopularProducts.add(entry.getKey());
+            }
+        }
+        return mostPopularProducts;
+    }
+
+    private static Map<String, Product> findMostBoughtProductByZipcode(Map<String, Map<Product, Integer>> numberOfProductsByZipcode) {
+        Map<String, Product> mostBoughtProductByZipcode = new HashMap<>();
+        for (Map.Entry<String, Map<Product, Integer>> entry : numberOfProductsByZipcode.entrySet()) {
+            // the top 1 keeps the first product found of products with the same count
+            Map<Product, Integer> top = TopK.ofCounts(entry.getValue(), 1);
+            if (!top.isEmpty()) {
+                mostBoughtProductByZipcode.put(entry.getKey(), top.keySet().iterator().next());
+            }
+        }
+        return mostBoughtProductByZipcode;
+    }
+
+    /**
+     * @return index of the customers, items and revenue by queuedAt for sums over any range of time
+     */
+    public TimeIndex getTimeIndex() {
+        TimeIndex index = timeIndex;
+        if (index == null) {
+            index = new TimeIndex(customersPerSecond, itemsPerSecond, revenueInCentsPerSecond);
+            timeIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * calculates the number of customers per interval from the sums of the time index,
+     * so it doesn't need the customers themselves
+     *
+     * @return Map with number of customers per time interval
+     */
+    public Map<LocalTime, Integer> countCustomersPerInterval(TimeIntervals intervals) {
+        TimeIndex index = getTimeIndex();
+        int[] counts = new int[intervals.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = (int) index.customersBetween(intervals.startSecondOf(i), intervals.endSecondOf(i));
+        }
+        return intervals.toMap(counts);
+    }
+
+    /**
+     * calculates the revenue per interval from the sums of the time index
+     *
+     * @return Map with revenues per interval
+     */
+    public Map<LocalTime, Double> calculateRevenuePerInterval(TimeIntervals intervals) {
+        TimeIndex index = getTimeIndex();
+        long[] revenues = new long[intervals.size()];
+        for (int i = 0; i < revenues.length; i++) {
+            revenues[i] = index.revenueInCentsBetween(intervals.startSecondOf(i), intervals.endSecondOf(i));
+        }
+        return intervals.toEuroMap(revenues);
+    }
+
+    /**
+     * Collects the statistics customer by customer, so the customers don't have to be
+     * kept in memory to calculate a snapshot.
+     */
+    public static class Accumulator {
+        private int numberOfCustomers;
+        private int totalNumberOfItems;
+        private long totalRevenueInCents;
+        private final TopK<CustomerBill> highestBills = new TopK<>(HIGHEST_BILLS);
+        private final Map<Product, Integer> numberOfProductsBought = new HashMap<>();
+        private final Map<Product, Integer> numberOfCustomersPerProduct = new HashMap<>();
+        private final Map<Product, Set<String>> zipcodesPerProduct = new HashMap<>();
+        private final Map<String, Map<Product, Integer>> numberOfProductsByZipcode = new HashMap<>();
+        // the revenue of a zip code is summed in a long[1], so adding a bill doesn't box a Long
+        private final Map<String, long[]> revenueInCentsByZipcode = new HashMap<>();
+        private int[] customersPerSecond;
+        private int[] itemsPerSecond;
+        private long[] revenueInCentsPerSecond;
+        private boolean productsPerZipcode = true;
+
+        /**
+         * leaves out the zip codes per product and the products per zip code, which take the most memory
+         * of a large day. approximate statistics can estimate them instead
+         */
+        public Accumulator withoutProductsPerZipcode() {
+            productsPerZipcode = false;
+            return this;
+        }
+
+        public void add(Customer customer) {
+            // merge() and computeIfAbsent() insert at the head of a hash bucket and put() at the tail,
+            // each map uses the one the reports were built on so they keep their order
+            String zipCode = customer.getZipCode();
+            Map<Product, Integer> productsOfZipcode = numberOfProductsByZipcode.get(zipCode);
+            if (productsOfZipcode == null && productsPerZipcode) {
+                productsOfZipcode = new HashMap<>();
+                numberOfProductsByZipcode.put(zipCode, productsOfZipcode);
+            }
+            long bill = 0;
+            int items = 0;
+            Cart cart = customer.getCart();
+            for (int line = 0; line < cart.size(); line++) {
+                Product product = cart.productAt(line);
+                int quantity = cart.quantityAt(line);
+                bill += product.getPriceInCents() * quantity;
+                items += quantity;
+                totalNumberOfItems += quantity;
+                numberOfProductsBought.put(product, numberOfProductsBought.getOrDefault(product, 0) + quantity);
+                numberOfCustomersPerProduct.merge(product, 1, Integer::sum);
+                if (!productsPerZipcode) {
+                    continue;
+                }
+                Set<String> zipCodes = zipcodesPerProduct.get(product);
+                if (zipCodes == null) {
+                    zipCodes = new HashSet<>();
+                    zipcodesPerProduct.put(product, zipCodes);
+                }
+                zipCodes.add(zipCode);
+                productsOfZipcode.put(product, productsOfZipcode.getOrDefault(product, 0) + quantity);
+            }
+            long[] revenueOfZipcode = revenueInCentsByZipcode.get(zipCode);
+            if (revenueOfZipcode == null) {
+                revenueOfZipcode = new long[1];
+                revenueInCentsByZipcode.put(zipCode, revenueOfZipcode);
+            }
+            revenueOfZipcode[0] += bill;
+            totalRevenueInCents += bill;
+            if (highestBills.accepts(bill)) {
+                highestBills.offer(new CustomerBill(customer, bill), bill);
+            }
+            if (customersPerSecond == null) {
+                customersPerSecond = new int[SECONDS_PER_DAY];
+                itemsPerSecond = new int[SECONDS_PER_DAY];
+                revenueInCentsPerSecond = new long[SECONDS_PER_DAY];
+            }
+            int second = customer.getQueuedAt().toSecondOfDay();
+            customersPerSecond[second]++;
+            itemsPerSecond[second] += items;
+            revenueInCentsPerSecond[second] += bill;
+            numberOfCustomers++;
+        }
+
+        /**
+         * adds the statistics of another group of customers, like merge() but without copying the statistics
+         * added so far, so the snapshots of many days or stores can be merged one after the other
+         */
+        public void add(SupermarketStatistics statistics) {
+            numberOfCustomers += statistics.numberOfCustomers;
+            totalNumberOfItems += statistics.totalNumberOfItems;
+            totalRevenueInCents += statistics.totalRevenueInCents;
+            offerBills(highestBills, statistics.highestBills);
+            statistics.numberOfProductsBought.forEach((product, count) ->
+                    numberOfProductsBought.merge(product, count, Integer::sum));
+            statistics.numberOfCustomersPerProduct.forEach((product, count) ->
+                    numberOfCustomersPerProduct.merge(product, count, Integer::sum));
+            if (productsPerZipcode) {
+                statistics.zipcodesPerProduct.forEach((product, zipCodes) ->
+                        zipcodesPerProduct.computeIfAbsent(product, newProduct -> new HashSet<>()).addAll(zipCodes));
+                statistics.numberOfProductsByZipcode.forEach((zipCode, productCount) -> {
+                    Map<Product, Integer> productsOfZipcode =
+                            numberOfProductsByZipcode.computeIfAbsent(zipCode, newZipCode -> new HashMap<>());
+                    productCount.forEach((product, count) -> productsOfZipcode.merge(product, count, Integer::sum));
+                });
+            }
+            statistics.revenueInCentsByZipcode.forEach((zipCode, revenue) ->
+                    revenueInCentsByZipcode.computeIfAbsent(zipCode, newZipCode -> new long[1])[0] += revenue);
+            if (statistics.customersPerSecond == null) {
+                return;
+            }
+            if (customersPerSecond == null) {
+                customersPerSecond = new int[SECONDS_PER_DAY];
+                itemsPerSecond = new int[SECONDS_PER_DAY];
+                revenueInCentsPerSecond = new long[SECONDS_PER_DAY];
+            }
+            for (int second = 0; second < SECONDS_PER_DAY; second++) {
+                customersPerSecond[second] += statistics.customersPerSecond[second];
+                itemsPerSecond[second] += statistics.itemsPerSecond[second];
+                revenueInCentsPerSecond[second] += statistics.revenueInCentsPerSecond[second];
+            }
+        }
+
+        public SupermarketStatistics build() {
+            Map<String, Long> revenueByZipcode = new LinkedHashMap<>();
+            revenueInCentsByZipcode.forEach((zipCode, revenue) -> revenueByZipcode.put(zipCode, revenue[0]));
+            return new SupermarketStatistics(numberOfCustomers, totalNumberOfItems, totalRevenueInCents,
+                    highestBills.toList(), numberOfProductsBought, numberOfCustomersPerProduct, zipcodesPerProduct,
+                    numberOfProductsByZipcode, revenueByZipcode, customersPerSecond, itemsPerSecond, revenueInCentsPerSecond);
+        }
+    }
+
+    /**
+     * the bill of a customer in euro cents, snapshots keep their highest bills with the customers
+     */
+    static class CustomerBill {
+        private final Customer customer;
+        private final long cents;
+
+        CustomerBill(Customer customer, long cents) {
+            this.customer = customer;
+            this.cents = cents;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package model;
+
+import java.time.LocalTime;
+
+/**
+ * Prefix sums of the customers, items and revenue per second of the day, in order of queuedAt.
+ * The sum over any range of time is the difference of two prefix sums, so a range query takes
+ * constant time whatever the number of customers, and a sliding window over the day takes one
+ * step per second.
+ */
+public class TimeIndex {
+
+    private static final int SECONDS_PER_DAY = SupermarketStatistics.SECONDS_PER_DAY;
+
+    /**
+     * sum of the values from the fromSecond up to, but not including, the toSecond of the day
+     */
+    interface RangeSum {
+        long sum(int fromSecond, int toSecond);
+    }
+
+    // the sums of the seconds before second s of the day are at index s
+    private final long[] customerSums = new long[SECONDS_PER_DAY + 1];
+    private final long[] itemSums = new long[SECONDS_PER_DAY + 1];
+    private final long[] revenueInCentsSums = new long[SECONDS_PER_DAY + 1];
+
+    /**
+     * @param customersPerSecond number of customers queued at each second of the day, null without customers
+     */
+    TimeIndex(int[] customersPerSecond, int[] itemsPerSecond, long[] revenueInCentsPerSecond) {
+        if (customersPerSecond == null) {
+            return;
+        }
+        for (int second = 0; second < SECONDS_PER_DAY; second++) {
+            customerSums[second + 1] = customerSums[second] + customersPerSecond[second];
+            itemSums[second + 1] = itemSums[second] + itemsPerSecond[second];
+            revenueInCentsSums[second + 1] = revenueInCentsSums[second] + revenueInCentsPerSecond[second];
+        }
+    }
+
+    /**
+     * @return number of customers queued from the from time up to, but not including, the to time
+     */
+    public int countCustomersBetween(LocalTime from, LocalTime to) {
+        return (int) sumBetween(customerSums, from.toSecondOfDay(), to.toSecondOfDay());
+    }
+
+    /**
+     * @return number of items bought by customers queued from the from time up to, but not including, the to time
+     */
+    public long countItemsBetween(LocalTime from, LocalTime to) {
+        return sumBetween(itemSums, from.toSecondOfDay(), to.toSecondOfDay());
+    }
+
+    /**
+     * @return revenue in euro cents of customers queued from the from time up to, but not including, the to time
+     */
+    public long revenueInCentsBetween(LocalTime from, LocalTime to) {
+        return sumBetween(revenueInCentsSums, from.toSecondOfDay(), to.toSecondOfDay());
+    }
+
+    /**
+     * sums from the fromSecond up to the toSecond of the day, the toSecond can be the end of the day
+     */
+    long customersBetween(int fromSecond, int toSecond) {
+        return sumBetween(customerSums, fromSecond, toSecond);
+    }
+
+    long revenueInCentsBetween(int fromSecond, int toSecond) {
+        return sumBetween(revenueInCentsSums, fromSecond, toSecond);
+    }
+
+    /**
+     * finds the window of the given length with the most customers, windows start at any second
+     * from the open time and end at the latest at the closing time. of equal windows the earliest is found
+     *
+     * @return start time of the busiest window
+     */
+    public LocalTime findBusiestWindow(LocalTime openTime, LocalTime closingTime, int minutes) {
+        return findPeakWindow((from, to) -> sumBetween(customerSums, from, to), openTime, closingTime, minutes);
+    }
+
+    /**
+     * @return start time of the window of the given length with the highest revenue, the earliest of equal windows
+     */
+    public LocalTime findHighestRevenueWindow(LocalTime openTime, LocalTime closingTime, int minutes) {
+        return findPeakWindow((from, to) -> sumBetween(revenueInCentsSums, from, to), openTime, closingTime, minutes);
+    }
+
+    /**
+     * @return start time of the window of the given length with the highest sum, the earliest of equal windows
+     */
+    static LocalTime findPeakWindow(RangeSum sums, LocalTime openTime, LocalTime closingTime, int minutes) {
+        if (minutes <= 0) {
+            throw new IllegalArgumentException("Length of a window must be positive: " + minutes);
+        }
+        int windowSeconds = minutes * 60;
+        int open = openTime.toSecondOfDay();
+        // a day shorter than the window has a single window from the opening time
+        int lastStart = Math.max(open, closingTime.toSecondOfDay() - windowSeconds);
+        int peakStart = open;
+        long peak = Long.MIN_VALUE;
+        for (int start = open; start <= lastStart; start++) {
+            long sum = sums.sum(start, start + windowSeconds);
+            if (sum > peak) {
+                peak = sum;
+                peakStart = start;
+            }
+        }
+        return LocalTime.ofSecondOfDay(peakStart);
+    }
+
+    private static long sumBetween(long[] sums, int fromSecond, int toSecond) {
+        int from = Math.max(0, Math.min(fromSecond, SECONDS_PER_DAY));
+        int to = Math.max(0, Math.min(toSecond, SECONDS_PER_DAY));
+        return to > from ? sums[to] - sums[from] : 0;
+    }
+}
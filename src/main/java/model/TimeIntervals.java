@@ -0,0 +1,111 @@
+package model;
+
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Divides the opening hours of a supermarket in consecutive intervals of equal length.
+ * A time is assigned to its interval by arithmetic on the second of the day, so a statistic
+ * per interval only needs one pass over the customers for any length of the interval.
+ * Each interval includes its start time and excludes its end time, except for the last
+ * interval that ends at the closing time and includes it. When the opening hours are not a
+ * multiple of the length, the last interval is shorter than the others.
+ */
+public class TimeIntervals {
+
+    private final LocalTime openTime;
+    private final int openSecond;
+    private final int closingSecond;
+    private final int intervalSeconds;
+    private final int numberOfIntervals;
+
+    public TimeIntervals(LocalTime openTime, LocalTime closingTime, int minutes) {
+        if (minutes <= 0) {
+            throw new IllegalArgumentException("Length of an interval must be positive: " + minutes);
+        }
+        this.openTime = openTime;
+        this.openSecond = openTime.toSecondOfDay();
+        this.closingSecond = closingTime.toSecondOfDay();
+        this.intervalSeconds = minutes * 60;
+        int span = Math.max(0, closingSecond - openSecond);
+        this.numberOfIntervals = (span + intervalSeconds - 1) / intervalSeconds;
+    }
+
+    /**
+     * @return number of intervals between opening and closing time, including a shorter last interval
+     */
+    public int size() {
+        return numberOfIntervals;
+    }
+
+    /**
+     * @return index of the interval of the given time, or -1 when it is outside all intervals
+     */
+    public int indexOf(LocalTime time) {
+        return indexOf(time.toSecondOfDay());
+    }
+
+    /**
+     * @return index of the interval of the given second of the day, or -1 when it is outside all intervals
+     */
+    public int indexOf(int secondOfDay) {
+        int offset = secondOfDay - openSecond;
+        if (offset < 0 || secondOfDay > closingSecond || numberOfIntervals == 0) {
+            return -1;
+        }
+        // the closing second belongs to the last interval, also when it is the start of the next one
+        return Math.min(offset / intervalSeconds, numberOfIntervals - 1);
+    }
+
+    public LocalTime startOf(int index) {
+        return openTime.plusSeconds((long) index * intervalSeconds);
+    }
+
+    /**
+     * @return first second of the day of the interval
+     */
+    public int startSecondOf(int index) {
+        return openSecond + index * intervalSeconds;
+    }
+
+    /**
+     * @return second of the day after the interval, after the closing second for the last interval
+     */
+    public int endSecondOf(int index) {
+        return index == numberOfIntervals - 1 ? closingSecond + 1 : openSecond + (index + 1) * intervalSeconds;
+    }
+
+    /**
+     * @return Map ordered by time with the count of each interval by its start time
+     */
+    public Map<LocalTime, Integer> toMap(int[] counts) {
+        Map<LocalTime, Integer> countsPerInterval = new TreeMap<>();
+        for (int i = 0; i < numberOfIntervals; i++) {
+            countsPerInterval.put(startOf(i), counts[i]);
+        }
+        return countsPerInterval;
+    }
+
+    /**
+     * @return Map ordered by time with the value of each interval by its start time
+     */
+    public Map<LocalTime, Double> toMap(double[] values) {
+        Map<LocalTime, Double> valuesPerInterval = new TreeMap<>();
+        for (int i = 0; i < numberOfIntervals; i++) {
+            valuesPerInterval.put(startOf(i), values[i]);
+        }
+        return valuesPerInterval;
+    }
+
+    /**
+     * @return Map ordered by time with the amount in euros of each interval by its start time
+     */
+    public Map<LocalTime, Double> toEuroMap(long[] cents) {
+        Map<LocalTime, Double> amountsPerInterval = new TreeMap<>();
+        for (int i = 0; i < numberOfIntervals; i++) {
+            amountsPerInterval.put(startOf(i), Money.toEuros(cents[i]));
+        }
+        return amountsPerInterval;
+    }
+}
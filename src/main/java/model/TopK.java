@@ -0,0 +1,98 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Keeps the K values with the highest scores of all values offered to it in a bounded heap,
+ * so selecting them from n values takes O(n log K) instead of sorting all n values.
+ * Of values with the same score the value offered first ranks highest.
+ */
+class TopK<T> {
+
+    private final int k;
+    // the lowest ranking candidate is at the head, it is replaced by a higher ranking one when the heap is full
+    private final PriorityQueue<Candidate<T>> heap;
+    private long offered;
+
+    TopK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("K can not be negative: " + k);
+        }
+        this.k = k;
+        this.heap = new PriorityQueue<>(Math.min(k, 1024) + 1);
+    }
+
+    void offer(T value, long score) {
+        Candidate<T> candidate = new Candidate<>(value, score, offered++);
+        if (heap.size() < k) {
+            heap.add(candidate);
+        } else if (k > 0 && candidate.compareTo(heap.peek()) > 0) {
+            heap.poll();
+            heap.add(candidate);
+        }
+    }
+
+    /**
+     * @return true if a value with the given score offered now would be selected, so a caller can skip creating it
+     */
+    boolean accepts(long score) {
+        return heap.size() < k || k > 0 && score > heap.peek().score;
+    }
+
+    /**
+     * @return List with the selected values, the highest score first
+     */
+    List<T> toList() {
+        List<Candidate<T>> candidates = new ArrayList<>(heap);
+        candidates.sort(Collections.reverseOrder());
+        List<T> values = new ArrayList<>(candidates.size());
+        for (Candidate<T> candidate : candidates) {
+            values.add(candidate.value);
+        }
+        return values;
+    }
+
+    /**
+     * @return the value with the highest score, null if nothing was offered
+     */
+    T first() {
+        List<T> values = toList();
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * @return Map with the K keys with the highest counts and their counts, the highest count first
+     */
+    static <K> Map<K, Integer> ofCounts(Map<K, Integer> counts, int k) {
+        TopK<K> top = new TopK<>(k);
+        for (Map.Entry<K, Integer> entry : counts.entrySet()) {
+            top.offer(entry.getKey(), entry.getValue());
+        }
+        Map<K, Integer> topCounts = new LinkedHashMap<>();
+        for (K key : top.toList()) {
+            topCounts.put(key, counts.get(key));
+        }
+        return topCounts;
+    }
+
+    private static class Candidate<T> implements Comparable<Candidate<T>> {
+        private final T value;
+        private final long score;
+        private final long sequence;
+
+        Candidate(T value, long score, long sequence) {
+            this.value = value;
+            this.score = score;
+            this.sequence = sequence;
+        }
+
+        /**
+         * orders by rank, a higher score or an earlier offer with the same score ranks higher
+         */
+        @Override
+        public int compareTo(Candidate<T> other) {
+            int compare = Long.compare(score, other.score);
+            return compare != 0 ? compare : Long.compare(other.sequence, sequence);
+        }
+    }
+}
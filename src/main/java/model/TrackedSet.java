@@ -0,0 +1,93 @@
+package model;
+
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Set that tells a tracker about every element that is added or removed, so the owner of the set
+ * knows when results calculated from its elements are out of date. The elements are kept as keys of
+ * a HashMap, which iterates like a HashSet, and as its values so the tracker is told about the
+ * element itself when an equal object is removed.
+ */
+class TrackedSet<E> extends AbstractSet<E> {
+
+    private final Map<E, E> elements = new HashMap<>();
+    private final Tracker<E> tracker;
+
+    TrackedSet(Tracker<E> tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public boolean add(E element) {
+        if (elements.containsKey(element)) {
+            return false;
+        }
+        elements.put(element, element);
+        tracker.added(element);
+        return true;
+    }
+
+    /**
+     * the tracker is told about the removed element, also when the given object is an equal object
+     */
+    @Override
+    public boolean remove(Object element) {
+        if (!elements.containsKey(element)) {
+            return false;
+        }
+        tracker.removed(elements.remove(element));
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return elements.containsKey(element);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public void clear() {
+        for (E element : elements.values()) {
+            tracker.removed(element);
+        }
+        elements.clear();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        Iterator<E> iterator = elements.values().iterator();
+        return new Iterator<>() {
+            private E current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                current = iterator.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                tracker.removed(current);
+            }
+        };
+    }
+
+    interface Tracker<E> {
+        void added(E element);
+
+        void removed(E element);
+    }
+}
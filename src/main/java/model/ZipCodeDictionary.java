@@ -0,0 +1,77 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Gives every distinct zip code a small int id, in the order in which the zip codes are first seen.
+ * Loaders intern the zip codes of the customers they parse, so all customers of a zip code share one
+ * String instead of each having their own copy. Safe to use from parallel loaders.
+ */
+public final class ZipCodeDictionary {
+
+    public static final int NO_ZIP_CODE = -1;
+
+    private final ConcurrentMap<String, ZipCode> entries = new ConcurrentHashMap<>();
+    // guarded by this, entries are only added while holding the lock
+    private final List<String> zipCodes = new ArrayList<>();
+
+    /**
+     * @return id of the zip code, a new id if the zip code is new, NO_ZIP_CODE for null
+     */
+    public int idOf(String zipCode) {
+        return zipCode == null ? NO_ZIP_CODE : entryOf(zipCode).id;
+    }
+
+    /**
+     * @return the String of the dictionary that is equal to the zip code
+     */
+    public String intern(String zipCode) {
+        return zipCode == null ? null : entryOf(zipCode).code;
+    }
+
+    private ZipCode entryOf(String zipCode) {
+        ZipCode entry = entries.get(zipCode);
+        if (entry == null) {
+            synchronized (this) {
+                entry = entries.get(zipCode);
+                if (entry == null) {
+                    entry = new ZipCode(zipCode, zipCodes.size());
+                    zipCodes.add(zipCode);
+                    entries.put(zipCode, entry);
+                }
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * @return zip code with the id, null for NO_ZIP_CODE
+     */
+    public synchronized String zipCodeOf(int id) {
+        return id == NO_ZIP_CODE ? null : zipCodes.get(id);
+    }
+
+    public synchronized int size() {
+        return zipCodes.size();
+    }
+
+    /**
+     * @return array with the zip codes at the index of their id
+     */
+    public synchronized String[] toArray() {
+        return zipCodes.toArray(new String[0]);
+    }
+
+    private static class ZipCode {
+        private final String code;
+        private final int id;
+
+        ZipCode(String code, int id) {
+            this.code = code;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package model;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sorted index of the zip codes of a day with the revenue and number of items per zip code in
+ * primitive arrays. Prefix sums over the sorted zip codes answer the revenue of any range of zip codes,
+ * like all zip codes of a Dutch postcode area or region, with two binary searches instead of a scan.
+ * Customers without zip code are left out.
+ */
+public class ZipCodeIndex {
+
+    /**
+     * length of the prefix of a Dutch postcode with the 4 digits of its area, like 1015 of 1015MF
+     */
+    public static final int AREA = 4;
+    /**
+     * length of the prefix of a Dutch postcode with the 2 digits of its region, like 10 of 1015MF
+     */
+    public static final int REGION = 2;
+
+    private final String[] zipCodes;
+    // the sums of the first i zip codes are at index i, so a range is the difference of two sums
+    private final long[] revenueInCentsSums;
+    private final long[] numberOfItemsSums;
+
+    private ZipCodeIndex(String[] zipCodes, long[] revenueInCentsSums, long[] numberOfItemsSums) {
+        this.zipCodes = zipCodes;
+        this.revenueInCentsSums = revenueInCentsSums;
+        this.numberOfItemsSums = numberOfItemsSums;
+    }
+
+    /**
+     * @return index of the zip codes with revenue in the statistics
+     */
+    public static ZipCodeIndex of(SupermarketStatistics statistics) {
+        Map<String, Long> revenues = statistics.getRevenueInCentsByZipcode();
+        Map<String, Map<Product, Integer>> productsByZipcode = statistics.getNumberOfProductsByZipcode();
+        String[] zipCodes = revenues.keySet().stream().filter(zipCode -> zipCode != null).sorted().toArray(String[]::new);
+        long[] revenueInCentsSums = new long[zipCodes.length + 1];
+        long[] numberOfItemsSums = new long[zipCodes.length + 1];
+        for (int i = 0; i < zipCodes.length; i++) {
+            long numberOfItems = 0;
+            for (int count : productsByZipcode.getOrDefault(zipCodes[i], Map.of()).values()) {
+                numberOfItems += count;
+            }
+            revenueInCentsSums[i + 1] = revenueInCentsSums[i] + revenues.get(zipCodes[i]);
+            numberOfItemsSums[i + 1] = numberOfItemsSums[i] + numberOfItems;
+        }
+        return new ZipCodeIndex(zipCodes, revenueInCentsSums, numberOfItemsSums);
+    }
+
+    public int size() {
+        return zipCodes.length;
+    }
+
+    /**
+     * @return the zip code at the position in the sorted zip codes
+     */
+    public String zipCodeAt(int position) {
+        return zipCodes[position];
+    }
+
+    /**
+     * @return revenue in euro cents of the zip codes from and to the given zip codes, both included
+     */
+    public long revenueInCentsBetween(String from, String to) {
+        return sumBetween(revenueInCentsSums, from, to);
+    }
+
+    /**
+     * @return number of items bought in the zip codes from and to the given zip codes, both included
+     */
+    public long numberOfItemsBetween(String from, String to) {
+        return sumBetween(numberOfItemsSums, from, to);
+    }
+
+    /**
+     * @return revenue in euro cents of the zip codes that start with the prefix, like an area or region
+     */
+    public long revenueInCentsOfPrefix(String prefix) {
+        return revenueInCentsSums[endOfPrefix(prefix)] - revenueInCentsSums[startOf(prefix)];
+    }
+
+    /**
+     * @return number of items bought in the zip codes that start with the prefix
+     */
+    public long numberOfItemsOfPrefix(String prefix) {
+        return numberOfItemsSums[endOfPrefix(prefix)] - numberOfItemsSums[startOf(prefix)];
+    }
+
+    /**
+     * rolls the zip codes up to the first prefixLength characters, like AREA or REGION.
+     * zip codes shorter than the prefix length are their own prefix
+     *
+     * @return Map with the revenue in euro cents per prefix, ordered by prefix
+     */
+    public Map<String, Long> revenueInCentsByPrefix(int prefixLength) {
+        return rollUp(revenueInCentsSums, prefixLength);
+    }
+
+    /**
+     * @return Map with the number of items bought per prefix, ordered by prefix
+     */
+    public Map<String, Long> numberOfItemsByPrefix(int prefixLength) {
+        return rollUp(numberOfItemsSums, prefixLength);
+    }
+
+    private Map<String, Long> rollUp(long[] sums, int prefixLength) {
+        if (prefixLength <= 0) {
+            throw new IllegalArgumentException("Prefix length must be positive: " + prefixLength);
+        }
+        // the zip codes of a prefix are next to each other in sorted order
+        Map<String, Long> rolledUp = new LinkedHashMap<>();
+        int start = 0;
+        while (start < zipCodes.length) {
+            String prefix = zipCodes[start].substring(0, Math.min(prefixLength, zipCodes[start].length()));
+            int end = prefix.length() < prefixLength ? start + 1 : endOfPrefix(prefix);
+            rolledUp.merge(prefix, sums[end] - sums[start], Long::sum);
+            start = end;
+        }
+        return rolledUp;
+    }
+
+    private long sumBetween(long[] sums, String from, String to) {
+        int start = startOf(from);
+        int end = endOf(to);
+        return end > start ? sums[end] - sums[start] : 0;
+    }
+
+    /**
+     * @return position of the first zip code that is not before the zip code
+     */
+    private int startOf(String zipCode) {
+        int position = Arrays.binarySearch(zipCodes, zipCode);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    /**
+     * @return position after the last zip code that is not after the zip code
+     */
+    private int endOf(String zipCode) {
+        int position = Arrays.binarySearch(zipCodes, zipCode);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+
+    /**
+     * @return position after the last zip code that starts with the prefix
+     */
+    private int endOfPrefix(String prefix) {
+        // every zip code with the prefix sorts before the prefix followed by the highest char
+        return startOf(prefix + Character.MAX_VALUE);
+    }
+}
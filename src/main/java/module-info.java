@@ -1,7 +1,7 @@
 module Supermarket {
-  requires gson;
+  requires com.google.gson;
   requires java.sql;
 
-  exports model to gson;
-  opens model to gson;
-}
\ No newline at end of file
+  exports model to com.google.gson;
+  opens model to com.google.gson;
+}
@@ -0,0 +1,398 @@
+package utilities;
+
+import model.CustomerTable;
+import model.Money;
+import model.Product;
+import model.Supermarket;
+import model.SupermarketStatistics;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * History of many days of a supermarket in a directory, with an immutable segment file per day.
+ * A segment holds a summary of the day, the statistics of the day and the customers in columns with
+ * dictionaries of the products and zip codes. Opening the history memory maps the segments and only
+ * reads their summaries, the statistics of a day are read when a range of dates with the day is queried.
+ * The statistics of a range are the merged statistics of its days, like those of the stores of a chain.
+ */
+public class HistoryStore {
+
+    private static final int MAGIC = 0x534D4853;
+    private static final short VERSION = 2;
+    private static final int NONE = -1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    private final Path directory;
+    private final NavigableMap<LocalDate, Segment> segments = new TreeMap<>();
+
+    private HistoryStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * opens the history in the directory, which is created when it doesn't exist
+     */
+    public static HistoryStore open(String directory) {
+        HistoryStore history = new HistoryStore(Paths.get(directory));
+        try {
+            Files.createDirectories(history.directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(history.directory, "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    Segment segment = Segment.open(file);
+                    history.segments.put(segment.date, segment);
+                }
+            }
+        } catch (IOException openError) {
+            throw new UncheckedIOException("Could not open the history in " + directory, openError);
+        }
+        return history;
+    }
+
+    /**
+     * adds the day as a new segment, a day that is already in the history can't be replaced
+     */
+    public void append(LocalDate date, Supermarket day) {
+        if (day.getCustomerTable() == null && day.getCustomers().size() != day.getNumberOfCustomers()) {
+            throw new IllegalArgumentException("History needs the customers, they have not been retained");
+        }
+        Path file = directory.resolve(date + SEGMENT_SUFFIX);
+        if (segments.containsKey(date) || Files.exists(file)) {
+            throw new IllegalArgumentException("History already has a segment of " + date);
+        }
+        // a segment is written under another name first, so a segment file is always complete
+        Path written = directory.resolve(date + SEGMENT_SUFFIX + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(written), BUFFER_SIZE))) {
+                Segment.write(date, day, out);
+            }
+            Files.move(written, file, StandardCopyOption.ATOMIC_MOVE);
+            segments.put(date, Segment.open(file));
+        } catch (IOException writeError) {
+            throw new UncheckedIOException("Could not write " + file, writeError);
+        }
+    }
+
+    /**
+     * @return the dates of the days in the history, in order
+     */
+    public NavigableSet<LocalDate> getDates() {
+        return Collections.unmodifiableNavigableSet(segments.navigableKeySet());
+    }
+
+    /**
+     * merges the statistics of the days from and to the given dates, both included
+     *
+     * @return supermarket with the statistics of the days, named after the first day,
+     * open from the earliest opening time to the latest closing time
+     */
+    public Supermarket load(LocalDate from, LocalDate to) {
+        Collection<Segment> days = between(from, to).values();
+        if (days.isEmpty()) {
+            throw new IllegalArgumentException("History has no days between " + from + " and " + to);
+        }
+        // the days are added to a single accumulator, merged snapshots would be copied for every day
+        SupermarketStatistics.Accumulator statistics = new SupermarketStatistics.Accumulator();
+        Set<Product> products = new LinkedHashSet<>();
+        LocalTime openTime = null;
+        LocalTime closingTime = null;
+        for (Segment segment : days) {
+            segment.addStatistics(statistics, products);
+            openTime = StorePartial.earliest(openTime, segment.openTime);
+            closingTime = StorePartial.latest(closingTime, segment.closingTime);
+        }
+        String name = days.iterator().next().name;
+        return new StorePartial(name, openTime, closingTime, products, statistics.build()).toSupermarket(name);
+    }
+
+    /**
+     * reads the customers of the day into the columns of a customer table
+     *
+     * @return supermarket of the day, like it was appended
+     */
+    public Supermarket readDay(LocalDate date) {
+        Segment segment = segments.get(date);
+        if (segment == null) {
+            throw new IllegalArgumentException("History has no segment of " + date);
+        }
+        return segment.readDay();
+    }
+
+    /**
+     * @return Map with the number of customers of every day from and to the given dates, ordered by date
+     */
+    public Map<LocalDate, Integer> countCustomersPerDay(LocalDate from, LocalDate to) {
+        Map<LocalDate, Integer> customersPerDay = new LinkedHashMap<>();
+        between(from, to).forEach((date, segment) -> customersPerDay.put(date, segment.numberOfCustomers));
+        return customersPerDay;
+    }
+
+    /**
+     * @return Map with the revenue of every day from and to the given dates, ordered by date
+     */
+    public Map<LocalDate, Double> findRevenuePerDay(LocalDate from, LocalDate to) {
+        Map<LocalDate, Double> revenuePerDay = new LinkedHashMap<>();
+        between(from, to).forEach((date, segment) -> revenuePerDay.put(date, Money.toEuros(segment.totalRevenueInCents)));
+        return revenuePerDay;
+    }
+
+    private NavigableMap<LocalDate, Segment> between(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return Collections.emptyNavigableMap();
+        }
+        return segments.subMap(from, true, to, true);
+    }
+
+    /**
+     * The memory mapped file of one day, its statistics are read every time a range with the day is loaded.
+     * A segment larger than one mapping is mapped again in windows every time it is read
+     */
+    private static class Segment {
+        private final Path file;
+        // the whole mapped file, null if it is mapped in windows
+        private final ByteBuffer buffer;
+        private final LocalDate date;
+        private final String name;
+        private final LocalTime openTime;
+        private final LocalTime closingTime;
+        private final int numberOfCustomers;
+        private final long totalRevenueInCents;
+        // position of the dictionaries after the summary
+        private final long dictionaries;
+
+        private Segment(Path file, MappedFileInput in) throws IOException {
+            this.file = file;
+            this.buffer = in.wholeFile();
+            if (in.size() < Integer.BYTES + Short.BYTES || in.getInt() != MAGIC) {
+                throw new IOException("Not a history segment");
+            }
+            short version = in.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported history segment version " + version);
+            }
+            date = LocalDate.ofEpochDay(in.getLong());
+            name = readString(in);
+            openTime = toTime(in.getInt());
+            closingTime = toTime(in.getInt());
+            numberOfCustomers = in.getInt();
+            totalRevenueInCents = in.getLong();
+            dictionaries = in.position();
+        }
+
+        static Segment open(Path file) {
+            try (MappedFileInput in = MappedFileInput.open(file, 0)) {
+                return new Segment(file, in);
+            } catch (BufferUnderflowException truncated) {
+                throw new UncheckedIOException("Could not read " + file, new EOFException("Segment is truncated"));
+            } catch (IOException readError) {
+                throw new UncheckedIOException("Could not read " + file, readError);
+            }
+        }
+
+        static void write(LocalDate date, Supermarket day, DataOutputStream out) throws IOException {
+            CustomerTable table = day.getCustomerTable() != null
+                    ? day.getCustomerTable() : CustomerTable.of(day.getCustomers());
+            SupermarketStatistics statistics = day.calculateStatistics();
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(date.toEpochDay());
+            writeString(out, day.getName());
+            out.writeInt(toSecond(day.getOpenTime()));
+            out.writeInt(toSecond(day.getClosingTime()));
+            out.writeInt(statistics.getNumberOfCustomers());
+            out.writeLong(statistics.getTotalRevenueInCents());
+
+            out.writeInt(day.getProducts().size());
+            for (Product product : day.getProducts()) {
+                writeProduct(out, product);
+            }
+            out.writeInt(table.getNumberOfProducts());
+            for (int i = 0; i < table.getNumberOfProducts(); i++) {
+                writeProduct(out, table.getProduct(i));
+            }
+            out.writeInt(table.getNumberOfZipCodes());
+            for (int i = 0; i < table.getNumberOfZipCodes(); i++) {
+                writeString(out, table.getZipCode(i));
+            }
+
+            ByteArrayOutputStream statisticsBytes = new ByteArrayOutputStream();
+            try (DataOutputStream statisticsOut = new DataOutputStream(statisticsBytes)) {
+                statistics.write(statisticsOut);
+            }
+            out.writeInt(statisticsBytes.size());
+            statisticsBytes.writeTo(out);
+
+            // the columns of the customers
+            out.writeInt(table.size());
+            out.writeInt(table.size() == 0 ? 0 : table.getCartEnd(table.size() - 1));
+            for (int customer = 0; customer < table.size(); customer++) {
+                out.writeInt(table.getQueuedAtSecond(customer));
+            }
+            for (int customer = 0; customer < table.size(); customer++) {
+                out.writeInt(table.getZipId(customer));
+            }
+            for (int customer = 0; customer < table.size(); customer++) {
+                out.writeInt(table.getCartStart(customer));
+            }
+            for (int customer = 0; customer < table.size(); customer++) {
+                for (int line = table.getCartStart(customer); line < table.getCartEnd(customer); line++) {
+                    out.writeInt(table.getCartProductId(line));
+                }
+            }
+            for (int customer = 0; customer < table.size(); customer++) {
+                for (int line = table.getCartStart(customer); line < table.getCartEnd(customer); line++) {
+                    out.writeInt(table.getCartQuantity(line));
+                }
+            }
+        }
+
+        /**
+         * adds the products and the statistics of the day, which are decoded again for every range
+         * so the segments of a long history don't keep their statistics in memory
+         */
+        void addStatistics(SupermarketStatistics.Accumulator statistics, Set<Product> products) {
+            try (MappedFileInput in = readFrom(dictionaries)) {
+                products.addAll(Arrays.asList(readProducts(in)));
+                readProducts(in);
+                readZipCodes(in);
+                ByteBuffer statisticsOfDay = in.slice(in.getInt());
+                statistics.add(SupermarketStatistics.read(new DataInputStream(new BufferInputStream(statisticsOfDay))));
+            } catch (BufferUnderflowException | IllegalArgumentException truncated) {
+                throw new UncheckedIOException("Could not read " + file, new EOFException("Segment is truncated"));
+            } catch (IOException readError) {
+                throw new UncheckedIOException("Could not read " + file, readError);
+            }
+        }
+
+        Supermarket readDay() {
+            try (MappedFileInput in = readFrom(dictionaries)) {
+                Supermarket day = new Supermarket(name, openTime, closingTime);
+                Map<Product, Product> catalog = new HashMap<>();
+                for (Product product : readProducts(in)) {
+                    day.getProducts().add(product);
+                    catalog.put(product, product);
+                }
+                // the products of the carts are the same instances as those of the catalog
+                Product[] products = readProducts(in);
+                for (int i = 0; i < products.length; i++) {
+                    products[i] = catalog.getOrDefault(products[i], products[i]);
+                }
+                String[] zipCodes = readZipCodes(in);
+                in.skip(in.getInt());
+
+                int size = in.getInt();
+                int lines = in.getInt();
+                int[] queuedAtSeconds = readInts(in, size);
+                int[] zipIds = readInts(in, size);
+                int[] cartOffsets = Arrays.copyOf(readInts(in, size), size + 1);
+                cartOffsets[size] = lines;
+                int[] cartProductIds = readInts(in, lines);
+                int[] cartQuantities = readInts(in, lines);
+                day.setCustomerTable(new CustomerTable(products, zipCodes, queuedAtSeconds, zipIds,
+                        cartOffsets, cartProductIds, cartQuantities));
+                return day;
+            } catch (BufferUnderflowException | IllegalArgumentException truncated) {
+                throw new UncheckedIOException("Could not read " + file, new EOFException("Segment is truncated"));
+            } catch (IOException readError) {
+                throw new UncheckedIOException("Could not read " + file, readError);
+            }
+        }
+
+        private MappedFileInput readFrom(long position) throws IOException {
+            if (buffer == null) {
+                return MappedFileInput.open(file, position);
+            }
+            return MappedFileInput.of(buffer.duplicate().position((int) position));
+        }
+
+        private static int[] readInts(MappedFileInput in, int length) throws IOException {
+            int[] values = new int[length];
+            in.getInts(values);
+            return values;
+        }
+
+        private static Product[] readProducts(MappedFileInput in) throws IOException {
+            Product[] products = new Product[in.getInt()];
+            for (int i = 0; i < products.length; i++) {
+                products[i] = new Product(readString(in), readString(in), in.getDouble());
+            }
+            return products;
+        }
+
+        private static String[] readZipCodes(MappedFileInput in) throws IOException {
+            String[] zipCodes = new String[in.getInt()];
+            for (int i = 0; i < zipCodes.length; i++) {
+                zipCodes[i] = readString(in);
+            }
+            return zipCodes;
+        }
+
+        private static void writeProduct(DataOutputStream out, Product product) throws IOException {
+            writeString(out, product.getCode());
+            writeString(out, product.getDescription());
+            out.writeDouble(product.getPrice());
+        }
+    }
+
+    /**
+     * Reads the bytes of a buffer, to read the statistics of a memory mapped segment like those of a file
+     */
+    private static class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+    }
+
+    private static int toSecond(LocalTime time) {
+        return time == null ? NONE : time.toSecondOfDay();
+    }
+
+    private static LocalTime toTime(int second) {
+        return second == NONE ? null : LocalTime.ofSecondOfDay(second);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NONE);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedFileInput in) throws IOException {
+        int length = in.getInt();
+        if (length == NONE) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,152 @@
+package utilities;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file front to back through memory mapped windows. One mapping holds at most 2 GB, so a larger
+ * file is mapped window by window; a value at the end of a window is read from the next window, which
+ * starts at the position of that value. A file that fits in one window is mapped once.
+ * Reading past the end of the file throws a BufferUnderflowException, like reading past a buffer.
+ */
+class MappedFileInput implements Closeable {
+
+    private static final long WINDOW_SIZE = Integer.MAX_VALUE;
+
+    // null when the input reads a buffer that holds the whole file
+    private final FileChannel channel;
+    private final long size;
+    private long windowStart;
+    private ByteBuffer window;
+
+    private MappedFileInput(FileChannel channel, long size) {
+        this.channel = channel;
+        this.size = size;
+    }
+
+    /**
+     * maps the window of the file that starts at the given position
+     */
+    static MappedFileInput open(Path file, long position) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            MappedFileInput in = new MappedFileInput(channel, channel.size());
+            in.map(position, 0);
+            return in;
+        } catch (IOException | RuntimeException openError) {
+            channel.close();
+            throw openError;
+        }
+    }
+
+    /**
+     * reads a buffer with a whole file from its position
+     */
+    static MappedFileInput of(ByteBuffer buffer) {
+        MappedFileInput in = new MappedFileInput(null, buffer.limit());
+        in.window = buffer;
+        return in;
+    }
+
+    /**
+     * @return the buffer with the whole file, null if the file is larger than one window
+     */
+    ByteBuffer wholeFile() {
+        return windowStart == 0 && window.limit() == size ? window.duplicate().position(0) : null;
+    }
+
+    long size() {
+        return size;
+    }
+
+    long position() {
+        return windowStart + window.position();
+    }
+
+    short getShort() throws IOException {
+        return require(Short.BYTES).getShort();
+    }
+
+    int getInt() throws IOException {
+        return require(Integer.BYTES).getInt();
+    }
+
+    long getLong() throws IOException {
+        return require(Long.BYTES).getLong();
+    }
+
+    double getDouble() throws IOException {
+        return require(Double.BYTES).getDouble();
+    }
+
+    void get(byte[] bytes) throws IOException {
+        require(bytes.length).get(bytes);
+    }
+
+    /**
+     * reads a column of ints, which can continue in the next windows
+     */
+    void getInts(int[] values) throws IOException {
+        int read = 0;
+        while (read < values.length) {
+            ByteBuffer in = require(Integer.BYTES);
+            int length = Math.min(values.length - read, in.remaining() / Integer.BYTES);
+            in.asIntBuffer().get(values, read, length);
+            in.position(in.position() + length * Integer.BYTES);
+            read += length;
+        }
+    }
+
+    /**
+     * @return buffer with the next bytes, which are skipped in this input
+     */
+    ByteBuffer slice(int length) throws IOException {
+        ByteBuffer in = require(length);
+        ByteBuffer slice = in.slice();
+        slice.limit(length);
+        in.position(in.position() + length);
+        return slice;
+    }
+
+    void skip(long bytes) throws IOException {
+        long position = position() + bytes;
+        if (position <= windowStart + window.limit()) {
+            window.position((int) (position - windowStart));
+        } else {
+            map(position, 0);
+        }
+    }
+
+    private ByteBuffer require(int bytes) throws IOException {
+        if (window.remaining() < bytes) {
+            map(position(), bytes);
+            if (window.remaining() < bytes) {
+                throw new BufferUnderflowException();
+            }
+        }
+        return window;
+    }
+
+    /**
+     * maps the window at the position, which holds at least the given number of bytes if the file has them
+     */
+    private void map(long position, int bytes) throws IOException {
+        if (channel == null || position > size) {
+            throw new BufferUnderflowException();
+        }
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Math.max(WINDOW_SIZE, bytes), size - position));
+        windowStart = position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
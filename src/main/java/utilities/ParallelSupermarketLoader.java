@@ -0,0 +1,202 @@
+package utilities;
+
+import com.google.gson.Gson;
+import model.Customer;
+import model.Product;
+import model.Supermarket;
+import model.ZipCodeDictionary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Loads a supermarket file like the SupermarketBuilder, but parses the Customers section in parallel.
+ * Every customer is a single json line, so the memory mapped customer region is split on line boundaries
+ * into chunks that are parsed on a ForkJoinPool. The chunks are merged in the order of the file,
+ * so the supermarket is identical to the one of the sequential builder.
+ */
+public class ParallelSupermarketLoader {
+
+    private static final long MAX_CHUNK_SIZE = 64L * 1024 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int BOUNDARY_SEARCH_SIZE = 8 * 1024;
+
+    private final String filename;
+    private final Gson gson;
+    private Gson customerGson;
+    // shared by the chunks, so customers of all chunks share the zip code strings
+    private final ZipCodeDictionary zipCodes = new ZipCodeDictionary();
+    private Supermarket supermarket;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ProductCatalog.UnknownProductPolicy unknownProductPolicy = ProductCatalog.UnknownProductPolicy.INTERN;
+    private ProductCatalog.PriceMismatchPolicy priceMismatchPolicy = ProductCatalog.PriceMismatchPolicy.KEEP_CART;
+
+    public ParallelSupermarketLoader(String filename) {
+        this.filename = filename;
+        this.gson = SupermarketBuilder.createGson();
+    }
+
+    public ParallelSupermarketLoader parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * sets how products in carts that are not in the Products section or have another price are resolved
+     */
+    public ParallelSupermarketLoader catalogPolicies(ProductCatalog.UnknownProductPolicy unknownProductPolicy,
+                                                     ProductCatalog.PriceMismatchPolicy priceMismatchPolicy) {
+        this.unknownProductPolicy = unknownProductPolicy;
+        this.priceMismatchPolicy = priceMismatchPolicy;
+        return this;
+    }
+
+    public Supermarket load() {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long customersStart = loadHeader(channel);
+            customerGson = SupermarketBuilder.createGson(
+                    new ProductCatalog(supermarket.getProducts(), unknownProductPolicy, priceMismatchPolicy));
+            addCustomers(channel, customersStart);
+            return supermarket;
+        } catch (IOException loadError) {
+            throw new UncheckedIOException("Could not load " + filename, loadError);
+        }
+    }
+
+    /**
+     * reads the Supermarket and Products sections line by line
+     *
+     * @return position in the file of the first customer
+     */
+    private long loadHeader(FileChannel channel) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), Integer.MAX_VALUE));
+        String section = "";
+        while (buffer.hasRemaining()) {
+            String line = nextLine(buffer);
+            if (line.equals("Supermarket") || line.equals("Products")) {
+                section = line;
+            } else if (line.equals("Customers")) {
+                return buffer.position();
+            } else if (section.equals("Supermarket") && !line.isBlank()) {
+                supermarket = gson.fromJson(line, Supermarket.class);
+                supermarket.initializeCollections();
+            } else if (section.equals("Products") && !line.isBlank()) {
+                supermarket.getProducts().add(gson.fromJson(line, Product.class));
+            }
+        }
+        return channel.size();
+    }
+
+    private void addCustomers(FileChannel channel, long customersStart) throws IOException {
+        List<long[]> chunks = splitOnLines(channel, customersStart);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<List<Customer>>> parsedChunks = new ArrayList<>();
+            for (long[] chunk : chunks) {
+                parsedChunks.add(pool.submit(() -> parseCustomers(channel, chunk[0], chunk[1])));
+            }
+            for (Future<List<Customer>> parsedChunk : parsedChunks) {
+                supermarket.getCustomers().addAll(parsedChunk.get());
+            }
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Loading of " + filename + " was interrupted", interrupted);
+        } catch (ExecutionException parseError) {
+            if (parseError.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) parseError.getCause();
+            }
+            throw new IllegalStateException("Could not parse customers of " + filename, parseError.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * splits the region from start to the end of the file into chunks that start at the beginning of a line
+     *
+     * @return List with start and end position of each chunk
+     */
+    private List<long[]> splitOnLines(FileChannel channel, long start) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.max(1, Math.min(MAX_CHUNK_SIZE, (size - start) / ((long) parallelism * CHUNKS_PER_THREAD) + 1));
+        List<long[]> chunks = new ArrayList<>();
+        long chunkStart = start;
+        while (chunkStart < size) {
+            long chunkEnd = nextLineStart(channel, Math.min(size, chunkStart + chunkSize));
+            chunks.add(new long[]{chunkStart, chunkEnd});
+            chunkStart = chunkEnd;
+        }
+        return chunks;
+    }
+
+    /**
+     * @return position of the first line that starts at or after the given position
+     */
+    private long nextLineStart(FileChannel channel, long position) throws IOException {
+        long size = channel.size();
+        if (position >= size) {
+            return size;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SEARCH_SIZE);
+        long searchPosition = position - 1;
+        while (searchPosition < size) {
+            buffer.clear();
+            int read = channel.read(buffer, searchPosition);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return searchPosition + i + 1;
+                }
+            }
+            searchPosition += Math.max(read, 1);
+        }
+        return size;
+    }
+
+    private List<Customer> parseCustomers(FileChannel channel, long start, long end) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        List<Customer> customers = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            String line = nextLine(buffer);
+            if (!line.isBlank()) {
+                Customer customer = customerGson.fromJson(line, Customer.class);
+                customer.internZipCode(zipCodes);
+                customers.add(customer);
+            }
+        }
+        return customers;
+    }
+
+    /**
+     * reads the next line of utf-8 text from the buffer, without the line separator
+     */
+    private static String nextLine(ByteBuffer buffer) {
+        int start = buffer.position();
+        int end = start;
+        while (end < buffer.limit() && buffer.get(end) != '\n') {
+            end++;
+        }
+        buffer.position(end < buffer.limit() ? end + 1 : end);
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        byte[] bytes = new byte[end - start];
+        ByteBuffer line = buffer.duplicate();
+        line.position(start);
+        line.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
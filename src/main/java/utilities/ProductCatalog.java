@@ -0,0 +1,181 @@
+package utilities;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import model.Money;
+import model.Product;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Catalog of the products of a supermarket by their code. Used as Gson type adapter of the products in
+ * the carts of customers, so every cart entry resolves to the product instance of the Products section
+ * and each product exists only once in memory. Prices are parsed from the text of the file to whole cents,
+ * without rounding errors of doubles.
+ */
+public class ProductCatalog extends TypeAdapter<Product> {
+
+    /**
+     * what to do with a cart entry with a code that is not in the Products section
+     */
+    public enum UnknownProductPolicy {
+        /** keep the product of the cart, shared by all carts with the same code */
+        INTERN,
+        /** stop loading with a JsonParseException */
+        REJECT
+    }
+
+    /**
+     * what to do with a cart entry with a known code, but another price than the Products section
+     */
+    public enum PriceMismatchPolicy {
+        /** keep the price of the cart, shared by all carts with the same code and price */
+        KEEP_CART,
+        /** use the product of the catalog with the price of the catalog */
+        USE_CATALOG,
+        /** stop loading with a JsonParseException */
+        REJECT
+    }
+
+    /**
+     * type adapter of the products of the Products section, which are read as they are
+     */
+    static final TypeAdapter<Product> PRODUCTS = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Product product) throws IOException {
+            writeProduct(out, product);
+        }
+
+        @Override
+        public Product read(JsonReader in) throws IOException {
+            return readProduct(in, null);
+        }
+    };
+
+    private final Map<String, Product> productsByCode = new ConcurrentHashMap<>();
+    private final Map<String, Product> internedProducts = new ConcurrentHashMap<>();
+    private final UnknownProductPolicy unknownProductPolicy;
+    private final PriceMismatchPolicy priceMismatchPolicy;
+
+    public ProductCatalog(Collection<Product> products) {
+        this(products, UnknownProductPolicy.INTERN, PriceMismatchPolicy.KEEP_CART);
+    }
+
+    public ProductCatalog(Collection<Product> products, UnknownProductPolicy unknownProductPolicy,
+                          PriceMismatchPolicy priceMismatchPolicy) {
+        this.unknownProductPolicy = unknownProductPolicy;
+        this.priceMismatchPolicy = priceMismatchPolicy;
+        for (Product product : products) {
+            productsByCode.putIfAbsent(product.getCode(), product);
+        }
+    }
+
+    public int size() {
+        return productsByCode.size();
+    }
+
+    /**
+     * @return the product of the catalog with the given code, or null if the code is unknown
+     */
+    public Product findByCode(String code) {
+        return productsByCode.get(code);
+    }
+
+    /**
+     * resolves a product of a cart to the single instance of this product
+     *
+     * @return product of the catalog, or the interned product of the cart depending on the policies
+     */
+    public Product resolve(String code, String description, double price) {
+        return resolveInCents(code, description, Money.toCents(price));
+    }
+
+    private Product resolveInCents(String code, String description, long priceInCents) {
+        Product product = productsByCode.get(code);
+        if (product == null) {
+            if (unknownProductPolicy == UnknownProductPolicy.REJECT) {
+                throw new JsonParseException("Cart contains unknown product " + code);
+            }
+            return intern(code, description, priceInCents);
+        }
+        if (product.getPriceInCents() == priceInCents || priceMismatchPolicy == PriceMismatchPolicy.USE_CATALOG) {
+            return product;
+        }
+        if (priceMismatchPolicy == PriceMismatchPolicy.REJECT) {
+            throw new JsonParseException("Cart price " + Money.toEuros(priceInCents) + " of product " + code
+                    + " differs from catalog price " + product.getPrice());
+        }
+        return intern(code, description, priceInCents);
+    }
+
+    private Product intern(String code, String description, long priceInCents) {
+        return internedProducts.computeIfAbsent(code + '\u0000' + priceInCents,
+                key -> Product.ofCents(code, description, priceInCents));
+    }
+
+    @Override
+    public void write(JsonWriter out, Product product) throws IOException {
+        writeProduct(out, product);
+    }
+
+    @Override
+    public Product read(JsonReader in) throws IOException {
+        return readProduct(in, this);
+    }
+
+    private static void writeProduct(JsonWriter out, Product product) throws IOException {
+        if (product == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("code").value(product.getCode());
+        out.name("description").value(product.getDescription());
+        out.name("price").value(product.getPrice());
+        out.endObject();
+    }
+
+    /**
+     * reads a product with its price in cents, resolved by the catalog or as it is without catalog
+     */
+    private static Product readProduct(JsonReader in, ProductCatalog catalog) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String code = null;
+        String description = null;
+        long priceInCents = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "code":
+                    code = in.nextString();
+                    break;
+                case "description":
+                    description = in.nextString();
+                    break;
+                case "price":
+                    // the number as written in the file
+                    priceInCents = Money.parseCents(in.nextString());
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        if (code == null) {
+            throw new JsonParseException("Cart contains a product without code");
+        }
+        if (catalog == null) {
+            return Product.ofCents(code, description, priceInCents);
+        }
+        return catalog.resolveInCents(code, description, priceInCents);
+    }
+}
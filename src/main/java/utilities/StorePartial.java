@@ -0,0 +1,165 @@
+package utilities;
+
+import model.Product;
+import model.Supermarket;
+import model.SupermarketStatistics;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The statistics of one or more stores of a chain without their customers, which can be merged with
+ * the partials of other stores into the statistics of the whole chain. Merging is associative, so shards
+ * can merge the partials of their own stores and write them to a file for the coordinator to merge.
+ */
+public class StorePartial {
+
+    private static final int MAGIC = 0x534D5054;
+    private static final short VERSION = 3;
+    private static final int NONE = -1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final String name;
+    private final LocalTime openTime;
+    private final LocalTime closingTime;
+    private final Set<Product> products;
+    private final SupermarketStatistics statistics;
+
+    StorePartial(String name, LocalTime openTime, LocalTime closingTime, Set<Product> products,
+                 SupermarketStatistics statistics) {
+        this.name = name;
+        this.openTime = openTime;
+        this.closingTime = closingTime;
+        this.products = Collections.unmodifiableSet(products);
+        this.statistics = statistics;
+    }
+
+    public static StorePartial of(Supermarket supermarket) {
+        return new StorePartial(supermarket.getName(), supermarket.getOpenTime(), supermarket.getClosingTime(),
+                new LinkedHashSet<>(supermarket.getProducts()), supermarket.calculateStatistics());
+    }
+
+    /**
+     * the merged stores are open from the earliest opening time to the latest closing time
+     * and sell the products of both, of products with the same code the product of this partial is kept
+     *
+     * @return partial with the statistics of the stores of both partials, named after this partial
+     */
+    public StorePartial merge(StorePartial other) {
+        Set<Product> mergedProducts = new LinkedHashSet<>(products);
+        mergedProducts.addAll(other.products);
+        return new StorePartial(name, earliest(openTime, other.openTime), latest(closingTime, other.closingTime),
+                mergedProducts, statistics.merge(other.statistics));
+    }
+
+    static LocalTime earliest(LocalTime time, LocalTime otherTime) {
+        if (time == null || otherTime == null) {
+            return time == null ? otherTime : time;
+        }
+        return otherTime.isBefore(time) ? otherTime : time;
+    }
+
+    static LocalTime latest(LocalTime time, LocalTime otherTime) {
+        if (time == null || otherTime == null) {
+            return time == null ? otherTime : time;
+        }
+        return otherTime.isAfter(time) ? otherTime : time;
+    }
+
+    /**
+     * @return supermarket with the statistics of the partial, that answers the same queries as a loaded store
+     */
+    public Supermarket toSupermarket(String name) {
+        Supermarket supermarket = new Supermarket(name, openTime, closingTime);
+        supermarket.getProducts().addAll(products);
+        supermarket.setStreamedStatistics(statistics);
+        return supermarket;
+    }
+
+    public void write(String partialFile) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(Paths.get(partialFile)), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            writeString(out, name);
+            out.writeInt(toSecond(openTime));
+            out.writeInt(toSecond(closingTime));
+            out.writeInt(products.size());
+            for (Product product : products) {
+                writeString(out, product.getCode());
+                writeString(out, product.getDescription());
+                out.writeDouble(product.getPrice());
+            }
+            statistics.write(out);
+        } catch (IOException writeError) {
+            throw new UncheckedIOException("Could not write " + partialFile, writeError);
+        }
+    }
+
+    public static StorePartial read(String partialFile) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(Paths.get(partialFile)), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a store partial");
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported store partial version " + version);
+            }
+            String name = readString(in);
+            LocalTime openTime = toTime(in.readInt());
+            LocalTime closingTime = toTime(in.readInt());
+            Set<Product> products = new LinkedHashSet<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                products.add(new Product(readString(in), readString(in), in.readDouble()));
+            }
+            return new StorePartial(name, openTime, closingTime, products, SupermarketStatistics.read(in));
+        } catch (IOException readError) {
+            throw new UncheckedIOException("Could not read " + partialFile, readError);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocalTime getOpenTime() {
+        return openTime;
+    }
+
+    public LocalTime getClosingTime() {
+        return closingTime;
+    }
+
+    public Set<Product> getProducts() {
+        return products;
+    }
+
+    public SupermarketStatistics getStatistics() {
+        return statistics;
+    }
+
+    private static int toSecond(LocalTime time) {
+        return time == null ? NONE : time.toSecondOfDay();
+    }
+
+    private static LocalTime toTime(int second) {
+        return second == NONE ? null : LocalTime.ofSecondOfDay(second);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
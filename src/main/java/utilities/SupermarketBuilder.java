@@ -4,6 +4,7 @@ import com.google.gson.*;
 import model.Customer;
 import model.Product;
 import model.Supermarket;
+import model.ZipCodeDictionary;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -17,6 +18,10 @@ public class SupermarketBuilder {
     private Supermarket supermarket;
     private Scanner scanner;
     private Gson gson;
+    private Gson customerGson;
+    private final ZipCodeDictionary zipCodes = new ZipCodeDictionary();
+    private ProductCatalog.UnknownProductPolicy unknownProductPolicy = ProductCatalog.UnknownProductPolicy.INTERN;
+    private ProductCatalog.PriceMismatchPolicy priceMismatchPolicy = ProductCatalog.PriceMismatchPolicy.KEEP_CART;
     private boolean isProduct = false;
     private boolean isCustomer = false;
 
@@ -26,12 +31,39 @@ public class SupermarketBuilder {
         } catch (FileNotFoundException fileError) {
             System.out.println("File not found.");
         }
-        gson = new GsonBuilder().enableComplexMapKeySerialization()
+        gson = createGson();
+    }
+
+    /**
+     * @return Gson that reads and writes the supermarket, products and customers of a supermarket file
+     */
+    static Gson createGson() {
+        return createGsonBuilder().registerTypeAdapter(Product.class, ProductCatalog.PRODUCTS).create();
+    }
+
+    /**
+     * @return Gson that resolves the products in the carts of customers to the products of the catalog
+     */
+    static Gson createGson(ProductCatalog catalog) {
+        return createGsonBuilder().registerTypeAdapter(Product.class, catalog).create();
+    }
+
+    private static GsonBuilder createGsonBuilder() {
+        return new GsonBuilder().enableComplexMapKeySerialization()
                 .registerTypeAdapter(LocalTime.class, (JsonDeserializer<LocalTime>)
                         (json, typeOfT, context) -> LocalTime.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_TIME))
                 .registerTypeAdapter(LocalTime.class, (JsonSerializer<LocalTime>)
-                        (src, typeOfSrc, context) -> new JsonPrimitive(src.format(DateTimeFormatter.ISO_LOCAL_TIME)))
-                .create();
+                        (src, typeOfSrc, context) -> new JsonPrimitive(src.format(DateTimeFormatter.ISO_LOCAL_TIME)));
+    }
+
+    /**
+     * sets how products in carts that are not in the Products section or have another price are resolved
+     */
+    public SupermarketBuilder catalogPolicies(ProductCatalog.UnknownProductPolicy unknownProductPolicy,
+                                              ProductCatalog.PriceMismatchPolicy priceMismatchPolicy) {
+        this.unknownProductPolicy = unknownProductPolicy;
+        this.priceMismatchPolicy = priceMismatchPolicy;
+        return this;
     }
 
     public SupermarketBuilder initializeSupermarket() {
@@ -65,10 +97,15 @@ public class SupermarketBuilder {
     }
 
     public SupermarketBuilder addCustomers() {
+        if (customerGson == null) {
+            customerGson = createGson(new ProductCatalog(supermarket.getProducts(), unknownProductPolicy, priceMismatchPolicy));
+        }
         while (scanner.hasNext()) {
             String nextLine = scanner.nextLine();
             if (isCustomer) {
-                supermarket.getCustomers().add(gson.fromJson(nextLine, Customer.class));
+                Customer customer = customerGson.fromJson(nextLine, Customer.class);
+                customer.internZipCode(zipCodes);
+                supermarket.getCustomers().add(customer);
             }
             if (nextLine.equals("Customers")) {
                 isCustomer = true;
@@ -0,0 +1,94 @@
+package utilities;
+
+import model.Supermarket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Loads the files of many stores of a chain at the same time and merges their statistics into a
+ * supermarket for the whole chain. Every store is streamed into a partial without its customers,
+ * so the memory use is that of the partials and not of the customers of the chain.
+ */
+public class SupermarketChainLoader {
+
+    private final String chainName;
+    private final List<String> storeFiles;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    public SupermarketChainLoader(String chainName, List<String> storeFiles) {
+        this.chainName = chainName;
+        this.storeFiles = new ArrayList<>(storeFiles);
+    }
+
+    public SupermarketChainLoader parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * @return supermarket with the merged statistics of all stores, open from the earliest opening time to the latest closing time
+     */
+    public Supermarket load() {
+        return merge(chainName, loadPartials());
+    }
+
+    /**
+     * @return List with the partial of every store, in the order of the store files
+     */
+    public List<StorePartial> loadPartials() {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<StorePartial>> loadedStores = new ArrayList<>();
+            for (String storeFile : storeFiles) {
+                loadedStores.add(pool.submit(() -> StorePartial.of(new SupermarketStreamLoader(storeFile).load())));
+            }
+            List<StorePartial> partials = new ArrayList<>();
+            for (Future<StorePartial> loadedStore : loadedStores) {
+                partials.add(loadedStore.get());
+            }
+            return partials;
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Loading of the stores of " + chainName + " was interrupted", interrupted);
+        } catch (ExecutionException loadError) {
+            if (loadError.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) loadError.getCause();
+            }
+            throw new IllegalStateException("Could not load the stores of " + chainName, loadError.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * merges the partials in their order, which can be partials of stores or of shards of stores
+     *
+     * @return supermarket with the merged statistics of the partials
+     */
+    public static Supermarket merge(String chainName, List<StorePartial> partials) {
+        return mergePartials(partials).toSupermarket(chainName);
+    }
+
+    /**
+     * merges the partials in their order into one partial, like the partial of a shard of stores
+     *
+     * @return partial with the merged statistics of the partials, named after the first partial
+     */
+    public static StorePartial mergePartials(List<StorePartial> partials) {
+        if (partials.isEmpty()) {
+            throw new IllegalArgumentException("A chain needs at least one store");
+        }
+        StorePartial merged = partials.get(0);
+        for (int i = 1; i < partials.size(); i++) {
+            merged = merged.merge(partials.get(i));
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,367 @@
+package utilities;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Generates a synthetic day of a supermarket in the text format of the SupermarketBuilder, for load tests
+ * and benchmarks. The same seed and settings always generate the same file. Customers are written in the
+ * order of their queuedAt while they are generated, so the size of the file is not limited by memory.
+ * The number of customers per minute follows the arrival rate curve, products are picked with a
+ * Zipf distribution of popularity and the cart sizes and quantities follow their own distribution.
+ */
+public class SupermarketGenerator {
+
+    /**
+     * the same number of customers arrive in every minute
+     */
+    public static final DoubleUnaryOperator UNIFORM_ARRIVALS = fractionOfDay -> 1.0;
+
+    /**
+     * a peak in the morning and a higher peak at the end of the afternoon
+     */
+    public static final DoubleUnaryOperator RUSH_HOURS = fractionOfDay -> 0.3
+            + Math.exp(-Math.pow((fractionOfDay - 0.2) / 0.08, 2))
+            + 1.5 * Math.exp(-Math.pow((fractionOfDay - 0.75) / 0.1, 2));
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int SECONDS_PER_MINUTE = 60;
+    private static final int LETTER_PAIRS = 26 * 26;
+    private static final int MAX_ZIP_CODES = 9000 * LETTER_PAIRS;
+    private static final int MIN_PRICE_IN_CENTS = 29;
+    private static final int MAX_PRICE_IN_CENTS = 2499;
+    // a zip code is drawn again this many times when a customer with the same queuedAt already has it
+    private static final int ZIP_CODE_RETRIES = 8;
+
+    private final long seed;
+    private String name = "Synthetic";
+    private LocalTime openTime = LocalTime.of(8, 0);
+    private LocalTime closingTime = LocalTime.of(22, 0);
+    private int numberOfProducts = 1000;
+    private long numberOfCustomers = 10000;
+    private int numberOfZipCodes = 500;
+    private Distribution cartSizes = Distribution.geometric(6, 40);
+    private Distribution quantities = Distribution.geometric(1.5, 12);
+    private double popularityExponent = 1.0;
+    private DoubleUnaryOperator arrivalRate = RUSH_HOURS;
+
+    public SupermarketGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public SupermarketGenerator name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public SupermarketGenerator openingHours(LocalTime openTime, LocalTime closingTime) {
+        if (!openTime.isBefore(closingTime)) {
+            throw new IllegalArgumentException("Opening time must be before closing time: " + openTime + " " + closingTime);
+        }
+        this.openTime = openTime;
+        this.closingTime = closingTime;
+        return this;
+    }
+
+    public SupermarketGenerator products(int numberOfProducts) {
+        if (numberOfProducts <= 0) {
+            throw new IllegalArgumentException("Number of products must be positive: " + numberOfProducts);
+        }
+        this.numberOfProducts = numberOfProducts;
+        return this;
+    }
+
+    public SupermarketGenerator customers(long numberOfCustomers) {
+        if (numberOfCustomers < 0) {
+            throw new IllegalArgumentException("Number of customers can't be negative: " + numberOfCustomers);
+        }
+        this.numberOfCustomers = numberOfCustomers;
+        return this;
+    }
+
+    public SupermarketGenerator zipCodes(int numberOfZipCodes) {
+        if (numberOfZipCodes <= 0 || numberOfZipCodes > MAX_ZIP_CODES) {
+            throw new IllegalArgumentException("Number of zip codes must be between 1 and " + MAX_ZIP_CODES + ": " + numberOfZipCodes);
+        }
+        this.numberOfZipCodes = numberOfZipCodes;
+        return this;
+    }
+
+    /**
+     * sets the distribution of the number of different products in a cart, capped at the number of products
+     */
+    public SupermarketGenerator cartSizes(Distribution cartSizes) {
+        this.cartSizes = cartSizes;
+        return this;
+    }
+
+    /**
+     * sets the distribution of the quantity of a product in a cart
+     */
+    public SupermarketGenerator quantities(Distribution quantities) {
+        this.quantities = quantities;
+        return this;
+    }
+
+    /**
+     * sets the exponent of the Zipf distribution of the products, 0 makes all products equally popular
+     */
+    public SupermarketGenerator productPopularity(double exponent) {
+        if (exponent < 0) {
+            throw new IllegalArgumentException("Popularity exponent can't be negative: " + exponent);
+        }
+        this.popularityExponent = exponent;
+        return this;
+    }
+
+    /**
+     * sets the relative arrival rate of customers by the fraction of the opening hours that has passed,
+     * like UNIFORM_ARRIVALS or RUSH_HOURS
+     */
+    public SupermarketGenerator arrivalRate(DoubleUnaryOperator arrivalRate) {
+        this.arrivalRate = arrivalRate;
+        return this;
+    }
+
+    public void generate(String filename) {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(Paths.get(filename)), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            generate(out);
+        } catch (IOException writeError) {
+            throw new UncheckedIOException("Could not write " + filename, writeError);
+        }
+    }
+
+    public void generate(Writer out) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder line = new StringBuilder(256);
+
+        out.write("Supermarket\n");
+        line.append("{\"name\":");
+        appendString(line, name);
+        line.append(",\"openTime\":\"");
+        appendTime(line, openTime.toSecondOfDay());
+        line.append("\",\"closingTime\":\"");
+        appendTime(line, closingTime.toSecondOfDay());
+        line.append("\"}\n");
+        out.append(line);
+
+        out.write("Products\n");
+        String[] productJson = new String[numberOfProducts];
+        for (int product = 0; product < numberOfProducts; product++) {
+            line.setLength(0);
+            long priceInCents = MIN_PRICE_IN_CENTS + random.nextInt(MAX_PRICE_IN_CENTS - MIN_PRICE_IN_CENTS + 1);
+            line.append("{\"code\":\"P");
+            appendCode(line, product);
+            line.append("\",\"description\":\"Product ").append(product)
+                    .append("\",\"price\":").append(priceInCents / 100).append('.')
+                    .append((char) ('0' + priceInCents / 10 % 10)).append((char) ('0' + priceInCents % 10)).append('}');
+            productJson[product] = line.toString();
+            out.write(productJson[product]);
+            out.write('\n');
+        }
+
+        out.write("Customers\n");
+        double[] cumulativePopularity = cumulativePopularity();
+        int[] cart = new int[numberOfProducts];
+        int[] lastSecondOfZipCode = new int[numberOfZipCodes];
+        Arrays.fill(lastSecondOfZipCode, -1);
+        int openSecond = openTime.toSecondOfDay();
+        int closingSecond = closingTime.toSecondOfDay();
+        long[] customersPerMinute = customersPerMinute(openSecond, closingSecond);
+        for (int minute = 0; minute < customersPerMinute.length; minute++) {
+            int start = openSecond + minute * SECONDS_PER_MINUTE;
+            int length = Math.min(SECONDS_PER_MINUTE, closingSecond - start);
+            int[] seconds = new int[Math.toIntExact(customersPerMinute[minute])];
+            for (int i = 0; i < seconds.length; i++) {
+                seconds[i] = start + random.nextInt(length);
+            }
+            Arrays.sort(seconds);
+            for (int second : seconds) {
+                int zipCode = random.nextInt(numberOfZipCodes);
+                for (int retry = 0; retry < ZIP_CODE_RETRIES && lastSecondOfZipCode[zipCode] == second; retry++) {
+                    zipCode = random.nextInt(numberOfZipCodes);
+                }
+                lastSecondOfZipCode[zipCode] = second;
+                line.setLength(0);
+                line.append("{\"queuedAt\":\"");
+                appendTime(line, second);
+                line.append("\",\"zipCode\":\"");
+                appendZipCode(line, zipCode);
+                line.append("\",\"itemsCart\":[");
+                int cartSize = Math.min(Math.max(1, cartSizes.sample(random)), numberOfProducts);
+                for (int i = 0; i < cartSize; i++) {
+                    cart[i] = pickProduct(random, cumulativePopularity, cart, i);
+                    if (i > 0) {
+                        line.append(',');
+                    }
+                    line.append('[').append(productJson[cart[i]]).append(',')
+                            .append(Math.max(1, quantities.sample(random))).append(']');
+                }
+                line.append("]}\n");
+                out.append(line);
+            }
+        }
+    }
+
+    /**
+     * divides the customers over the minutes by the cumulative arrival rate, so the total is exact
+     *
+     * @return number of customers per minute of the opening hours
+     */
+    private long[] customersPerMinute(int openSecond, int closingSecond) {
+        int minutes = (closingSecond - openSecond + SECONDS_PER_MINUTE - 1) / SECONDS_PER_MINUTE;
+        double[] cumulativeRate = new double[minutes + 1];
+        for (int minute = 0; minute < minutes; minute++) {
+            double rate = Math.max(0.0, arrivalRate.applyAsDouble((minute + 0.5) / minutes));
+            cumulativeRate[minute + 1] = cumulativeRate[minute] + rate;
+        }
+        double totalRate = cumulativeRate[minutes];
+        if (totalRate <= 0.0 && numberOfCustomers > 0) {
+            throw new IllegalArgumentException("Arrival rate is zero during the whole day");
+        }
+        long[] customersPerMinute = new long[minutes];
+        long previous = 0;
+        for (int minute = 0; minute < minutes; minute++) {
+            long customers = Math.round(numberOfCustomers * (cumulativeRate[minute + 1] / totalRate));
+            customersPerMinute[minute] = customers - previous;
+            previous = customers;
+        }
+        return customersPerMinute;
+    }
+
+    /**
+     * @return cumulative probabilities of the products by Zipf, or null if all products are equally popular
+     */
+    private double[] cumulativePopularity() {
+        if (popularityExponent == 0.0) {
+            return null;
+        }
+        double[] cumulative = new double[numberOfProducts];
+        double sum = 0.0;
+        for (int product = 0; product < numberOfProducts; product++) {
+            sum += 1.0 / Math.pow(product + 1, popularityExponent);
+            cumulative[product] = sum;
+        }
+        for (int product = 0; product < numberOfProducts; product++) {
+            cumulative[product] /= sum;
+        }
+        return cumulative;
+    }
+
+    /**
+     * picks a product that is not yet in the first products of the cart, a product is only once in a cart
+     */
+    private int pickProduct(SplittableRandom random, double[] cumulativePopularity, int[] cart, int cartSize) {
+        while (true) {
+            int product;
+            if (cumulativePopularity == null) {
+                product = random.nextInt(numberOfProducts);
+            } else {
+                int index = Arrays.binarySearch(cumulativePopularity, random.nextDouble());
+                product = Math.min(index >= 0 ? index : -index - 1, numberOfProducts - 1);
+            }
+            boolean inCart = false;
+            for (int i = 0; i < cartSize && !inCart; i++) {
+                inCart = cart[i] == product;
+            }
+            if (!inCart) {
+                return product;
+            }
+            if (cartSize * 2 > numberOfProducts) {
+                // nearly all products are in the cart, take the first one that isn't
+                for (product = 0; ; product++) {
+                    inCart = false;
+                    for (int i = 0; i < cartSize && !inCart; i++) {
+                        inCart = cart[i] == product;
+                    }
+                    if (!inCart) {
+                        return product;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void appendTime(StringBuilder line, int secondOfDay) {
+        appendTwoDigits(line, secondOfDay / 3600);
+        line.append(':');
+        appendTwoDigits(line, secondOfDay / 60 % 60);
+        line.append(':');
+        appendTwoDigits(line, secondOfDay % 60);
+    }
+
+    /**
+     * product codes are a P and the number of the product in at least six digits
+     */
+    private static void appendCode(StringBuilder line, int product) {
+        String number = Integer.toString(product);
+        for (int i = number.length(); i < 6; i++) {
+            line.append('0');
+        }
+        line.append(number);
+    }
+
+    private static void appendTwoDigits(StringBuilder line, int value) {
+        line.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    /**
+     * zip codes are the Dutch four digits and two letters, from 1000AA on
+     */
+    private static void appendZipCode(StringBuilder line, int zipCode) {
+        int letters = zipCode % LETTER_PAIRS;
+        line.append(1000 + zipCode / LETTER_PAIRS).append((char) ('A' + letters / 26)).append((char) ('A' + letters % 26));
+    }
+
+    private static void appendString(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    /**
+     * Distribution of a positive whole number, like the size of a cart
+     */
+    public interface Distribution {
+
+        int sample(SplittableRandom random);
+
+        static Distribution fixed(int value) {
+            return random -> value;
+        }
+
+        static Distribution uniform(int min, int max) {
+            if (min > max) {
+                throw new IllegalArgumentException("Minimum is larger than maximum: " + min + " " + max);
+            }
+            return random -> min + random.nextInt(max - min + 1);
+        }
+
+        /**
+         * @return geometric distribution from 1 on with the given mean, capped at the maximum
+         */
+        static Distribution geometric(double mean, int max) {
+            if (mean < 1.0) {
+                throw new IllegalArgumentException("Mean of a geometric distribution must be at least 1: " + mean);
+            }
+            if (mean == 1.0) {
+                return fixed(1);
+            }
+            double logFailure = Math.log(1.0 - 1.0 / mean);
+            return random -> (int) Math.min(max, 1 + (long) (Math.log(1.0 - random.nextDouble()) / logFailure));
+        }
+    }
+}
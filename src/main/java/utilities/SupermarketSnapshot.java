@@ -0,0 +1,227 @@
+package utilities;
+
+import model.Customer;
+import model.CustomerTable;
+import model.Product;
+import model.Supermarket;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Compact binary snapshot of a loaded supermarket, which loads much faster than parsing the json text.
+ * The snapshot holds a dictionary of the products and of the zip codes, followed by the customers
+ * with their queuedAt as second of the day, the id of their zip code and their cart as pairs of
+ * product id and quantity. Reading memory maps the snapshot file, a snapshot larger than 2 GB in windows.
+ */
+public class SupermarketSnapshot {
+
+    private static final int MAGIC = 0x534D4B54;
+    private static final short VERSION = 1;
+    private static final int NONE = -1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    // the largest array the virtual machine can allocate
+    private static final int MAX_CART_LINES = Integer.MAX_VALUE - 8;
+
+    private SupermarketSnapshot() {
+    }
+
+    /**
+     * converts a supermarket file in the text format of the SupermarketBuilder to a snapshot file
+     */
+    public static void convert(String textFile, String snapshotFile) {
+        write(new ParallelSupermarketLoader(textFile).load(), snapshotFile);
+    }
+
+    public static void write(Supermarket supermarket, String snapshotFile) {
+        if (supermarket.getCustomerTable() == null
+                && supermarket.getCustomers().size() != supermarket.getNumberOfCustomers()) {
+            throw new IllegalArgumentException("Snapshot needs the customers, they have not been retained");
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(Paths.get(snapshotFile)), BUFFER_SIZE))) {
+            write(supermarket, out);
+        } catch (IOException writeError) {
+            throw new UncheckedIOException("Could not write " + snapshotFile, writeError);
+        }
+    }
+
+    private static void write(Supermarket supermarket, DataOutputStream out) throws IOException {
+        Collection<Customer> customers = supermarket.getCustomerTable() != null
+                ? supermarket.getCustomerTable().asCustomers() : supermarket.getCustomers();
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        writeString(out, supermarket.getName());
+        out.writeInt(toSecond(supermarket.getOpenTime()));
+        out.writeInt(toSecond(supermarket.getClosingTime()));
+
+        // dictionary of the distinct product instances, those of the catalog first
+        Map<Product, Integer> productIds = new IdentityHashMap<>();
+        List<Product> products = new ArrayList<>(supermarket.getProducts());
+        for (Product product : products) {
+            productIds.put(product, productIds.size());
+        }
+        Map<String, Integer> zipIds = new HashMap<>();
+        List<String> zipCodes = new ArrayList<>();
+        for (Customer customer : customers) {
+            for (Product product : customer.getItemsCart().keySet()) {
+                if (!productIds.containsKey(product)) {
+                    productIds.put(product, productIds.size());
+                    products.add(product);
+                }
+            }
+            if (customer.getZipCode() != null && !zipIds.containsKey(customer.getZipCode())) {
+                zipIds.put(customer.getZipCode(), zipCodes.size());
+                zipCodes.add(customer.getZipCode());
+            }
+        }
+
+        out.writeInt(products.size());
+        out.writeInt(supermarket.getProducts().size());
+        for (Product product : products) {
+            writeString(out, product.getCode());
+            writeString(out, product.getDescription());
+            out.writeDouble(product.getPrice());
+        }
+        out.writeInt(zipCodes.size());
+        for (String zipCode : zipCodes) {
+            writeString(out, zipCode);
+        }
+        out.writeInt(customers.size());
+        for (Customer customer : customers) {
+            out.writeInt(toSecond(customer.getQueuedAt()));
+            out.writeInt(customer.getZipCode() == null ? NONE : zipIds.get(customer.getZipCode()));
+            out.writeInt(customer.getItemsCart().size());
+            for (Map.Entry<Product, Integer> entry : customer.getItemsCart().entrySet()) {
+                out.writeInt(productIds.get(entry.getKey()));
+                out.writeInt(entry.getValue());
+            }
+        }
+    }
+
+    public static Supermarket read(String snapshotFile) {
+        return read(snapshotFile, false);
+    }
+
+    /**
+     * reads the customers straight into the columns of a customer table, without creating Customer objects
+     */
+    public static Supermarket readColumnar(String snapshotFile) {
+        return read(snapshotFile, true);
+    }
+
+    private static Supermarket read(String snapshotFile, boolean columnar) {
+        try (MappedFileInput in = MappedFileInput.open(Paths.get(snapshotFile), 0)) {
+            return read(in, columnar);
+        } catch (BufferUnderflowException truncated) {
+            throw new UncheckedIOException("Could not read " + snapshotFile, new EOFException("Snapshot is truncated"));
+        } catch (IOException readError) {
+            throw new UncheckedIOException("Could not read " + snapshotFile, readError);
+        }
+    }
+
+    private static Supermarket read(MappedFileInput in, boolean columnar) throws IOException {
+        if (in.size() < Integer.BYTES + Short.BYTES || in.getInt() != MAGIC) {
+            throw new IOException("Not a supermarket snapshot");
+        }
+        short version = in.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        Supermarket supermarket = new Supermarket(readString(in), toTime(in.getInt()), toTime(in.getInt()));
+
+        Product[] products = new Product[in.getInt()];
+        int catalogSize = in.getInt();
+        for (int i = 0; i < products.length; i++) {
+            products[i] = new Product(readString(in), readString(in), in.getDouble());
+            if (i < catalogSize) {
+                supermarket.getProducts().add(products[i]);
+            }
+        }
+        String[] zipCodes = new String[in.getInt()];
+        for (int i = 0; i < zipCodes.length; i++) {
+            zipCodes[i] = readString(in);
+        }
+        int numberOfCustomers = in.getInt();
+        if (columnar) {
+            supermarket.setCustomerTable(readCustomerTable(in, numberOfCustomers, products, zipCodes));
+            return supermarket;
+        }
+        for (int i = 0; i < numberOfCustomers; i++) {
+            LocalTime queuedAt = toTime(in.getInt());
+            int zipId = in.getInt();
+            Customer customer = new Customer(queuedAt, zipId == NONE ? null : zipCodes[zipId]);
+            int cartSize = in.getInt();
+            for (int j = 0; j < cartSize; j++) {
+                customer.addToCart(products[in.getInt()], in.getInt());
+            }
+            supermarket.getCustomers().add(customer);
+        }
+        return supermarket;
+    }
+
+    private static CustomerTable readCustomerTable(MappedFileInput in, int numberOfCustomers, Product[] products,
+                                                   String[] zipCodes) throws IOException {
+        int[] queuedAtSeconds = new int[numberOfCustomers];
+        int[] zipIds = new int[numberOfCustomers];
+        int[] cartOffsets = new int[numberOfCustomers + 1];
+        int[] cartProductIds = new int[Math.max(16, numberOfCustomers)];
+        int[] cartQuantities = new int[cartProductIds.length];
+        int line = 0;
+        for (int i = 0; i < numberOfCustomers; i++) {
+            queuedAtSeconds[i] = in.getInt();
+            zipIds[i] = in.getInt();
+            cartOffsets[i] = line;
+            int cartSize = in.getInt();
+            if ((long) line + cartSize > MAX_CART_LINES) {
+                throw new IOException("Snapshot has more cart lines than a customer table can hold");
+            }
+            if (line + cartSize > cartProductIds.length) {
+                int capacity = (int) Math.min(MAX_CART_LINES, Math.max(line + cartSize, 2L * cartProductIds.length));
+                cartProductIds = Arrays.copyOf(cartProductIds, capacity);
+                cartQuantities = Arrays.copyOf(cartQuantities, capacity);
+            }
+            for (int j = 0; j < cartSize; j++) {
+                cartProductIds[line] = in.getInt();
+                cartQuantities[line] = in.getInt();
+                line++;
+            }
+        }
+        cartOffsets[numberOfCustomers] = line;
+        return new CustomerTable(products, zipCodes, queuedAtSeconds, zipIds, cartOffsets,
+                Arrays.copyOf(cartProductIds, line), Arrays.copyOf(cartQuantities, line));
+    }
+
+    private static int toSecond(LocalTime time) {
+        return time == null ? NONE : time.toSecondOfDay();
+    }
+
+    private static LocalTime toTime(int second) {
+        return second == NONE ? null : LocalTime.ofSecondOfDay(second);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NONE);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedFileInput in) throws IOException {
+        int length = in.getInt();
+        if (length == NONE) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,133 @@
+package utilities;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import model.ApproximateStatistics;
+import model.Customer;
+import model.Product;
+import model.Supermarket;
+import model.SupermarketStatistics;
+import model.ZipCodeDictionary;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Loads a supermarket file with the same Supermarket, Products and Customers sections as the
+ * SupermarketBuilder, but streams the file token by token. Every customer is passed to the
+ * statistics as soon as it has been parsed, so by default the customers are not kept in memory
+ * and the memory use doesn't grow with the size of the file.
+ */
+public class SupermarketStreamLoader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path path;
+    private final Gson gson;
+    private boolean retainCustomers = false;
+    private ApproximateStatistics approximateStatistics;
+    private ProductCatalog.UnknownProductPolicy unknownProductPolicy = ProductCatalog.UnknownProductPolicy.INTERN;
+    private ProductCatalog.PriceMismatchPolicy priceMismatchPolicy = ProductCatalog.PriceMismatchPolicy.KEEP_CART;
+
+    public SupermarketStreamLoader(String filename) {
+        this.path = Paths.get(filename);
+        this.gson = SupermarketBuilder.createGson();
+    }
+
+    /**
+     * keeps the customers in the customers set of the supermarket, needed by callers of getCustomers()
+     */
+    public SupermarketStreamLoader retainCustomers(boolean retainCustomers) {
+        this.retainCustomers = retainCustomers;
+        return this;
+    }
+
+    /**
+     * also adds the customers to the approximate statistics. without retained customers the exact statistics
+     * then leave out the zip codes per product and the products per zip code, so huge days fit in memory
+     */
+    public SupermarketStreamLoader approximateStatistics(ApproximateStatistics approximateStatistics) {
+        this.approximateStatistics = approximateStatistics;
+        return this;
+    }
+
+    /**
+     * sets how products in carts that are not in the Products section or have another price are resolved
+     */
+    public SupermarketStreamLoader catalogPolicies(ProductCatalog.UnknownProductPolicy unknownProductPolicy,
+                                                   ProductCatalog.PriceMismatchPolicy priceMismatchPolicy) {
+        this.unknownProductPolicy = unknownProductPolicy;
+        this.priceMismatchPolicy = priceMismatchPolicy;
+        return this;
+    }
+
+    public Supermarket load() {
+        try (BufferedReader bufferedReader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE);
+             JsonReader reader = new JsonReader(bufferedReader)) {
+            // lenient, so the section names are read as unquoted strings between the json objects
+            reader.setLenient(true);
+            return load(reader);
+        } catch (IOException loadError) {
+            throw new UncheckedIOException("Could not load " + path, loadError);
+        }
+    }
+
+    private Supermarket load(JsonReader reader) throws IOException {
+        Supermarket supermarket = null;
+        SupermarketStatistics.Accumulator statistics = new SupermarketStatistics.Accumulator();
+        if (approximateStatistics != null) {
+            statistics.withoutProductsPerZipcode();
+        }
+        Gson customerGson = null;
+        ZipCodeDictionary zipCodes = new ZipCodeDictionary();
+        String section = "";
+        while (reader.peek() != JsonToken.END_DOCUMENT) {
+            if (reader.peek() == JsonToken.STRING) {
+                section = reader.nextString();
+                continue;
+            }
+            switch (section) {
+                case "Supermarket":
+                    supermarket = gson.fromJson(reader, Supermarket.class);
+                    supermarket.initializeCollections();
+                    break;
+                case "Products":
+                    supermarket.getProducts().add(gson.fromJson(reader, Product.class));
+                    break;
+                case "Customers":
+                    if (customerGson == null) {
+                        customerGson = SupermarketBuilder.createGson(
+                                new ProductCatalog(supermarket.getProducts(), unknownProductPolicy, priceMismatchPolicy));
+                    }
+                    Customer customer = customerGson.fromJson(reader, Customer.class);
+                    customer.internZipCode(zipCodes);
+                    if (approximateStatistics != null) {
+                        approximateStatistics.add(customer);
+                    }
+                    if (retainCustomers) {
+                        supermarket.getCustomers().add(customer);
+                    } else {
+                        statistics.add(customer);
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        if (supermarket != null && !retainCustomers) {
+            supermarket.setStreamedStatistics(statistics.build());
+        }
+        if (supermarket != null && approximateStatistics != null) {
+            supermarket.setApproximateStatistics(approximateStatistics);
+        }
+        return supermarket;
+    }
+}
@@ -0,0 +1,119 @@
+package tests;
+
+import model.ApproximateStatistics;
+import model.Customer;
+import model.Estimate;
+import model.Product;
+import model.Supermarket;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import utilities.SupermarketBuilder;
+import utilities.SupermarketGenerator;
+import utilities.SupermarketStreamLoader;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class ApproximateStatisticsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String file;
+    private Supermarket supermarket;
+
+    @BeforeEach
+    void setup() {
+        file = tempDir.resolve("day.txt").toString();
+        new SupermarketGenerator(3).products(150).customers(20000).zipCodes(3000).generate(file);
+        supermarket = new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create();
+    }
+
+    @Test
+    void t211_zipCodeReachIsWithinItsBounds() {
+        ApproximateStatistics approximate = new ApproximateStatistics().reachError(0.03);
+        for (Customer customer : supermarket.getCustomers()) {
+            approximate.add(customer);
+        }
+        assertTrue(approximate.getReachError() <= 0.03);
+        Map<Product, Set<String>> zipCodes = supermarket.findZipcodesPerProduct();
+        Map<Product, Estimate> reach = approximate.getZipcodeReachPerProduct();
+        assertEquals(zipCodes.keySet(), reach.keySet());
+        int withinBounds = 0;
+        for (Map.Entry<Product, Set<String>> entry : zipCodes.entrySet()) {
+            Estimate estimate = reach.get(entry.getKey());
+            if (estimate.contains(entry.getValue().size())) {
+                withinBounds++;
+            }
+            assertEquals(entry.getValue().size(), estimate.getValue(), entry.getValue().size() * 0.15 + 2);
+        }
+        // about 95% of the estimates have the true value between their bounds
+        assertTrue(withinBounds >= zipCodes.size() * 0.85, withinBounds + " of " + zipCodes.size());
+        assertThrows(IllegalStateException.class, () -> approximate.reachError(0.1));
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateStatistics().reachError(0.001));
+    }
+
+    @Test
+    void t212_popularProductsHaveGuaranteedBounds() {
+        ApproximateStatistics approximate = new ApproximateStatistics().popularProductCounters(40);
+        for (Customer customer : supermarket.getCustomers()) {
+            approximate.add(customer);
+        }
+        Map<Product, Integer> customersPerProduct = supermarket.calculateStatistics().getNumberOfCustomersPerProduct();
+        Map<Product, Estimate> popular = approximate.getMostPopularProducts(10);
+        assertEquals(10, popular.size());
+        for (Map.Entry<Product, Estimate> entry : popular.entrySet()) {
+            assertTrue(entry.getValue().contains(customersPerProduct.get(entry.getKey())), entry.toString());
+            assertEquals(1.0, entry.getValue().getConfidence());
+        }
+        // the most popular product is found although most products have no counter
+        Product mostPopular = popular.keySet().iterator().next();
+        assertTrue(supermarket.findMostPopularProducts().contains(mostPopular));
+        long errorBound = approximate.getPopularityErrorBound();
+        for (Map.Entry<Product, Integer> entry : customersPerProduct.entrySet()) {
+            Estimate estimate = approximate.getMostPopularProducts(40).get(entry.getKey());
+            assertTrue(estimate != null || entry.getValue() <= errorBound, entry.toString());
+        }
+    }
+
+    @Test
+    void t213_mostBoughtProductPerZipCodeIsWithinTheErrorBound() {
+        ApproximateStatistics approximate = ApproximateStatistics.of(supermarket.getCustomers());
+        Map<String, Map<Product, Integer>> productsByZipcode = supermarket.findNumberOfProductsByZipcode();
+        Map<String, Map.Entry<Product, Estimate>> mostBought = approximate.getMostBoughtProductByZipcode();
+        long errorBound = approximate.getNumberBoughtErrorBound();
+        assertTrue(errorBound > 0);
+        int found = 0;
+        for (Map.Entry<String, Map<Product, Integer>> zipCode : productsByZipcode.entrySet()) {
+            if (zipCode.getValue().isEmpty()) {
+                continue;
+            }
+            Map.Entry<Product, Estimate> estimate = mostBought.get(zipCode.getKey());
+            int numberBought = zipCode.getValue().get(estimate.getKey());
+            int maxNumberBought = zipCode.getValue().values().stream().max(Integer::compare).get();
+            if (numberBought + errorBound >= maxNumberBought && estimate.getValue().contains(numberBought)) {
+                found++;
+            }
+            assertEquals(approximate.getNumberBoughtConfidence(), estimate.getValue().getConfidence());
+        }
+        assertTrue(found >= mostBought.size() * 0.95, found + " of " + mostBought.size());
+    }
+
+    @Test
+    void t214_streamedHugeDayKeepsOnlyApproximateDetails() {
+        Supermarket streamed = new SupermarketStreamLoader(file)
+                .approximateStatistics(new ApproximateStatistics().popularProductCounters(200)).load();
+        assertTrue(streamed.findZipcodesPerProduct().isEmpty());
+        assertTrue(streamed.findNumberOfProductsByZipcode().isEmpty());
+        assertEquals(supermarket.findTotalRevenue(), streamed.findTotalRevenue(), 0.001);
+        assertEquals(supermarket.findTopProductsByCustomers(5).keySet(),
+                streamed.getApproximateStatistics().getMostPopularProducts(5).keySet());
+        assertEquals(0, streamed.getApproximateStatistics().getPopularityErrorBound());
+        assertEquals(supermarket.findZipcodesPerProduct().keySet(),
+                streamed.getApproximateStatistics().getZipcodeReachPerProduct().keySet());
+    }
+}
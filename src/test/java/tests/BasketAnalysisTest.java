@@ -0,0 +1,125 @@
+package tests;
+
+import model.BasketAnalysis;
+import model.Customer;
+import model.Product;
+import model.Supermarket;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import utilities.SupermarketBuilder;
+import utilities.SupermarketGenerator;
+
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class BasketAnalysisTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Supermarket supermarket;
+
+    @BeforeEach
+    void setup() {
+        String file = tempDir.resolve("day.txt").toString();
+        new SupermarketGenerator(13).products(30).customers(5000).zipCodes(100).generate(file);
+        supermarket = new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create();
+    }
+
+    private int countTogether(Product product, Product other) {
+        int baskets = 0;
+        for (Customer customer : supermarket.getCustomers()) {
+            if (customer.getItemsCart().containsKey(product) && customer.getItemsCart().containsKey(other)) {
+                baskets++;
+            }
+        }
+        return baskets;
+    }
+
+    @Test
+    void t271_pairsAreCountedLikeAScanOverTheCarts() {
+        BasketAnalysis analysis = BasketAnalysis.of(supermarket, 4);
+        List<Product> products = new ArrayList<>(supermarket.getProducts());
+        assertEquals(supermarket.getNumberOfCustomers(), analysis.getNumberOfBaskets());
+        for (Product product : products.subList(0, 5)) {
+            for (Product other : products) {
+                assertEquals(countTogether(product, other), analysis.countBasketsWith(product, other));
+                assertEquals(analysis.countBasketsWith(product, other), analysis.countBasketsWith(other, product));
+            }
+            int baskets = countTogether(product, product);
+            assertEquals(baskets, analysis.countBasketsWith(product));
+            Product other = products.get(products.size() - 1);
+            double support = (double) countTogether(product, other) / supermarket.getNumberOfCustomers();
+            assertEquals(support, analysis.getSupport(product, other), 1e-9);
+            assertEquals((double) countTogether(product, other) / baskets, analysis.getConfidence(product, other), 1e-9);
+            assertEquals(support * supermarket.getNumberOfCustomers() * supermarket.getNumberOfCustomers()
+                    / baskets / countTogether(other, other), analysis.getLift(product, other), 1e-9);
+        }
+        BasketAnalysis sequential = BasketAnalysis.of(supermarket.getCustomers());
+        assertEquals(sequential.getNumberOfPairs(), analysis.getNumberOfPairs());
+        assertEquals(List.copyOf(sequential.findProductsBoughtWith(products.get(0), 5).values()),
+                List.copyOf(analysis.findProductsBoughtWith(products.get(0), 5).values()));
+    }
+
+    @Test
+    void t272_associatedProductsAreTheTopK() {
+        BasketAnalysis analysis = supermarket.analyzeBaskets();
+        Product product = supermarket.getProducts().iterator().next();
+        Map<Product, Integer> boughtWith = analysis.findProductsBoughtWith(product, 3);
+        assertEquals(3, boughtWith.size());
+        int lowest = Integer.MAX_VALUE;
+        for (Map.Entry<Product, Integer> entry : boughtWith.entrySet()) {
+            assertEquals(countTogether(product, entry.getKey()), entry.getValue());
+            assertTrue(entry.getValue() <= lowest);
+            lowest = entry.getValue();
+        }
+        for (Product other : supermarket.getProducts()) {
+            if (!other.equals(product) && !boughtWith.containsKey(other)) {
+                assertTrue(analysis.countBasketsWith(product, other) <= lowest);
+            }
+        }
+
+        Map<Product, Double> associated = analysis.findAssociatedProducts(product, 5, 10);
+        double lowestLift = Double.MAX_VALUE;
+        for (Map.Entry<Product, Double> entry : associated.entrySet()) {
+            assertEquals(analysis.getLift(product, entry.getKey()), entry.getValue(), 1e-9);
+            assertTrue(analysis.countBasketsWith(product, entry.getKey()) >= 10);
+            assertTrue(entry.getValue() <= lowestLift);
+            lowestLift = entry.getValue();
+        }
+        assertTrue(analysis.findProductsBoughtWith(new Product("X", "Unknown", 1.0), 3).isEmpty());
+    }
+
+    @Test
+    void t273_analysesOfStoresAreMerged() {
+        Product bread = new Product("B001", "Bread", 2.0);
+        Product butter = new Product("B002", "Butter", 3.0);
+        Product milk = new Product("M001", "Milk", 1.0);
+        Customer first = new Customer(LocalTime.of(9, 0), "1000AA");
+        first.addToCart(bread, 1);
+        first.addToCart(butter, 1);
+        Customer second = new Customer(LocalTime.of(9, 5), "1000AA");
+        second.addToCart(milk, 2);
+        second.addToCart(bread, 1);
+        Customer third = new Customer(LocalTime.of(9, 10), "1000AB");
+        third.addToCart(butter, 1);
+        third.addToCart(bread, 3);
+
+        BasketAnalysis merged = BasketAnalysis.of(List.of(first)).merge(BasketAnalysis.of(List.of(second, third)));
+        assertEquals(3, merged.getNumberOfBaskets());
+        assertEquals(3, merged.countBasketsWith(bread));
+        assertEquals(2, merged.countBasketsWith(butter, bread));
+        assertEquals(1, merged.countBasketsWith(bread, milk));
+        assertEquals(0, merged.countBasketsWith(butter, milk));
+        assertEquals(2, merged.getNumberOfPairs());
+        assertEquals(1.0, merged.getConfidence(butter, bread), 1e-9);
+        assertEquals(1.0, merged.getLift(butter, bread), 1e-9);
+        assertEquals(List.of(butter, milk), List.copyOf(merged.findProductsBoughtWith(bread, 5).keySet()));
+    }
+}
@@ -0,0 +1,126 @@
+package tests;
+
+import model.CheckoutReport;
+import model.CheckoutSimulation;
+import model.Customer;
+import model.Product;
+import model.Supermarket;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import utilities.SupermarketBuilder;
+import utilities.SupermarketGenerator;
+
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class CheckoutSimulationTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Supermarket supermarket;
+
+    @BeforeEach
+    void setup() {
+        String file = tempDir.resolve("day.txt").toString();
+        new SupermarketGenerator(11).products(60).customers(20000).zipCodes(300).generate(file);
+        supermarket = new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create();
+    }
+
+    @Test
+    void t261_customersWaitForTheFirstFreeCashier() {
+        Supermarket small = new Supermarket("Small", LocalTime.of(8, 0), LocalTime.of(9, 0));
+        small.initializeCollections();
+        Product product = new Product("A001", "Any-1", 1.0);
+        Customer first = new Customer(LocalTime.of(8, 0, 0), "1000AA");
+        first.addToCart(product, 2);
+        Customer second = new Customer(LocalTime.of(8, 0, 10), "1000AB");
+        second.addToCart(product, 1);
+        small.addCustomer(second);
+        small.addCustomer(first);
+        small.addCustomer(new Customer(LocalTime.of(8, 0, 30), "1000AC"));
+
+        CheckoutSimulation simulation = new CheckoutSimulation(small).secondsPerCustomer(10).secondsPerItem(5).intervalMinutes(15);
+        CheckoutReport oneCashier = simulation.simulate(1);
+        assertEquals(3, oneCashier.getNumberOfCustomers());
+        assertEquals(1, oneCashier.countCustomersWaiting(0));
+        assertEquals(1, oneCashier.countCustomersWaiting(10));
+        assertEquals(1, oneCashier.countCustomersWaiting(5));
+        assertEquals(5.0, oneCashier.getAverageWaitingSeconds(), 0.001);
+        assertEquals(5, oneCashier.getWaitingSecondsPercentile(50));
+        assertEquals(10, oneCashier.getLongestWaitingSeconds());
+        assertEquals(45.0 / 3600, oneCashier.getUtilisation(0), 0.0001);
+        assertEquals(4, oneCashier.getLongestLinePerInterval().size());
+        assertEquals(1, oneCashier.getLongestLinePerInterval().get(LocalTime.of(8, 0)));
+        assertEquals(0, oneCashier.getLongestLinePerInterval().get(LocalTime.of(8, 15)));
+        assertEquals(15.0 / 900, oneCashier.getAverageLinePerInterval().get(LocalTime.of(8, 0)), 0.0001);
+
+        CheckoutReport twoCashiers = simulation.simulate(2);
+        assertEquals(0, twoCashiers.getLongestWaitingSeconds());
+        assertEquals(30.0 / 3600, twoCashiers.getUtilisation(0), 0.0001);
+        assertEquals(15.0 / 3600, twoCashiers.getUtilisation(1), 0.0001);
+    }
+
+    @Test
+    void t262_moreCashiersNeverMakeTheLineLonger() {
+        CheckoutSimulation simulation = new CheckoutSimulation(supermarket).parallelism(3);
+        Map<Integer, CheckoutReport> scenarios = simulation.simulate(List.of(1, 2, 4, 8, 16));
+        assertEquals(List.of(1, 2, 4, 8, 16), List.copyOf(scenarios.keySet()));
+        double previousWait = Double.MAX_VALUE;
+        for (CheckoutReport report : scenarios.values()) {
+            assertEquals(supermarket.getNumberOfCustomers(), report.getNumberOfCustomers());
+            assertTrue(report.getAverageWaitingSeconds() <= previousWait);
+            previousWait = report.getAverageWaitingSeconds();
+            assertTrue(report.getWaitingSecondsPercentile(50) <= report.getWaitingSecondsPercentile(95));
+            assertTrue(report.getWaitingSecondsPercentile(95) <= report.getLongestWaitingSeconds());
+            for (int cashier = 0; cashier < report.getCashiers(); cashier++) {
+                assertTrue(report.getUtilisation(cashier) >= 0 && report.getUtilisation(cashier) <= 1);
+            }
+        }
+
+        CheckoutReport sequential = simulation.simulate(4);
+        assertEquals(sequential.getAverageWaitingSeconds(), scenarios.get(4).getAverageWaitingSeconds());
+        assertEquals(sequential.getLongestLinePerInterval(), scenarios.get(4).getLongestLinePerInterval());
+        supermarket.useColumnarStorage();
+        CheckoutReport columnar = new CheckoutSimulation(supermarket).simulate(4);
+        assertEquals(sequential.getAverageWaitingSeconds(), columnar.getAverageWaitingSeconds());
+        assertEquals(sequential.getAverageLinePerInterval(), columnar.getAverageLinePerInterval());
+    }
+
+    @Test
+    void t263_invalidScenariosAreRejected() {
+        CheckoutSimulation simulation = new CheckoutSimulation(supermarket);
+        assertThrows(IllegalArgumentException.class, () -> simulation.simulate(0));
+        assertThrows(IllegalArgumentException.class, () -> simulation.secondsPerItem(-1));
+        assertThrows(IllegalArgumentException.class, () -> simulation.intervalMinutes(0));
+        assertThrows(IllegalArgumentException.class, () -> simulation.simulate(List.of(2, -1)));
+        assertThrows(IllegalArgumentException.class, () -> simulation.simulate(2).getWaitingSecondsPercentile(101));
+    }
+
+    @Test
+    void t264_returnsAreServedLikeAnEmptyCart() {
+        Supermarket returns = new Supermarket("Returns", LocalTime.of(8, 0), LocalTime.of(9, 0));
+        returns.initializeCollections();
+        Product product = new Product("A001", "Any-1", 1.0);
+        Customer returning = new Customer(LocalTime.of(8, 0, 0), "1000AA");
+        returning.addToCart(product, -3);
+        Customer buying = new Customer(LocalTime.of(8, 0, 5), "1000AB");
+        buying.addToCart(product, 2);
+        returns.addCustomer(returning);
+        returns.addCustomer(buying);
+
+        CheckoutReport report = new CheckoutSimulation(returns).secondsPerCustomer(10).secondsPerItem(5)
+                .intervalMinutes(15).simulate(1);
+        assertEquals(2, report.getNumberOfCustomers());
+        // the returning customer leaves at 08:00:10, the buying customer waits 5 seconds
+        assertEquals(1, report.countCustomersWaiting(0));
+        assertEquals(1, report.countCustomersWaiting(5));
+        assertEquals(1, report.getLongestLinePerInterval().get(LocalTime.of(8, 0)));
+        assertEquals(30.0 / 3600, report.getUtilisation(0), 0.0001);
+    }
+}
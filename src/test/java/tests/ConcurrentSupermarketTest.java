@@ -0,0 +1,166 @@
+package tests;
+
+import model.Customer;
+import model.Product;
+import model.Supermarket;
+import model.SupermarketStatistics;
+import model.TimeIndex;
+import model.TimeIntervals;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class ConcurrentSupermarketTest {
+
+    private static final int LANES = 8;
+    private static final int CUSTOMERS_PER_LANE = 500;
+    private static final int LINES_PER_CUSTOMER = 5;
+    private static final int SHARED_LINES_PER_LANE = 2000;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        for (int i = 0; i < 20; i++) {
+            products.add(new Product("P" + i, "Product " + i, 0.05 * (i + 1)));
+        }
+    }
+
+    private static void assertConsistent(SupermarketStatistics statistics) {
+        int items = 0;
+        for (int count : statistics.getNumberOfProductsBought().values()) {
+            items += count;
+        }
+        assertEquals(statistics.getTotalNumberOfItems(), items);
+        long revenue = 0;
+        for (long cents : statistics.getRevenueInCentsByZipcode().values()) {
+            revenue += cents;
+        }
+        assertEquals(statistics.getTotalRevenueInCents(), revenue);
+        // the counts per second are copied with the totals, the shared customers queue before the opening time
+        TimeIntervals wholeDay = new TimeIntervals(LocalTime.MIN, LocalTime.MAX, 60);
+        int customers = 0;
+        for (int count : statistics.countCustomersPerInterval(wholeDay).values()) {
+            customers += count;
+        }
+        assertEquals(statistics.getNumberOfCustomers(), customers);
+        long revenuePerInterval = 0;
+        for (double euros : statistics.calculateRevenuePerInterval(wholeDay).values()) {
+            revenuePerInterval += Math.round(euros * 100);
+        }
+        assertEquals(statistics.getTotalRevenueInCents(), revenuePerInterval);
+        TimeIndex index = statistics.getTimeIndex();
+        assertEquals(statistics.getTotalNumberOfItems(), index.countItemsBetween(LocalTime.MIN, LocalTime.MAX));
+    }
+
+    @Test
+    void t171_noUpdatesAreLostUnderContention() throws Exception {
+        Supermarket supermarket = new Supermarket("Lanes", LocalTime.of(8, 0), LocalTime.of(22, 0));
+        products.forEach(supermarket.getProducts()::add);
+        supermarket.useConcurrentCheckouts();
+        List<Customer> sharedCustomers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Customer shared = new Customer(LocalTime.of(7, 0).plusSeconds(i), i % 2 == 0 ? null : "1000AA");
+            supermarket.addCustomer(shared);
+            sharedCustomers.add(shared);
+        }
+
+        ExecutorService lanes = Executors.newFixedThreadPool(LANES + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean checkingOut = new AtomicBoolean(true);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int lane = 0; lane < LANES; lane++) {
+            int laneNumber = lane;
+            futures.add(lanes.submit(() -> {
+                start.await();
+                for (int i = 0; i < CUSTOMERS_PER_LANE; i++) {
+                    Customer customer = new Customer(LocalTime.of(8, 0).plusSeconds(laneNumber * CUSTOMERS_PER_LANE + i),
+                            "10" + (i % 10) + "0AB");
+                    supermarket.addCustomer(customer);
+                    for (int line = 0; line < LINES_PER_CUSTOMER; line++) {
+                        customer.addToCart(products.get((i + line) % products.size()), line + 1);
+                    }
+                }
+                for (int i = 0; i < SHARED_LINES_PER_LANE; i++) {
+                    sharedCustomers.get(i % sharedCustomers.size()).addToCart(products.get(i % products.size()), 1);
+                }
+                return null;
+            }));
+        }
+        Future<Integer> reader = lanes.submit(() -> {
+            start.await();
+            int snapshots = 0;
+            while (checkingOut.get()) {
+                assertConsistent(supermarket.calculateStatistics());
+                snapshots++;
+            }
+            return snapshots;
+        });
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        checkingOut.set(false);
+        assertTrue(reader.get(60, TimeUnit.SECONDS) > 0);
+        lanes.shutdown();
+
+        int expectedItems = LANES * CUSTOMERS_PER_LANE * (1 + 2 + 3 + 4 + 5) + LANES * SHARED_LINES_PER_LANE;
+        SupermarketStatistics statistics = supermarket.calculateStatistics();
+        SupermarketStatistics recalculated = SupermarketStatistics.of(supermarket.getCustomers());
+        assertConsistent(statistics);
+        assertEquals(LANES * CUSTOMERS_PER_LANE + sharedCustomers.size(), statistics.getNumberOfCustomers());
+        assertEquals(expectedItems, statistics.getTotalNumberOfItems());
+        assertEquals(expectedItems, supermarket.getTotalNumberOfItems());
+        assertEquals(recalculated.getTotalNumberOfItems(), statistics.getTotalNumberOfItems());
+        assertEquals(recalculated.getTotalRevenueInCents(), statistics.getTotalRevenueInCents());
+        assertEquals(recalculated.getHighestBillInCents(), statistics.getHighestBillInCents());
+        assertEquals(recalculated.getNumberOfProductsBought(), statistics.getNumberOfProductsBought());
+        assertEquals(recalculated.getNumberOfCustomersPerProduct(), statistics.getNumberOfCustomersPerProduct());
+        assertEquals(recalculated.getZipcodesPerProduct(), statistics.getZipcodesPerProduct());
+        assertEquals(recalculated.getNumberOfProductsByZipcode(), statistics.getNumberOfProductsByZipcode());
+        assertEquals(recalculated.getRevenueInCentsByZipcode(), statistics.getRevenueInCentsByZipcode());
+        for (Customer shared : sharedCustomers) {
+            assertEquals(LANES * SHARED_LINES_PER_LANE / sharedCustomers.size(), shared.getNumberOfItems());
+        }
+
+        // the totals and the sums per second are read without a snapshot
+        assertEquals(recalculated.getTotalRevenue(), supermarket.findTotalRevenue(), 0.001);
+        assertEquals(recalculated.getAverageRevenue(), supermarket.findAverageRevenue(), 0.001);
+        TimeIntervals intervals = new TimeIntervals(supermarket.getOpenTime(), supermarket.getClosingTime(), 15);
+        assertEquals(recalculated.countCustomersPerInterval(intervals), supermarket.countCustomersPerInterval(15));
+        assertEquals(recalculated.calculateRevenuePerInterval(intervals), supermarket.calculateRevenuePerInterval(15));
+        TimeIndex index = recalculated.getTimeIndex();
+        LocalTime from = LocalTime.of(6, 59, 59);
+        LocalTime to = LocalTime.of(8, 20);
+        assertEquals(index.countCustomersBetween(from, to), supermarket.countCustomersBetween(from, to));
+        assertEquals(index.countItemsBetween(from, to), supermarket.countItemsBetween(from, to));
+        assertEquals(index.revenueInCentsBetween(from, to) / 100.0, supermarket.findRevenueBetween(from, to), 0.001);
+        LocalTime open = supermarket.getOpenTime();
+        LocalTime close = supermarket.getClosingTime();
+        assertEquals(index.findBusiestWindow(open, close, 10), supermarket.findBusiestInterval(10));
+        assertEquals(index.findHighestRevenueWindow(open, close, 10), supermarket.findHighestRevenueInterval(10));
+    }
+
+    @Test
+    void t172_lowerBillIsFoundAgain() {
+        Supermarket supermarket = new Supermarket("Lanes", LocalTime.of(8, 0), LocalTime.of(22, 0));
+        supermarket.useConcurrentCheckouts();
+        Customer first = new Customer(LocalTime.of(9, 0), "1000AA");
+        Customer second = new Customer(LocalTime.of(9, 5), "1000AB");
+        supermarket.addCustomer(first);
+        supermarket.addCustomer(second);
+        first.addToCart(products.get(9), 10);
+        second.addToCart(products.get(0), 10);
+        assertEquals(first, supermarket.findMostPayingCustomer());
+        first.addToCart(products.get(9), -9);
+        assertEquals(second, supermarket.findMostPayingCustomer());
+        assertEquals(0.5, supermarket.findHighestBill());
+        assertEquals(2, supermarket.countCustomersPerInterval(60).get(LocalTime.of(9, 0)));
+    }
+}
@@ -0,0 +1,88 @@
+package tests;
+
+import model.Customer;
+import model.CustomerTable;
+import model.Supermarket;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import utilities.SupermarketBuilder;
+import utilities.SupermarketSnapshot;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class CustomerTableTest {
+
+    private static final String[] FILES = {"src/main/resources/jambi1Json.txt", "src/main/resources/jambi2Json.txt",
+            "src/main/resources/jambi5Json.txt", "src/main/resources/jambiBigJson.txt"};
+
+    @TempDir
+    Path tempDir;
+
+    private Supermarket load(String file) {
+        return new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create();
+    }
+
+    @Test
+    void t151_customersAreAvailableAsViews() {
+        Supermarket supermarket = load(FILES[3]);
+        CustomerTable table = CustomerTable.of(supermarket.getCustomers());
+        assertEquals(supermarket.getCustomers().size(), table.size());
+        List<Customer> views = table.asCustomers();
+        assertEquals(List.copyOf(supermarket.getCustomers()), views);
+        int index = 0;
+        for (Customer customer : supermarket.getCustomers()) {
+            assertEquals(customer.getItemsCart(), views.get(index).getItemsCart());
+            assertThat(table.calculateTotalBill(index), is(closeTo(customer.calculateTotalBill(), 0.0001)));
+            index++;
+        }
+    }
+
+    @Test
+    void t152_columnarQueriesEqualSetQueries() {
+        for (String file : FILES) {
+            Supermarket expected = load(file);
+            Supermarket columnar = load(file);
+            columnar.useColumnarStorage();
+            assertTrue(columnar.getCustomers().isEmpty());
+            assertEquals(expected.getNumberOfCustomers(), columnar.getNumberOfCustomers());
+            assertEquals(expected.getTotalNumberOfItems(), columnar.getTotalNumberOfItems());
+            assertEquals(expected.findNumberOfProductsBought(), columnar.findNumberOfProductsBought());
+            assertEquals(expected.findZipcodesPerProduct(), columnar.findZipcodesPerProduct());
+            assertEquals(expected.getNumberOfProductsByZipcode(), columnar.getNumberOfProductsByZipcode());
+            assertEquals(expected.findMostPopularProducts(), columnar.findMostPopularProducts());
+            assertEquals(expected.findMostPayingCustomer(), columnar.findMostPayingCustomer());
+            assertEquals(expected.getRevenueByZipcode().keySet(), columnar.getRevenueByZipcode().keySet());
+            assertEquals(expected.countCustomersPerInterval(5), columnar.countCustomersPerInterval(5));
+            assertThat(columnar.findTotalRevenue(), is(closeTo(expected.findTotalRevenue(), 0.0001)));
+            assertThat(columnar.findHighestBill(), is(closeTo(expected.findHighestBill(), 0.0001)));
+            assertEquals(new HashSet<>(expected.findMostBoughtProductByZipcode().keySet()),
+                    columnar.findMostBoughtProductByZipcode().keySet());
+        }
+    }
+
+    @Test
+    void t153_snapshotIsReadIntoColumns() {
+        String snapshotFile = tempDir.resolve("day.snapshot").toString();
+        SupermarketSnapshot.convert(FILES[2], snapshotFile);
+        Supermarket columnar = SupermarketSnapshot.readColumnar(snapshotFile);
+        Supermarket expected = load(FILES[2]);
+        assertNotNull(columnar.getCustomerTable());
+        assertEquals(expected.getProducts(), columnar.getProducts());
+        assertEquals(expected.getNumberOfProductsByZipcode(), columnar.getNumberOfProductsByZipcode());
+        assertThat(columnar.findTotalRevenue(), is(closeTo(expected.findTotalRevenue(), 0.0001)));
+    }
+
+    @Test
+    void t154_columnsMustHaveMatchingLengths() {
+        assertThrows(IllegalArgumentException.class, () -> new CustomerTable(new model.Product[0], new String[0],
+                new int[2], new int[1], new int[3], new int[0], new int[0]));
+    }
+}
@@ -2,13 +2,16 @@ package tests;//import com.sun.org.apache.xerces.internal.util.PropertyState;
 
 import model.Customer;
 import model.Product;
+import model.Supermarket;
 import org.junit.jupiter.api.*;
+import utilities.SupermarketBuilder;
 
 import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 @TestMethodOrder(MethodOrderer.Alphanumeric.class)
 class CustomerTest {
@@ -64,4 +67,44 @@ class CustomerTest {
         Assertions.assertEquals(4.0, this.customer2.calculateTotalBill());
         Assertions.assertEquals(23.0, this.customer9.calculateTotalBill());
     }
-}
\ No newline at end of file
+
+    @Test
+    void t251_cartTotalsFollowAddToCart() {
+        Map<Product, Integer> expected = new LinkedHashMap<>();
+        expected.put(prod1, 5);
+        expected.put(prod2, 3);
+        expected.put(prod3, 4);
+        assertEquals(expected, customer9.getItemsCart());
+        assertEquals(List.copyOf(expected.keySet()), List.copyOf(customer9.getItemsCart().keySet()));
+        assertEquals(2300, customer9.calculateTotalBillInCents());
+        for (int i = 0; i < 100; i++) {
+            customer0.addToCart(new Product("B" + i, "Other-" + i, 0.5), 2);
+        }
+        customer0.addToCart(prod1, 1);
+        assertEquals(201, customer0.getNumberOfItems());
+        assertEquals(101.0, customer0.calculateTotalBill());
+        assertEquals(2, customer0.getItemsCart().get(new Product("B42", "Other-42", 0.5)));
+        assertNull(customer0.getItemsCart().get(prod2));
+        assertThrows(UnsupportedOperationException.class, () -> customer1.getItemsCart().put(prod2, 1));
+    }
+
+    @Test
+    void t252_cartTotalsAreKnownAfterLoading() {
+        Supermarket supermarket = new SupermarketBuilder("src/main/resources/jambi5Json.txt")
+                .initializeSupermarket().addProducts().addCustomers().create();
+        for (Customer customer : supermarket.getCustomers()) {
+            int items = 0;
+            long bill = 0;
+            for (Map.Entry<Product, Integer> entry : customer.getItemsCart().entrySet()) {
+                items += entry.getValue();
+                bill += entry.getKey().getPriceInCents() * entry.getValue();
+            }
+            assertEquals(items, customer.getNumberOfItems());
+            assertEquals(bill, customer.calculateTotalBillInCents());
+            Product product = supermarket.getProducts().iterator().next();
+            customer.addToCart(product, 2);
+            assertEquals(items + 2, customer.getNumberOfItems());
+            assertEquals(bill + 2 * product.getPriceInCents(), customer.calculateTotalBillInCents());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package tests;
+
+import model.Customer;
+import model.Supermarket;
+import model.SupermarketStatistics;
+import model.TimeIntervals;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import utilities.HistoryStore;
+import utilities.SupermarketBuilder;
+import utilities.SupermarketGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class HistoryStoreTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 3, 1);
+
+    @TempDir
+    Path tempDir;
+
+    private final List<Supermarket> days = new ArrayList<>();
+    private String historyDirectory;
+
+    @BeforeEach
+    void setup() {
+        for (int day = 0; day < 4; day++) {
+            String file = tempDir.resolve("day" + day + ".txt").toString();
+            new SupermarketGenerator(30 + day).name("Jambi")
+                    .openingHours(LocalTime.of(8, 0), LocalTime.of(20 + day % 2, 0))
+                    .products(60).customers(1500).zipCodes(80).generate(file);
+            days.add(new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create());
+        }
+        historyDirectory = tempDir.resolve("history").toString();
+        HistoryStore history = HistoryStore.open(historyDirectory);
+        for (int day = 0; day < days.size(); day++) {
+            history.append(FIRST_DAY.plusDays(day), days.get(day));
+        }
+    }
+
+    @Test
+    void t301_rangesAnswerLikeAllCustomersOfTheDays() {
+        HistoryStore history = HistoryStore.open(historyDirectory);
+        assertEquals(List.of(FIRST_DAY, FIRST_DAY.plusDays(1), FIRST_DAY.plusDays(2), FIRST_DAY.plusDays(3)),
+                List.copyOf(history.getDates()));
+
+        Supermarket range = history.load(FIRST_DAY.plusDays(1), FIRST_DAY.plusDays(2));
+        List<Customer> customers = new ArrayList<>(days.get(1).getCustomers());
+        customers.addAll(days.get(2).getCustomers());
+        SupermarketStatistics expected = SupermarketStatistics.of(customers);
+        assertEquals("Jambi", range.getName());
+        assertEquals(LocalTime.of(21, 0), range.getClosingTime());
+        assertEquals(customers.size(), range.getNumberOfCustomers());
+        assertEquals(expected.getTotalRevenue(), range.findTotalRevenue(), 0.001);
+        assertEquals(expected.getHighestBill(), range.findHighestBill(), 0.001);
+        assertEquals(expected.getNumberOfProductsBought(), range.findNumberOfProductsBought());
+        assertEquals(expected.getRevenueByZipcode(), range.getRevenueByZipcode());
+        assertEquals(expected.countCustomersPerInterval(new TimeIntervals(LocalTime.of(8, 0), LocalTime.of(21, 0), 15)),
+                range.countCustomersPerInterval(15));
+
+        assertEquals(days.stream().mapToInt(Supermarket::getNumberOfCustomers).sum(),
+                history.load(LocalDate.MIN, LocalDate.MAX).getNumberOfCustomers());
+        assertThrows(IllegalArgumentException.class, () -> history.load(FIRST_DAY.minusDays(5), FIRST_DAY.minusDays(1)));
+    }
+
+    @Test
+    void t302_daysAreReadBackWithTheirCustomers() {
+        HistoryStore history = HistoryStore.open(historyDirectory);
+        for (int day = 0; day < days.size(); day++) {
+            Supermarket expected = days.get(day);
+            Supermarket read = history.readDay(FIRST_DAY.plusDays(day));
+            assertEquals(expected.getOpenTime(), read.getOpenTime());
+            assertEquals(expected.getClosingTime(), read.getClosingTime());
+            assertEquals(expected.getProducts(), read.getProducts());
+            assertEquals(expected.getNumberOfCustomers(), read.getNumberOfCustomers());
+            assertEquals(expected.findNumberOfProductsBought(), read.findNumberOfProductsBought());
+            assertEquals(expected.findNumberOfProductsByZipcode(), read.findNumberOfProductsByZipcode());
+            assertEquals(expected.calculateRevenuePerInterval(30), read.calculateRevenuePerInterval(30));
+
+            assertEquals(expected.getNumberOfCustomers(), history.countCustomersPerDay(FIRST_DAY, FIRST_DAY.plusDays(3))
+                    .get(FIRST_DAY.plusDays(day)));
+            assertEquals(expected.findTotalRevenue(), history.findRevenuePerDay(FIRST_DAY, FIRST_DAY.plusDays(3))
+                    .get(FIRST_DAY.plusDays(day)), 0.001);
+        }
+        assertEquals(2, history.countCustomersPerDay(FIRST_DAY.plusDays(2), FIRST_DAY.plusDays(9)).size());
+    }
+
+    @Test
+    void t303_segmentsAreImmutableAndChecked() throws IOException {
+        HistoryStore history = HistoryStore.open(historyDirectory);
+        assertThrows(IllegalArgumentException.class, () -> history.append(FIRST_DAY, days.get(0)));
+        assertThrows(IllegalArgumentException.class, () -> history.readDay(FIRST_DAY.minusDays(1)));
+
+        Path segment = Path.of(historyDirectory, FIRST_DAY.plusDays(3) + ".segment");
+        byte[] bytes = Files.readAllBytes(segment);
+        Files.write(segment, Arrays.copyOf(bytes, bytes.length / 2));
+        HistoryStore truncated = HistoryStore.open(historyDirectory);
+        assertThrows(UncheckedIOException.class, () -> truncated.readDay(FIRST_DAY.plusDays(3)));
+        assertEquals(days.get(0).getNumberOfCustomers(), truncated.load(FIRST_DAY, FIRST_DAY).getNumberOfCustomers());
+
+        Files.writeString(segment, "Supermarket");
+        assertThrows(UncheckedIOException.class, () -> HistoryStore.open(historyDirectory));
+    }
+}
@@ -0,0 +1,163 @@
+package tests;
+
+import model.Customer;
+import model.Product;
+import model.Supermarket;
+import model.SupermarketStatistics;
+import org.junit.jupiter.api.*;
+import utilities.SupermarketBuilder;
+
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class LiveStatisticsTest {
+
+    private Supermarket day;
+
+    @BeforeEach
+    void setup() {
+        day = new SupermarketBuilder("src/main/resources/jambiBigJson.txt").initializeSupermarket().addProducts().addCustomers().create();
+    }
+
+    private void assertMatchesRecalculation(Supermarket live) {
+        SupermarketStatistics expected = SupermarketStatistics.of(live.getCustomers());
+        assertEquals(expected.getNumberOfCustomers(), live.getNumberOfCustomers());
+        assertEquals(expected.getTotalNumberOfItems(), live.getTotalNumberOfItems());
+        assertEquals(expected.getTotalRevenue(), live.findTotalRevenue());
+        assertEquals(expected.getAverageRevenue(), live.findAverageRevenue());
+        assertEquals(expected.getHighestBill(), live.findHighestBill());
+        if (expected.getMostPayingCustomer() != null) {
+            assertEquals(expected.getHighestBill(), live.findMostPayingCustomer().calculateTotalBill());
+        }
+        assertEquals(expected.getNumberOfProductsBought(), live.findNumberOfProductsBought());
+        assertEquals(expected.getZipcodesPerProduct(), live.findZipcodesPerProduct());
+        assertEquals(expected.getNumberOfProductsByZipcode(), live.findNumberOfProductsByZipcode());
+        assertEquals(expected.getRevenueByZipcode(), live.getRevenueByZipcode());
+        assertEquals(expected.getMostPopularProducts(), live.findMostPopularProducts());
+        Map<String, Product> mostBought = live.findMostBoughtProductByZipcode();
+        assertEquals(expected.getMostBoughtProductByZipcode().keySet(), mostBought.keySet());
+        mostBought.forEach((zipCode, product) -> assertEquals(
+                expected.getNumberOfProductsByZipcode().get(zipCode).get(expected.getMostBoughtProductByZipcode().get(zipCode)),
+                live.findNumberOfProductsByZipcode().get(zipCode).get(product)));
+        for (int minutes : new int[]{1, 7, 15, 60}) {
+            Supermarket recalculated = new Supermarket(live.getName(), live.getOpenTime(), live.getClosingTime());
+            recalculated.getCustomers().addAll(live.getCustomers());
+            assertEquals(recalculated.countCustomersPerInterval(minutes), live.countCustomersPerInterval(minutes));
+            assertEquals(recalculated.calculateRevenuePerInterval(minutes), live.calculateRevenuePerInterval(minutes));
+        }
+    }
+
+    @Test
+    void t161_statisticsFollowCustomersAndCarts() {
+        Supermarket live = new Supermarket(day.getName(), day.getOpenTime(), day.getClosingTime());
+        live.trackLiveStatistics();
+        assertMatchesRecalculation(live);
+        List<Customer> customers = new ArrayList<>(day.getCustomers());
+        Collections.shuffle(customers, new Random(9));
+        int added = 0;
+        for (Customer customer : customers) {
+            Customer checkout = new Customer(customer.getQueuedAt(), customer.getZipCode());
+            assertTrue(live.addCustomer(checkout));
+            customer.getItemsCart().forEach(checkout::addToCart);
+            if (++added % 10 == 0) {
+                assertMatchesRecalculation(live);
+            }
+        }
+        assertMatchesRecalculation(live);
+        assertEquals(day.findNumberOfProductsBought(), live.findNumberOfProductsBought());
+        assertEquals(day.findTotalRevenue(), live.findTotalRevenue());
+    }
+
+    @Test
+    void t162_existingCustomersAreTracked() {
+        day.trackLiveStatistics();
+        assertMatchesRecalculation(day);
+        Product product = day.getProducts().iterator().next();
+        Customer customer = day.getCustomers().iterator().next();
+        customer.addToCart(product, 25);
+        assertMatchesRecalculation(day);
+        customer.addToCart(product, -25);
+        assertMatchesRecalculation(day);
+        assertFalse(day.addCustomer(new Customer(customer.getQueuedAt(), customer.getZipCode())));
+    }
+
+    @Test
+    void t163_intervalsIncludeTheClosingTime() {
+        Supermarket live = new Supermarket("Live", LocalTime.of(8, 0), LocalTime.of(9, 0));
+        live.trackLiveStatistics();
+        Product product = new Product("A001", "Any", 1.25);
+        for (LocalTime time : List.of(LocalTime.of(7, 59), LocalTime.of(8, 0), LocalTime.of(8, 15), LocalTime.of(9, 0))) {
+            Customer customer = new Customer(time, "1000AA");
+            live.addCustomer(customer);
+            customer.addToCart(product, 2);
+        }
+        assertEquals(List.of(1, 1, 0, 1), List.copyOf(live.countCustomersPerInterval(15).values()));
+        assertEquals(List.of(2.5, 2.5, 0.0, 2.5), List.copyOf(live.calculateRevenuePerInterval(15).values()));
+        assertMatchesRecalculation(live);
+    }
+
+    @Test
+    void t164_liveStatisticsCannotBeModified() {
+        day.trackLiveStatistics();
+        assertThrows(UnsupportedOperationException.class, () -> day.findNumberOfProductsBought().clear());
+        assertThrows(UnsupportedOperationException.class, () -> day.findZipcodesPerProduct().values().iterator().next().clear());
+        assertThrows(IllegalStateException.class, day::useColumnarStorage);
+    }
+
+    @Test
+    void t165_removedCustomersLeaveTheStatistics() {
+        day.trackLiveStatistics();
+        List<Customer> customers = new ArrayList<>(day.getCustomers());
+        Collections.shuffle(customers, new Random(11));
+        int removed = 0;
+        for (Customer customer : customers.subList(0, customers.size() / 2)) {
+            // an equal customer removes the customer of the set
+            assertTrue(day.getCustomers().remove(new Customer(customer.getQueuedAt(), customer.getZipCode())));
+            if (++removed % 10 == 0) {
+                assertMatchesRecalculation(day);
+            }
+        }
+        assertMatchesRecalculation(day);
+        SupermarketStatistics snapshot = day.calculateStatistics();
+        SupermarketStatistics expected = SupermarketStatistics.of(day.getCustomers());
+        assertEquals(expected.getTotalRevenueInCents(), snapshot.getTotalRevenueInCents());
+        assertEquals(expected.getNumberOfCustomersPerProduct(), snapshot.getNumberOfCustomersPerProduct());
+        assertEquals(expected.getRevenueInCentsByZipcode(), snapshot.getRevenueInCentsByZipcode());
+        Customer removedCustomer = customers.get(0);
+        removedCustomer.addToCart(day.getProducts().iterator().next(), 3);
+        assertMatchesRecalculation(day);
+
+        day.getCustomers().add(removedCustomer);
+        assertMatchesRecalculation(day);
+        day.getCustomers().removeIf(customer -> customer.getZipCode() != null && customer.getZipCode().endsWith("A"));
+        assertMatchesRecalculation(day);
+        day.getCustomers().clear();
+        assertMatchesRecalculation(day);
+        assertEquals(0, day.calculateStatistics().getNumberOfCustomers());
+    }
+
+    @Test
+    void t166_customersAddedAfterARemovalKeepTheirBill() {
+        Supermarket live = new Supermarket("Live", LocalTime.of(8, 0), LocalTime.of(9, 0));
+        live.initializeCollections();
+        live.trackLiveStatistics();
+        Product product = day.getProducts().iterator().next();
+        Customer first = new Customer(LocalTime.of(8, 1), "1000AA");
+        Customer second = new Customer(LocalTime.of(8, 2), "1000AB");
+        Customer third = new Customer(LocalTime.of(8, 3), "1000AC");
+        live.addCustomer(first);
+        live.addCustomer(second);
+        live.getCustomers().remove(first);
+        // the third customer must not get the place of the second in the order of equal bills
+        live.addCustomer(third);
+        third.addToCart(product, 1);
+        second.addToCart(product, 1);
+
+        assertEquals(2, live.getCustomers().size());
+        assertEquals(List.of(second, third), live.findTopCustomersByBill(5));
+        assertMatchesRecalculation(live);
+    }
+}
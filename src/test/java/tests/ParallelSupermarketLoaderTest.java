@@ -0,0 +1,42 @@
+package tests;
+
+import model.Supermarket;
+import org.junit.jupiter.api.*;
+import utilities.ParallelSupermarketLoader;
+import utilities.SupermarketBuilder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class ParallelSupermarketLoaderTest {
+
+    private static final String[] FILES = {"src/main/resources/jambi1Json.txt", "src/main/resources/jambi2Json.txt",
+            "src/main/resources/jambi5Json.txt", "src/main/resources/jambiBigJson.txt"};
+
+    @Test
+    void t121_parallelLoadEqualsSequentialLoad() {
+        for (String file : FILES) {
+            Supermarket built = new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create();
+            for (int parallelism : new int[]{1, 3, 16}) {
+                Supermarket loaded = new ParallelSupermarketLoader(file).parallelism(parallelism).load();
+                assertEquals(built.getName(), loaded.getName());
+                assertEquals(built.getOpenTime(), loaded.getOpenTime());
+                assertEquals(built.getClosingTime(), loaded.getClosingTime());
+                assertEquals(built.getProducts(), loaded.getProducts());
+                assertEquals(List.copyOf(built.getCustomers()), List.copyOf(loaded.getCustomers()),
+                        "Customers should be merged in the order of the file");
+                assertEquals(built.getTotalNumberOfItems(), loaded.getTotalNumberOfItems());
+                assertEquals(built.calculateRevenuePerInterval(15), loaded.calculateRevenuePerInterval(15));
+            }
+        }
+    }
+
+    @Test
+    void t122_parallelismMustBePositive() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParallelSupermarketLoader(FILES[0]).parallelism(0));
+    }
+}
@@ -0,0 +1,120 @@
+package tests;
+
+import com.google.gson.JsonParseException;
+import model.Customer;
+import model.Product;
+import model.Supermarket;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import utilities.ParallelSupermarketLoader;
+import utilities.ProductCatalog;
+import utilities.SupermarketBuilder;
+import utilities.SupermarketStreamLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class ProductCatalogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String mismatchFile;
+
+    @BeforeEach
+    void setup() throws IOException {
+        mismatchFile = tempDir.resolve("mismatch.txt").toString();
+        Files.write(Path.of(mismatchFile), List.of(
+                "Supermarket",
+                "{\"name\":\"Jambi\",\"openTime\":\"12:00:00\",\"closingTime\":\"12:05:00\"}",
+                "Products",
+                "{\"code\":\"BRO001\",\"description\":\"Croissant\",\"price\":0.5}",
+                "Customers",
+                "{\"queuedAt\":\"12:01:00\",\"zipCode\":\"1015MF\",\"itemsCart\":[[{\"code\":\"BRO001\",\"description\":\"Croissant\",\"price\":0.75},2]]}",
+                "{\"queuedAt\":\"12:02:00\",\"zipCode\":\"1015MF\",\"itemsCart\":[[{\"code\":\"NEW001\",\"description\":\"Unknown\",\"price\":1.0},1]]}"));
+    }
+
+    @Test
+    void t131_cartProductsAreTheCatalogInstances() {
+        Supermarket supermarket = new SupermarketBuilder("src/main/resources/jambiBigJson.txt").initializeSupermarket().addProducts().addCustomers().create();
+        assertCartsUseCatalogInstances(supermarket);
+        assertCartsUseCatalogInstances(new SupermarketStreamLoader("src/main/resources/jambiBigJson.txt").retainCustomers(true).load());
+        assertCartsUseCatalogInstances(new ParallelSupermarketLoader("src/main/resources/jambiBigJson.txt").load());
+    }
+
+    private void assertCartsUseCatalogInstances(Supermarket supermarket) {
+        ProductCatalog catalog = new ProductCatalog(supermarket.getProducts());
+        for (Customer customer : supermarket.getCustomers()) {
+            for (Product product : customer.getItemsCart().keySet()) {
+                assertSame(catalog.findByCode(product.getCode()), product);
+            }
+        }
+    }
+
+    @Test
+    void t132_cartPricesAreKeptByDefault() {
+        Supermarket supermarket = new SupermarketBuilder(mismatchFile).initializeSupermarket().addProducts().addCustomers().create();
+        assertEquals(2.5, supermarket.findTotalRevenue(), 0.0001);
+        assertEquals(1, supermarket.getProducts().size());
+    }
+
+    @Test
+    void t133_catalogPricesCanBeUsed() {
+        Supermarket supermarket = new SupermarketBuilder(mismatchFile)
+                .catalogPolicies(ProductCatalog.UnknownProductPolicy.INTERN, ProductCatalog.PriceMismatchPolicy.USE_CATALOG)
+                .initializeSupermarket().addProducts().addCustomers().create();
+        assertEquals(2.0, supermarket.findTotalRevenue(), 0.0001);
+    }
+
+    @Test
+    void t134_mismatchesCanBeRejected() {
+        assertThrows(JsonParseException.class, () -> new SupermarketBuilder(mismatchFile)
+                .catalogPolicies(ProductCatalog.UnknownProductPolicy.INTERN, ProductCatalog.PriceMismatchPolicy.REJECT)
+                .initializeSupermarket().addProducts().addCustomers());
+        assertThrows(JsonParseException.class, () -> new SupermarketStreamLoader(mismatchFile)
+                .catalogPolicies(ProductCatalog.UnknownProductPolicy.REJECT, ProductCatalog.PriceMismatchPolicy.USE_CATALOG)
+                .load());
+    }
+
+    @Test
+    void t135_unknownProductsAreInterned() {
+        ProductCatalog catalog = new ProductCatalog(List.of(new Product("A001", "Any-1", 1.0)));
+        Product unknown = catalog.resolve("B001", "Any-2", 2.0);
+        assertSame(unknown, catalog.resolve("B001", "Any-2", 2.0));
+        assertNull(catalog.findByCode("B001"));
+        assertSame(catalog.findByCode("A001"), catalog.resolve("A001", "Any-1", 1.0));
+    }
+
+    @Test
+    void t136_pricesAreParsedToCentsAsWritten() throws IOException {
+        String file = tempDir.resolve("cents.txt").toString();
+        Files.write(Path.of(file), List.of(
+                "Supermarket",
+                "{\"name\":\"Jambi\",\"openTime\":\"12:00:00\",\"closingTime\":\"12:05:00\"}",
+                "Products",
+                "{\"code\":\"CHE001\",\"description\":\"Cheese\",\"price\":1.005}",
+                "Customers",
+                "{\"queuedAt\":\"12:01:00\",\"zipCode\":\"1015MF\",\"itemsCart\":[[{\"code\":\"CHE001\",\"description\":\"Cheese\",\"price\":1.005},3]]}",
+                "{\"queuedAt\":\"12:02:00\",\"zipCode\":\"1015MF\",\"itemsCart\":[[{\"code\":\"NEW001\",\"description\":\"Unknown\",\"price\":0.285},1]]}"));
+        List<Supermarket> supermarkets = List.of(
+                new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create(),
+                new SupermarketStreamLoader(file).retainCustomers(true).load(),
+                new ParallelSupermarketLoader(file).load());
+        for (Supermarket supermarket : supermarkets) {
+            // 1.005 and 0.285 as doubles are just below half a cent
+            Product cheese = supermarket.getProducts().iterator().next();
+            assertEquals(101, cheese.getPriceInCents());
+            assertEquals(1.01, cheese.getPrice(), 0.0);
+            assertEquals(3 * 101 + 29, Math.round(supermarket.findTotalRevenue() * 100));
+            for (Customer customer : supermarket.getCustomers()) {
+                customer.getItemsCart().keySet().stream().filter(product -> product.getCode().equals("CHE001"))
+                        .forEach(product -> assertSame(cheese, product));
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package tests;
+
+import model.Dimension;
+import model.Measure;
+import model.Product;
+import model.Query;
+import model.QueryResult;
+import model.Supermarket;
+import model.SupermarketStatistics;
+import model.ZipCodeIndex;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import utilities.SupermarketBuilder;
+import utilities.SupermarketGenerator;
+
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class QueryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Supermarket supermarket;
+
+    @BeforeEach
+    void setup() {
+        String file = tempDir.resolve("day.txt").toString();
+        new SupermarketGenerator(17).products(40).customers(6000).zipCodes(400).generate(file);
+        supermarket = new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create();
+    }
+
+    private static <K> Map<K, Long> toLongs(Map<K, ? extends Number> numbers) {
+        Map<K, Long> longs = new HashMap<>();
+        numbers.forEach((key, number) -> longs.put(key, number.longValue()));
+        return longs;
+    }
+
+    private static <K> Map<K, Long> toCents(Map<K, Double> euros) {
+        Map<K, Long> cents = new HashMap<>();
+        euros.forEach((key, amount) -> cents.put(key, Math.round(amount * 100)));
+        return cents;
+    }
+
+    private void assertAnswersLikeTheStatistics() {
+        Query byZipCode = Query.groupBy(Dimension.ZIP_CODE).measure(Measure.REVENUE, Measure.HIGHEST_BILL);
+        Query byProduct = Query.groupBy(Dimension.PRODUCT).measure(Measure.QUANTITY, Measure.CUSTOMERS);
+        Query byZipCodeAndProduct = Query.groupBy(Dimension.ZIP_CODE, Dimension.PRODUCT).measure(Measure.QUANTITY);
+        Query byQuarter = Query.groupBy(Dimension.interval(15)).measure(Measure.CUSTOMERS);
+        Query byHour = Query.groupBy(Dimension.interval(60)).measure(Measure.REVENUE);
+        Query byArea = Query.groupBy(Dimension.zipCodePrefix(ZipCodeIndex.AREA)).measure(Measure.REVENUE);
+        List<QueryResult> results = supermarket.query(List.of(byZipCode, byProduct, byZipCodeAndProduct, byQuarter, byHour, byArea));
+
+        SupermarketStatistics statistics = supermarket.calculateStatistics();
+        assertEquals(statistics.getRevenueInCentsByZipcode(), results.get(0).toMap(Dimension.ZIP_CODE, Measure.REVENUE));
+        long highestBill = results.get(0).toMap(Dimension.ZIP_CODE, Measure.HIGHEST_BILL).values().stream().mapToLong(Long::longValue).max().orElse(0);
+        assertEquals(statistics.getHighestBillInCents(), highestBill);
+        assertEquals(toLongs(supermarket.findNumberOfProductsBought()), results.get(1).toMap(Dimension.PRODUCT, Measure.QUANTITY));
+        assertEquals(toLongs(statistics.getNumberOfCustomersPerProduct()), results.get(1).toMap(Dimension.PRODUCT, Measure.CUSTOMERS));
+        Map<String, Map<Product, Long>> productsByZipcode = results.get(2).toMap(Dimension.ZIP_CODE, Dimension.PRODUCT, Measure.QUANTITY);
+        supermarket.findNumberOfProductsByZipcode().forEach((zipCode, products) ->
+                assertEquals(toLongs(products), productsByZipcode.getOrDefault(zipCode, Map.of()), zipCode));
+        assertEquals(toLongs(supermarket.countCustomersPerInterval(15)), results.get(3).toMap(Dimension.interval(15), Measure.CUSTOMERS));
+        assertEquals(toCents(supermarket.calculateRevenuePerInterval(60)), results.get(4).toMap(Dimension.interval(60), Measure.REVENUE));
+        assertEquals(toCents(supermarket.getRevenueByZipcodePrefix(ZipCodeIndex.AREA)), results.get(5).toMap(Dimension.zipCodePrefix(4), Measure.REVENUE));
+    }
+
+    @Test
+    void t281_queriesAnswerLikeTheStatistics() {
+        assertAnswersLikeTheStatistics();
+        supermarket.useColumnarStorage();
+        assertAnswersLikeTheStatistics();
+    }
+
+    @Test
+    void t282_groupsOfThreeDimensionsAddUp() {
+        Query query = Query.groupBy(Dimension.zipCodePrefix(ZipCodeIndex.REGION), Dimension.interval(60), Dimension.PRODUCT)
+                .measure(Measure.QUANTITY, Measure.REVENUE, Measure.CUSTOMERS);
+        QueryResult result = supermarket.query(query);
+        long quantity = 0;
+        long revenue = 0;
+        for (int group = 0; group < result.size(); group++) {
+            quantity += result.get(group, Measure.QUANTITY);
+            revenue += result.get(group, Measure.REVENUE);
+            assertTrue(result.get(group, Measure.CUSTOMERS) <= result.get(group, Measure.QUANTITY));
+            List<Object> key = result.getKey(group);
+            assertEquals(3, key.size());
+            assertTrue(key.get(1) instanceof LocalTime && key.get(2) instanceof Product);
+        }
+        QueryResult perHour = supermarket.query(Query.groupBy(Dimension.interval(60)).measure(Measure.QUANTITY, Measure.REVENUE));
+        assertEquals(perHour.toMap(Dimension.interval(60), Measure.QUANTITY).values().stream().mapToLong(Long::longValue).sum(), quantity);
+        assertEquals(toCents(supermarket.calculateRevenuePerInterval(60)).values().stream().mapToLong(Long::longValue).sum(), revenue);
+        assertTrue(quantity > 0);
+    }
+
+    @Test
+    void t283_invalidQueriesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Query.groupBy());
+        assertThrows(IllegalArgumentException.class, () -> Query.groupBy(Dimension.ZIP_CODE, Dimension.PRODUCT,
+                Dimension.interval(15), Dimension.zipCodePrefix(2)));
+        assertThrows(IllegalArgumentException.class, () -> Query.groupBy(Dimension.interval(15), Dimension.interval(15)));
+        assertThrows(IllegalArgumentException.class, () -> Dimension.zipCodePrefix(0));
+        QueryResult result = supermarket.query(Query.groupBy(Dimension.PRODUCT).measure(Measure.QUANTITY));
+        assertThrows(IllegalArgumentException.class, () -> result.toMap(Dimension.ZIP_CODE, Measure.QUANTITY));
+        assertThrows(IllegalArgumentException.class, () -> result.toMap(Dimension.PRODUCT, Measure.REVENUE));
+    }
+}
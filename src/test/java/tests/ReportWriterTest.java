@@ -0,0 +1,126 @@
+package tests;
+
+import model.Customer;
+import model.Product;
+import model.ReportWriter;
+import model.Supermarket;
+import org.junit.jupiter.api.*;
+import utilities.SupermarketBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class ReportWriterTest {
+
+    @Test
+    void t191_numbersAreFormattedLikePrintf() {
+        StringBuilder expected = new StringBuilder();
+        StringBuilder text = new StringBuilder();
+        ReportWriter report = new ReportWriter(text);
+        Random random = new Random(5);
+        double[] amounts = {0.0, -0.0, 0.005, 0.015, 1.005, 2.675, 0.125, -3.5, 1e7, 123456789.125, 1e20, Double.NaN,
+                Double.POSITIVE_INFINITY, 8.0 / 3, 40.95 / 7};
+        for (double amount : amounts) {
+            expected.append(String.format("%.2f|", amount));
+            report.appendEuros(amount).append('|');
+        }
+        for (int i = 0; i < 10000; i++) {
+            long cents = random.nextInt(2000000) - 1000000;
+            double amount = random.nextDouble() * 1000;
+            long number = random.nextLong();
+            expected.append(String.format("%.2f %.2f %.2f %d|", cents / 100.0, cents / 100.0, amount, number));
+            report.appendEuros(cents).append(' ').appendEuros(cents / 100.0).append(' ')
+                    .appendEuros(amount).append(' ').append(number).append('|');
+        }
+        expected.append(String.format("%d %d %-30s|%-3s|%s%n", Long.MIN_VALUE, 0, "Croissant", "Calve Pindakaas", null));
+        report.append(Long.MIN_VALUE).append(' ').append(0).append(' ').appendPadded("Croissant", 30).append('|')
+                .appendPadded("Calve Pindakaas", 3).append('|').append((String) null).newLine();
+        report.flush();
+        assertEquals(expected.toString(), text.toString());
+    }
+
+    @Test
+    void t192_largeTextPassesTheBuffer() {
+        StringWriter out = new StringWriter();
+        ReportWriter report = new ReportWriter(out);
+        String line = "x".repeat(100000);
+        report.append('a').append(line).append(line.substring(1000));
+        for (int i = 0; i < 20000; i++) {
+            report.append(i).append(',');
+        }
+        report.flush();
+        StringBuilder expected = new StringBuilder("a").append(line).append(line.substring(1000));
+        for (int i = 0; i < 20000; i++) {
+            expected.append(i).append(',');
+        }
+        assertEquals(expected.toString(), out.toString());
+    }
+
+    @Test
+    void t193_reportIsWrittenToAnyOutput() {
+        Supermarket supermarket = new Supermarket("Jambi", LocalTime.of(12, 0), LocalTime.of(13, 0));
+        Product product = new Product("A001", "Any", 1.26);
+        supermarket.getProducts().add(product);
+        for (int i = 0; i < 17; i++) {
+            Customer customer = new Customer(LocalTime.of(12, i), String.format("10%02dAA", i));
+            customer.addToCart(product, i + 1);
+            supermarket.getCustomers().add(customer);
+        }
+        StringBuilder text = new StringBuilder();
+        supermarket.printStatistics(text);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream systemOut = System.out;
+        System.setOut(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        try {
+            supermarket.printStatistics();
+        } finally {
+            System.setOut(systemOut);
+        }
+        assertEquals(text.toString(), bytes.toString(StandardCharsets.UTF_8));
+        assertTrue(text.toString().contains("Total revenue = 192.78\n"));
+        // 16 of the 17 zip codes fill two lines, the last line has no comma after its only zip code
+        assertTrue(text.toString().matches("(?s).*Any *\n \t(\\d{4}AA, ){7}\\d{4}AA, \n\t(\\d{4}AA, ){7}\\d{4}AA, \n\t\\d{4}AA\n.*"));
+    }
+
+    /**
+     * the report of a bundled data file is compared with the report in src/test/resources/reports
+     */
+    private static void assertReportMatchesGoldenFile(String dataFile) throws IOException {
+        Supermarket supermarket = new SupermarketBuilder("src/main/resources/" + dataFile)
+                .initializeSupermarket().addProducts().addCustomers().create();
+        StringBuilder text = new StringBuilder();
+        supermarket.printStatistics(text);
+        String expected = Files.readString(Path.of("src/test/resources/reports/" + dataFile), StandardCharsets.UTF_8);
+        assertEquals(expected, text.toString().replace(System.lineSeparator(), "\n"));
+    }
+
+    @Test
+    void t194_reportOfJambi1MatchesGoldenFile() throws IOException {
+        assertReportMatchesGoldenFile("jambi1Json.txt");
+    }
+
+    @Test
+    void t195_reportOfJambi2MatchesGoldenFile() throws IOException {
+        assertReportMatchesGoldenFile("jambi2Json.txt");
+    }
+
+    @Test
+    void t196_reportOfJambi5MatchesGoldenFile() throws IOException {
+        assertReportMatchesGoldenFile("jambi5Json.txt");
+    }
+
+    @Test
+    void t197_reportOfJambiBigMatchesGoldenFile() throws IOException {
+        assertReportMatchesGoldenFile("jambiBigJson.txt");
+    }
+}
@@ -0,0 +1,119 @@
+package tests;
+
+import model.Customer;
+import model.Product;
+import model.ResultCache;
+import model.Supermarket;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import utilities.SupermarketBuilder;
+import utilities.SupermarketGenerator;
+
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class ResultCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Supermarket supermarket;
+
+    @BeforeEach
+    void setup() {
+        String file = tempDir.resolve("day.txt").toString();
+        new SupermarketGenerator(19).products(30).customers(4000).zipCodes(200).generate(file);
+        supermarket = new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create();
+    }
+
+    private static String report(Supermarket supermarket) {
+        StringBuilder report = new StringBuilder();
+        supermarket.printStatistics(report);
+        return report.toString();
+    }
+
+    @Test
+    void t291_repeatedQueriesAreHits() {
+        ResultCache cache = supermarket.getResultCache();
+        Map<LocalTime, Integer> customers = supermarket.countCustomersPerInterval(15);
+        Map<LocalTime, Double> revenues = supermarket.calculateRevenuePerInterval(15);
+        assertEquals(2, cache.getMisses());
+        assertSame(customers, supermarket.countCustomersPerInterval(15));
+        assertSame(revenues, supermarket.calculateRevenuePerInterval(15));
+        assertEquals(2, cache.getHits());
+
+        // the report finds its intervals in the cache as well
+        String report = report(supermarket);
+        assertEquals(3, cache.getMisses());
+        assertEquals(4, cache.getHits());
+        assertEquals(report, report(supermarket));
+        assertEquals(5, cache.getHits());
+        assertEquals(3, cache.size());
+        assertEquals(5.0 / 8, cache.getHitRatio(), 1e-9);
+
+        assertNotEquals(customers, supermarket.countCustomersPerInterval(30));
+        assertEquals(4, cache.getMisses());
+        assertThrows(UnsupportedOperationException.class, () -> customers.put(LocalTime.NOON, 0));
+    }
+
+    @Test
+    void t292_changesInvalidateTheResults() {
+        Map<LocalTime, Integer> customers = supermarket.countCustomersPerInterval(15);
+        String report = report(supermarket);
+        Product product = supermarket.getProducts().iterator().next();
+
+        Customer customer = new Customer(LocalTime.of(12, 1), "9999ZZ");
+        supermarket.addCustomer(customer);
+        Map<LocalTime, Integer> withCustomer = supermarket.countCustomersPerInterval(15);
+        assertNotSame(customers, withCustomer);
+        assertEquals(customers.get(LocalTime.of(12, 0)) + 1, withCustomer.get(LocalTime.of(12, 0)));
+        assertEquals(1, supermarket.getResultCache().getInvalidations());
+
+        double revenue = supermarket.calculateRevenuePerInterval(15).get(LocalTime.of(12, 0));
+        customer.addToCart(product, 2);
+        assertEquals(revenue + 2 * product.getPrice(), supermarket.calculateRevenuePerInterval(15).get(LocalTime.of(12, 0)), 0.001);
+        assertNotEquals(report, report(supermarket));
+
+        supermarket.getCustomers().remove(customer);
+        assertEquals(customers, supermarket.countCustomersPerInterval(15));
+        assertEquals(report, report(supermarket));
+
+        supermarket.setClosingTime(supermarket.getClosingTime().minusHours(1));
+        assertEquals(customers.size() - 4, supermarket.countCustomersPerInterval(15).size());
+    }
+
+    @Test
+    void t293_leastRecentlyUsedResultsAreEvicted() {
+        ResultCache cache = supermarket.getResultCache();
+        Map<LocalTime, Integer> perHour = supermarket.countCustomersPerInterval(60);
+        Map<LocalTime, Integer> perTwoHours = supermarket.countCustomersPerInterval(120);
+        Map<LocalTime, Integer> perThreeHours = supermarket.countCustomersPerInterval(180);
+        // room for the hours and one of the others, the hours are used least recently
+        supermarket.setResultCacheCapacity(perHour.size() + 1 + Math.max(perTwoHours.size(), perThreeHours.size()) + 1);
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size());
+        assertTrue(cache.getWeight() <= cache.getCapacity());
+
+        assertNotSame(perHour, supermarket.countCustomersPerInterval(60));
+        assertEquals(2, cache.getEvictions());
+        assertSame(perThreeHours, supermarket.countCustomersPerInterval(180));
+        supermarket.countCustomersPerInterval(60);
+        assertNotSame(perTwoHours, supermarket.countCustomersPerInterval(120));
+        long misses = cache.getMisses();
+        supermarket.countCustomersPerInterval(60);
+        supermarket.countCustomersPerInterval(180);
+        assertEquals(misses + 1, cache.getMisses());
+
+        supermarket.setResultCacheCapacity(0);
+        assertEquals(0, cache.size());
+        Map<String, Double> revenues = new LinkedHashMap<>(supermarket.getRevenueByZipcodePrefix(2));
+        assertEquals(revenues, supermarket.getRevenueByZipcodePrefix(2));
+        assertEquals(0, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> supermarket.setResultCacheCapacity(-1));
+    }
+}
@@ -0,0 +1,135 @@
+package tests;
+
+import model.Customer;
+import model.Product;
+import model.Supermarket;
+import model.SupermarketStatistics;
+import model.TimeIntervals;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import utilities.StorePartial;
+import utilities.SupermarketBuilder;
+import utilities.SupermarketChainLoader;
+import utilities.SupermarketGenerator;
+
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class SupermarketChainTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<String> storeFiles = new ArrayList<>();
+    // stores can have equal customers, a set of customers would keep only one of them
+    private final List<Customer> allCustomers = new ArrayList<>();
+    private final Set<Product> allProducts = new HashSet<>();
+
+    @BeforeEach
+    void setup() {
+        for (int store = 0; store < 5; store++) {
+            String file = tempDir.resolve("store" + store + ".txt").toString();
+            new SupermarketGenerator(store).name("Store " + store)
+                    .openingHours(LocalTime.of(7 + store, 0), LocalTime.of(18 + store, 0))
+                    .products(80 + 10 * store).customers(2000).zipCodes(50).generate(file);
+            storeFiles.add(file);
+            Supermarket supermarket = new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create();
+            allProducts.addAll(supermarket.getProducts());
+            allCustomers.addAll(supermarket.getCustomers());
+        }
+    }
+
+    @Test
+    void t221_chainAnswersLikeOneStoreWithAllCustomers() {
+        Supermarket chain = new SupermarketChainLoader("Chain", storeFiles).parallelism(3).load();
+        assertEquals("Chain", chain.getName());
+        assertEquals(LocalTime.of(7, 0), chain.getOpenTime());
+        assertEquals(LocalTime.of(22, 0), chain.getClosingTime());
+        assertEquals(allProducts, chain.getProducts());
+        SupermarketStatistics expected = SupermarketStatistics.of(allCustomers);
+        assertEquals(10000, chain.getNumberOfCustomers());
+        assertEquals(expected.getTotalNumberOfItems(), chain.getTotalNumberOfItems());
+        assertEquals(expected.getTotalRevenue(), chain.findTotalRevenue(), 0.001);
+        assertEquals(expected.getHighestBill(), chain.findHighestBill(), 0.001);
+        assertEquals(expected.getNumberOfProductsBought(), chain.findNumberOfProductsBought());
+        assertEquals(expected.getZipcodesPerProduct(), chain.findZipcodesPerProduct());
+        assertEquals(expected.getNumberOfProductsByZipcode(), chain.findNumberOfProductsByZipcode());
+        assertEquals(expected.getRevenueByZipcode(), chain.getRevenueByZipcode());
+        assertEquals(expected.getMostPopularProducts(), chain.findMostPopularProducts());
+        assertEquals(expected.countCustomersPerInterval(new TimeIntervals(LocalTime.of(7, 0), LocalTime.of(22, 0), 15)),
+                chain.countCustomersPerInterval(15));
+        assertEquals(expected.calculateRevenuePerInterval(new TimeIntervals(LocalTime.of(7, 0), LocalTime.of(22, 0), 60)),
+                chain.calculateRevenuePerInterval(60));
+    }
+
+    @Test
+    void t222_mergingIsAssociative() {
+        List<StorePartial> partials = new SupermarketChainLoader("Chain", storeFiles).loadPartials();
+        StorePartial left = partials.get(0).merge(partials.get(1)).merge(partials.get(2));
+        StorePartial right = partials.get(0).merge(partials.get(1).merge(partials.get(2)));
+        SupermarketStatistics leftStatistics = left.getStatistics();
+        SupermarketStatistics rightStatistics = right.getStatistics();
+        assertEquals(leftStatistics.getNumberOfCustomers(), rightStatistics.getNumberOfCustomers());
+        assertEquals(leftStatistics.getTotalRevenueInCents(), rightStatistics.getTotalRevenueInCents());
+        assertSame(leftStatistics.getMostPayingCustomer(), rightStatistics.getMostPayingCustomer());
+        assertEquals(leftStatistics.getNumberOfCustomersPerProduct(), rightStatistics.getNumberOfCustomersPerProduct());
+        assertEquals(leftStatistics.getZipcodesPerProduct(), rightStatistics.getZipcodesPerProduct());
+        assertEquals(leftStatistics.getNumberOfProductsByZipcode(), rightStatistics.getNumberOfProductsByZipcode());
+        assertEquals(leftStatistics.getRevenueInCentsByZipcode(), rightStatistics.getRevenueInCentsByZipcode());
+        assertEquals(left.getProducts(), right.getProducts());
+    }
+
+    @Test
+    void t223_shardPartialsAreMergedFromFiles() {
+        List<StorePartial> partials = new SupermarketChainLoader("Chain", storeFiles).loadPartials();
+        String firstShard = tempDir.resolve("shard1.partial").toString();
+        String secondShard = tempDir.resolve("shard2.partial").toString();
+        partials.get(0).merge(partials.get(1)).write(firstShard);
+        SupermarketChainLoader.mergePartials(partials.subList(2, 5)).write(secondShard);
+
+        Supermarket chain = SupermarketChainLoader.merge("Chain", List.of(StorePartial.read(firstShard), StorePartial.read(secondShard)));
+        Supermarket loaded = SupermarketChainLoader.merge("Chain", partials);
+        StringBuilder chainReport = new StringBuilder();
+        StringBuilder loadedReport = new StringBuilder();
+        chain.printStatistics(chainReport);
+        loaded.printStatistics(loadedReport);
+        assertEquals(loadedReport.toString(), chainReport.toString());
+
+        Customer mostPaying = chain.findMostPayingCustomer();
+        assertEquals(loaded.findMostPayingCustomer().getQueuedAt(), mostPaying.getQueuedAt());
+        assertEquals(loaded.findMostPayingCustomer().getZipCode(), mostPaying.getZipCode());
+        assertEquals(loaded.findHighestBill(), mostPaying.calculateTotalBill(), 0.001);
+        assertThrows(IllegalArgumentException.class, () -> SupermarketChainLoader.merge("Chain", List.of()));
+        assertThrows(IllegalArgumentException.class, () -> SupermarketChainLoader.mergePartials(List.of()));
+    }
+
+    @Test
+    void t224_chainFindsTheTopCustomersOfAllStores() {
+        List<Customer> expected = new ArrayList<>(allCustomers);
+        // a stable sort keeps the customer found first in front of an equal bill
+        expected.sort(Comparator.comparingLong(Customer::calculateTotalBillInCents).reversed());
+        List<StorePartial> partials = new SupermarketChainLoader("Chain", storeFiles).loadPartials();
+        String shard = tempDir.resolve("shard.partial").toString();
+        SupermarketChainLoader.mergePartials(partials.subList(1, 5)).write(shard);
+        Supermarket loaded = new SupermarketChainLoader("Chain", storeFiles).parallelism(3).load();
+        Supermarket merged = SupermarketChainLoader.merge("Chain", List.of(partials.get(0), StorePartial.read(shard)));
+        for (Supermarket chain : List.of(loaded, merged)) {
+            List<Customer> top = chain.findTopCustomersByBill(25);
+            assertEquals(25, top.size());
+            for (int i = 0; i < top.size(); i++) {
+                assertEquals(expected.get(i).calculateTotalBillInCents(), top.get(i).calculateTotalBillInCents());
+                assertEquals(expected.get(i).getQueuedAt(), top.get(i).getQueuedAt());
+                assertEquals(expected.get(i).getZipCode(), top.get(i).getZipCode());
+            }
+            assertEquals(SupermarketStatistics.HIGHEST_BILLS, chain.findTopCustomersByBill(SupermarketStatistics.HIGHEST_BILLS + 1).size());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package tests;
+
+import model.Customer;
+import model.Supermarket;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import utilities.SupermarketBuilder;
+import utilities.SupermarketGenerator;
+import utilities.SupermarketGenerator.Distribution;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class SupermarketGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String generate(SupermarketGenerator generator) throws IOException {
+        StringWriter out = new StringWriter();
+        generator.generate(out);
+        return out.toString();
+    }
+
+    @Test
+    void t181_generatedDayIsLoadedByTheBuilder() {
+        String file = tempDir.resolve("day.txt").toString();
+        new SupermarketGenerator(7).name("Generated").openingHours(LocalTime.of(9, 0), LocalTime.of(18, 30))
+                .products(300).customers(5000).zipCodes(40).cartSizes(Distribution.uniform(2, 6)).generate(file);
+        Supermarket supermarket = new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create();
+        assertEquals("Generated", supermarket.getName());
+        assertEquals(LocalTime.of(9, 0), supermarket.getOpenTime());
+        assertEquals(LocalTime.of(18, 30), supermarket.getClosingTime());
+        assertEquals(300, supermarket.getProducts().size());
+        assertEquals(5000, supermarket.getCustomers().size());
+        Set<String> zipCodes = new HashSet<>();
+        for (Customer customer : supermarket.getCustomers()) {
+            zipCodes.add(customer.getZipCode());
+            assertTrue(customer.getItemsCart().size() >= 2 && customer.getItemsCart().size() <= 6);
+            assertFalse(customer.getQueuedAt().isBefore(supermarket.getOpenTime()));
+            assertTrue(customer.getQueuedAt().isBefore(supermarket.getClosingTime()));
+            assertTrue(supermarket.getProducts().containsAll(customer.getItemsCart().keySet()));
+        }
+        assertEquals(40, zipCodes.size());
+        assertTrue(zipCodes.contains("1000AA"));
+    }
+
+    @Test
+    void t182_sameSeedGeneratesTheSameDay() throws IOException {
+        SupermarketGenerator generator = new SupermarketGenerator(42).customers(2000);
+        assertEquals(generate(generator), generate(generator));
+        assertEquals(generate(generator), generate(new SupermarketGenerator(42).customers(2000)));
+        assertNotEquals(generate(generator), generate(new SupermarketGenerator(43).customers(2000)));
+    }
+
+    @Test
+    void t183_customersArriveByTheArrivalRate() {
+        String file = tempDir.resolve("afternoon.txt").toString();
+        new SupermarketGenerator(3).openingHours(LocalTime.of(8, 0), LocalTime.of(20, 0)).customers(3000)
+                .arrivalRate(fractionOfDay -> fractionOfDay < 0.5 ? 0.0 : 1.0).generate(file);
+        Supermarket supermarket = new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create();
+        assertEquals(3000, supermarket.getNumberOfCustomers());
+        for (Customer customer : supermarket.getCustomers()) {
+            assertFalse(customer.getQueuedAt().isBefore(LocalTime.of(14, 0)));
+        }
+    }
+
+    @Test
+    void t184_invalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SupermarketGenerator(1).products(0));
+        assertThrows(IllegalArgumentException.class, () -> new SupermarketGenerator(1).customers(-1));
+        assertThrows(IllegalArgumentException.class, () -> new SupermarketGenerator(1).zipCodes(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SupermarketGenerator(1).openingHours(LocalTime.NOON, LocalTime.NOON));
+        assertThrows(IllegalArgumentException.class, () -> Distribution.geometric(0.5, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SupermarketGenerator(1).arrivalRate(fractionOfDay -> 0.0).generate(new StringWriter()));
+    }
+}
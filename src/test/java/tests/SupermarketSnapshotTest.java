@@ -0,0 +1,77 @@
+package tests;
+
+import model.Customer;
+import model.Supermarket;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import utilities.SupermarketBuilder;
+import utilities.SupermarketSnapshot;
+import utilities.SupermarketStreamLoader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class SupermarketSnapshotTest {
+
+    private static final String[] FILES = {"src/main/resources/jambi1Json.txt", "src/main/resources/jambi2Json.txt",
+            "src/main/resources/jambi5Json.txt", "src/main/resources/jambiBigJson.txt"};
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void t141_snapshotLoadsAnEqualSupermarket() {
+        for (String file : FILES) {
+            Supermarket built = new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create();
+            String snapshotFile = tempDir.resolve("day.snapshot").toString();
+            SupermarketSnapshot.convert(file, snapshotFile);
+            Supermarket loaded = SupermarketSnapshot.read(snapshotFile);
+
+            assertEquals(built.getName(), loaded.getName());
+            assertEquals(built.getOpenTime(), loaded.getOpenTime());
+            assertEquals(built.getClosingTime(), loaded.getClosingTime());
+            assertEquals(built.getProducts(), loaded.getProducts());
+            assertEquals(List.copyOf(built.getCustomers()), List.copyOf(loaded.getCustomers()));
+            for (Customer customer : built.getCustomers()) {
+                Customer loadedCustomer = loaded.getCustomers().stream().filter(customer::equals).findFirst().get();
+                assertEquals(customer.getItemsCart(), loadedCustomer.getItemsCart());
+            }
+            assertEquals(built.findNumberOfProductsBought(), loaded.findNumberOfProductsBought());
+            assertEquals(built.findHighestBill(), loaded.findHighestBill(), 0.0001);
+        }
+    }
+
+    @Test
+    void t142_productDescriptionsAreKept() {
+        String snapshotFile = tempDir.resolve("day.snapshot").toString();
+        SupermarketSnapshot.convert(FILES[2], snapshotFile);
+        Supermarket loaded = SupermarketSnapshot.read(snapshotFile);
+        assertEquals("Calve Pindakaas 650g", loaded.findMostBoughtProductByZipcode().get("1015DK").getDescription());
+    }
+
+    @Test
+    void t143_invalidSnapshotsAreRejected() throws IOException {
+        Path textFile = tempDir.resolve("text.snapshot");
+        Files.writeString(textFile, "Supermarket");
+        assertThrows(UncheckedIOException.class, () -> SupermarketSnapshot.read(textFile.toString()));
+
+        Path snapshotFile = tempDir.resolve("truncated.snapshot");
+        SupermarketSnapshot.convert(FILES[0], snapshotFile.toString());
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        Files.write(snapshotFile, java.util.Arrays.copyOf(bytes, bytes.length - 4));
+        assertThrows(UncheckedIOException.class, () -> SupermarketSnapshot.read(snapshotFile.toString()));
+    }
+
+    @Test
+    void t144_streamedSupermarketCannotBeWritten() {
+        Supermarket streamed = new SupermarketStreamLoader(FILES[0]).load();
+        assertThrows(IllegalArgumentException.class,
+                () -> SupermarketSnapshot.write(streamed, tempDir.resolve("day.snapshot").toString()));
+    }
+}
@@ -0,0 +1,107 @@
+package tests;
+
+import model.Customer;
+import model.Money;
+import model.Product;
+import model.Supermarket;
+import model.SupermarketStatistics;
+import org.junit.jupiter.api.*;
+import utilities.SupermarketBuilder;
+
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class SupermarketStatisticsTest {
+
+    private Product prod1 = new Product("A001", "Any-1", 1.0);
+    private Product prod2 = new Product("A002", "Any-2", 2.0);
+    private Customer customer1, customer2, customer3;
+
+    @BeforeEach
+    void setup() {
+        this.customer1 = new Customer(LocalTime.NOON, "1000AA");
+        this.customer1.addToCart(this.prod1, 3);
+        this.customer2 = new Customer(LocalTime.NOON.plusSeconds(10), "1000AB");
+        this.customer2.addToCart(this.prod1, 1);
+        this.customer2.addToCart(this.prod2, 2);
+        this.customer3 = new Customer(LocalTime.NOON.plusSeconds(20), "1000AB");
+    }
+
+    @Test
+    void t101_statisticsAreCalculatedInOnePass() {
+        SupermarketStatistics statistics = SupermarketStatistics.of(List.of(customer1, customer2, customer3));
+        assertEquals(3, statistics.getNumberOfCustomers());
+        assertEquals(6, statistics.getTotalNumberOfItems());
+        assertThat(statistics.getTotalRevenue(), is(closeTo(8.0, 0.001)));
+        assertThat(statistics.getAverageRevenue(), is(closeTo(8.0 / 3, 0.001)));
+        assertThat(statistics.getHighestBill(), is(closeTo(5.0, 0.001)));
+        assertEquals(customer2, statistics.getMostPayingCustomer());
+        assertEquals(Map.of(prod1, 4, prod2, 2), statistics.getNumberOfProductsBought());
+        assertEquals(Map.of(prod1, Set.of("1000AA", "1000AB"), prod2, Set.of("1000AB")), statistics.getZipcodesPerProduct());
+        assertEquals(Set.of(prod1), statistics.getMostPopularProducts());
+        assertEquals(Set.of("1000AA", "1000AB"), statistics.getNumberOfProductsByZipcode().keySet());
+        assertEquals(List.of("1000AB", "1000AA"), List.copyOf(statistics.getRevenueByZipcode().keySet()));
+    }
+
+    @Test
+    void t102_emptyStatisticsHaveNoMostPayingCustomer() {
+        SupermarketStatistics statistics = SupermarketStatistics.of(List.of());
+        assertEquals(0, statistics.getNumberOfCustomers());
+        assertEquals(0.0, statistics.getHighestBill());
+        assertEquals(0.0, statistics.getAverageRevenue());
+        assertNull(statistics.getMostPayingCustomer());
+        assertTrue(statistics.getMostPopularProducts().isEmpty());
+    }
+
+    @Test
+    void t103_snapshotMatchesSupermarketQueries() {
+        Supermarket supermarket = new SupermarketBuilder("src/main/resources/jambiBigJson.txt").initializeSupermarket().addProducts().addCustomers().create();
+        SupermarketStatistics statistics = supermarket.calculateStatistics();
+        assertEquals(supermarket.getTotalNumberOfItems(), statistics.getTotalNumberOfItems());
+        assertEquals(supermarket.findNumberOfProductsBought(), statistics.getNumberOfProductsBought());
+        assertEquals(supermarket.findZipcodesPerProduct(), statistics.getZipcodesPerProduct());
+        assertEquals(supermarket.findMostPopularProducts(), statistics.getMostPopularProducts());
+        assertEquals(supermarket.findMostBoughtProductByZipcode(), statistics.getMostBoughtProductByZipcode());
+        assertEquals(supermarket.findMostPayingCustomer(), statistics.getMostPayingCustomer());
+        assertThat(statistics.getTotalRevenue(), is(closeTo(supermarket.findTotalRevenue(), 0.001)));
+    }
+
+    @Test
+    void t104_snapshotCannotBeModified() {
+        SupermarketStatistics statistics = SupermarketStatistics.of(List.of(customer1));
+        assertThrows(UnsupportedOperationException.class, () -> statistics.getNumberOfProductsBought().put(prod2, 1));
+    }
+
+    @Test
+    void t105_revenuesAreExactInAnyOrder() {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Customer customer = new Customer(LocalTime.NOON.plusSeconds(i), "10" + (i % 7) + "0AA");
+            customer.addToCart(new Product("P" + i, "Any", 0.01 * (i + 1) + 0.1), i % 3 + 1);
+            customers.add(customer);
+        }
+        SupermarketStatistics expected = SupermarketStatistics.of(customers);
+        for (int seed = 0; seed < 10; seed++) {
+            Collections.shuffle(customers, new Random(seed));
+            SupermarketStatistics statistics = SupermarketStatistics.of(customers);
+            assertEquals(expected.getTotalRevenueInCents(), statistics.getTotalRevenueInCents());
+            assertEquals(expected.getTotalRevenue(), statistics.getTotalRevenue());
+            assertEquals(expected.getRevenueByZipcode(), statistics.getRevenueByZipcode());
+        }
+        assertEquals(Money.toEuros(expected.getTotalRevenueInCents()), expected.getTotalRevenue());
+    }
+
+    @Test
+    void t106_moneyIsParsedToCents() {
+        assertEquals(126, Money.parseCents("1.26"));
+        assertEquals(126, Money.toCents(1.26));
+        assertEquals(1000, Money.parseCents("10"));
+        assertEquals(1.26, Money.toEuros(126));
+    }
+}
@@ -0,0 +1,50 @@
+package tests;
+
+import model.Supermarket;
+import org.junit.jupiter.api.*;
+import utilities.SupermarketBuilder;
+import utilities.SupermarketStreamLoader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class SupermarketStreamLoaderTest {
+
+    private static final String[] FILES = {"src/main/resources/jambi1Json.txt", "src/main/resources/jambi2Json.txt",
+            "src/main/resources/jambi5Json.txt", "src/main/resources/jambiBigJson.txt"};
+
+    @Test
+    void t111_streamedStatisticsEqualBuiltStatistics() {
+        for (String file : FILES) {
+            Supermarket built = new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create();
+            Supermarket streamed = new SupermarketStreamLoader(file).load();
+            assertTrue(streamed.getCustomers().isEmpty(), "Streamed customers should not be retained");
+            assertEquals(built.getProducts(), streamed.getProducts());
+            assertEquals(built.getNumberOfCustomers(), streamed.getNumberOfCustomers());
+            assertEquals(built.getTotalNumberOfItems(), streamed.getTotalNumberOfItems());
+            assertEquals(built.findNumberOfProductsBought(), streamed.findNumberOfProductsBought());
+            assertEquals(built.findZipcodesPerProduct(), streamed.findZipcodesPerProduct());
+            assertEquals(built.getNumberOfProductsByZipcode(), streamed.getNumberOfProductsByZipcode());
+            assertEquals(built.findMostPopularProducts(), streamed.findMostPopularProducts());
+            assertEquals(built.findMostPayingCustomer(), streamed.findMostPayingCustomer());
+            assertEquals(built.countCustomersPerInterval(1), streamed.countCustomersPerInterval(1));
+            assertEquals(built.countCustomersPerInterval(15), streamed.countCustomersPerInterval(15));
+            assertThat(streamed.findTotalRevenue(), is(closeTo(built.findTotalRevenue(), 0.001)));
+            streamed.calculateRevenuePerInterval(15).forEach((startTime, revenue) ->
+                    assertThat(revenue, is(closeTo(built.calculateRevenuePerInterval(15).get(startTime), 0.001))));
+        }
+    }
+
+    @Test
+    void t112_customersCanBeRetained() {
+        for (String file : FILES) {
+            Supermarket built = new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create();
+            Supermarket streamed = new SupermarketStreamLoader(file).retainCustomers(true).load();
+            assertEquals(built.getCustomers(), streamed.getCustomers());
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package tests;
 
+import model.Customer;
 import model.Product;
 import model.Supermarket;
+import model.SupermarketStatistics;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.*;
 import utilities.SupermarketBuilder;
@@ -15,7 +17,10 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.number.IsCloseTo.closeTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @TestMethodOrder(MethodOrderer.Alphanumeric.class)
 class SupermarketTest {
@@ -127,6 +132,41 @@ class SupermarketTest {
         assertEquals(customersPerInterval.get(LocalTime.parse("12:04:00")), 1);
     }
 
+    @Test
+    void t044_customersOnIntervalBoundariesAreCounted() {
+        Supermarket supermarket = new Supermarket("Boundaries", LocalTime.parse("12:00:00"), LocalTime.parse("12:10:00"));
+        Product product = new Product("A001", "Any-1", 2.0);
+        for (String queuedAt : new String[]{"12:00:00", "12:04:59", "12:05:00", "12:10:00", "12:10:01"}) {
+            Customer customer = new Customer(LocalTime.parse(queuedAt), "1000AA");
+            customer.addToCart(product, 1);
+            supermarket.getCustomers().add(customer);
+        }
+        Map<LocalTime, Integer> customersPerInterval = supermarket.countCustomersPerInterval(5);
+        assertEquals(Map.of(LocalTime.parse("12:00:00"), 2, LocalTime.parse("12:05:00"), 2), customersPerInterval);
+        Map<LocalTime, Double> revenuePerInterval = supermarket.calculateRevenuePerInterval(5);
+        assertEquals(Map.of(LocalTime.parse("12:00:00"), 4.0, LocalTime.parse("12:05:00"), 4.0), revenuePerInterval);
+        assertEquals(10, supermarket.countCustomersPerInterval(1).size());
+        assertThrows(IllegalArgumentException.class, () -> supermarket.countCustomersPerInterval(0));
+    }
+
+    @Test
+    void t045_lastIntervalOfPartialLengthEndsAtClosingTime() {
+        Supermarket supermarket = new Supermarket("Partial", LocalTime.parse("08:00:00"), LocalTime.parse("08:20:00"));
+        Product product = new Product("A001", "Any-1", 2.0);
+        for (String queuedAt : new String[]{"08:14:59", "08:15:00", "08:15:01", "08:20:00", "08:20:01"}) {
+            Customer customer = new Customer(LocalTime.parse(queuedAt), "1000AA");
+            customer.addToCart(product, 1);
+            supermarket.getCustomers().add(customer);
+        }
+        assertEquals(Map.of(LocalTime.parse("08:00:00"), 1, LocalTime.parse("08:15:00"), 3),
+                supermarket.countCustomersPerInterval(15));
+        assertEquals(Map.of(LocalTime.parse("08:00:00"), 2.0, LocalTime.parse("08:15:00"), 6.0),
+                supermarket.calculateRevenuePerInterval(15));
+        supermarket.trackLiveStatistics();
+        assertEquals(Map.of(LocalTime.parse("08:00:00"), 1, LocalTime.parse("08:15:00"), 3),
+                supermarket.countCustomersPerInterval(15));
+    }
+
     private Map<LocalTime, Integer> produceCustomersPerInterval(Supermarket supermarket, int minutes) {
         return supermarket.countCustomersPerInterval(minutes);
     }
@@ -182,4 +222,41 @@ class SupermarketTest {
         assertNull(supermarket5.findMostBoughtProductByZipcode().get("1016DK"));
     }
 
+    @Test
+    void t056_statisticsAreCachedUntilSomethingChanges() {
+        SupermarketStatistics statistics = supermarket1.calculateStatistics();
+        assertSame(statistics, supermarket1.calculateStatistics());
+        supermarket1.printStatistics(new StringBuilder());
+        assertSame(statistics, supermarket1.calculateStatistics());
+
+        Product product = new Product("CRO001", "Croissant", 0.5);
+        supermarket1.getProducts().add(product);
+        statistics = assertRecalculated(supermarket1, statistics);
+
+        Customer customer = new Customer(LocalTime.of(9, 30), "1013MF");
+        supermarket1.getCustomers().add(customer);
+        statistics = assertRecalculated(supermarket1, statistics);
+        assertEquals(2, statistics.getNumberOfCustomers());
+
+        customer.addToCart(product, 3);
+        statistics = assertRecalculated(supermarket1, statistics);
+        assertEquals(13, supermarket1.getTotalNumberOfItems());
+        assertEquals(product, supermarket1.findMostBoughtProductByZipcode().get("1013MF"));
+
+        supermarket1.getCustomers().remove(customer);
+        statistics = assertRecalculated(supermarket1, statistics);
+        assertEquals(10, supermarket1.getTotalNumberOfItems());
+
+        // carts of removed customers no longer change the statistics
+        customer.addToCart(product, 1);
+        assertSame(statistics, supermarket1.calculateStatistics());
+    }
+
+    private SupermarketStatistics assertRecalculated(Supermarket supermarket, SupermarketStatistics previous) {
+        SupermarketStatistics statistics = supermarket.calculateStatistics();
+        assertNotSame(previous, statistics);
+        assertSame(statistics, supermarket.calculateStatistics());
+        return statistics;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package tests;
+
+import model.Customer;
+import model.Product;
+import model.Supermarket;
+import model.SupermarketStatistics;
+import model.TimeIndex;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import utilities.SupermarketBuilder;
+import utilities.SupermarketGenerator;
+
+import java.nio.file.Path;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class TimeIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Supermarket supermarket;
+
+    @BeforeEach
+    void setup() {
+        String file = tempDir.resolve("day.txt").toString();
+        new SupermarketGenerator(7).products(40).customers(3000).zipCodes(100).generate(file);
+        supermarket = new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create();
+    }
+
+    private boolean isBetween(Customer customer, LocalTime from, LocalTime to) {
+        return !customer.getQueuedAt().isBefore(from) && customer.getQueuedAt().isBefore(to);
+    }
+
+    @Test
+    void t241_rangesAreSummedLikeAScanOverTheCustomers() {
+        LocalTime[][] ranges = {{LocalTime.of(8, 0), LocalTime.of(9, 0)}, {LocalTime.of(12, 30, 15), LocalTime.of(13, 2, 7)},
+                {LocalTime.MIN, LocalTime.MAX}, {LocalTime.of(10, 0), LocalTime.of(10, 0)}, {LocalTime.of(15, 0), LocalTime.of(11, 0)}};
+        for (LocalTime[] range : ranges) {
+            int customers = 0;
+            long items = 0;
+            double revenue = 0;
+            for (Customer customer : supermarket.getCustomers()) {
+                if (isBetween(customer, range[0], range[1])) {
+                    customers++;
+                    items += customer.getNumberOfItems();
+                    revenue += customer.calculateTotalBill();
+                }
+            }
+            assertEquals(customers, supermarket.countCustomersBetween(range[0], range[1]), range[0] + "-" + range[1]);
+            assertEquals(items, supermarket.countItemsBetween(range[0], range[1]));
+            assertEquals(revenue, supermarket.findRevenueBetween(range[0], range[1]), 0.001);
+        }
+        TimeIndex index = supermarket.calculateStatistics().getTimeIndex();
+        assertSame(index, supermarket.calculateStatistics().getTimeIndex());
+        assertEquals(supermarket.getTotalNumberOfItems(), index.countItemsBetween(LocalTime.MIN, LocalTime.MAX));
+    }
+
+    private int countBetween(LocalTime from, LocalTime to) {
+        int customers = 0;
+        for (Customer customer : supermarket.getCustomers()) {
+            if (isBetween(customer, from, to)) {
+                customers++;
+            }
+        }
+        return customers;
+    }
+
+    @Test
+    void t242_busiestWindowIsTheEarliestPeak() {
+        LocalTime open = supermarket.getOpenTime();
+        LocalTime close = supermarket.getClosingTime();
+        for (int minutes : new int[]{1, 15, 60}) {
+            // every busiest window can be moved to start at a queued customer
+            int mostCustomers = 0;
+            for (Customer customer : supermarket.getCustomers()) {
+                LocalTime start = customer.getQueuedAt();
+                if (!start.isBefore(open) && !start.plusMinutes(minutes).isAfter(close)) {
+                    mostCustomers = Math.max(mostCustomers, countBetween(start, start.plusMinutes(minutes)));
+                }
+            }
+            LocalTime busiest = supermarket.findBusiestInterval(minutes);
+            assertEquals(mostCustomers, countBetween(busiest, busiest.plusMinutes(minutes)), "minutes " + minutes);
+            if (busiest.isAfter(open)) {
+                LocalTime earlier = busiest.minusSeconds(1);
+                assertTrue(countBetween(earlier, earlier.plusMinutes(minutes)) < mostCustomers);
+            }
+        }
+        LocalTime highest = supermarket.findHighestRevenueInterval(30);
+        double revenue = supermarket.findRevenueBetween(highest, highest.plusMinutes(30));
+        for (LocalTime start : supermarket.calculateRevenuePerInterval(30).keySet()) {
+            assertTrue(supermarket.findRevenueBetween(start, start.plusMinutes(30)) <= revenue + 0.001);
+        }
+    }
+
+    @Test
+    void t243_windowsOfAnEmptyOrShortDay() {
+        Supermarket empty = new Supermarket("Empty", LocalTime.of(8, 0), LocalTime.of(8, 10));
+        empty.initializeCollections();
+        assertEquals(0, empty.countCustomersBetween(LocalTime.MIN, LocalTime.MAX));
+        assertEquals(0, empty.findRevenueBetween(LocalTime.MIN, LocalTime.MAX), 0.001);
+        assertEquals(LocalTime.of(8, 0), empty.findBusiestInterval(5));
+        assertEquals(LocalTime.of(8, 0), empty.findBusiestInterval(60));
+        assertThrows(IllegalArgumentException.class, () -> empty.findBusiestInterval(0));
+        assertThrows(IllegalArgumentException.class, () -> supermarket.findHighestRevenueInterval(-1));
+    }
+
+    @Test
+    void t244_liveStatisticsAnswerRangesWithoutASnapshot() {
+        supermarket.trackLiveStatistics();
+        Product product = supermarket.getProducts().iterator().next();
+        Customer customer = new Customer(LocalTime.of(12, 30, 20), "9999ZZ");
+        supermarket.addCustomer(customer);
+        customer.addToCart(product, 40);
+        supermarket.getCustomers().remove(supermarket.getCustomers().iterator().next());
+
+        TimeIndex index = SupermarketStatistics.of(supermarket.getCustomers()).getTimeIndex();
+        LocalTime[][] ranges = {{LocalTime.of(8, 0), LocalTime.of(9, 0)}, {LocalTime.of(12, 30, 15), LocalTime.of(13, 2, 7)},
+                {LocalTime.MIN, LocalTime.MAX}, {LocalTime.of(15, 0), LocalTime.of(11, 0)}};
+        for (LocalTime[] range : ranges) {
+            assertEquals(index.countCustomersBetween(range[0], range[1]), supermarket.countCustomersBetween(range[0], range[1]));
+            assertEquals(index.countItemsBetween(range[0], range[1]), supermarket.countItemsBetween(range[0], range[1]));
+            assertEquals(index.revenueInCentsBetween(range[0], range[1]) / 100.0,
+                    supermarket.findRevenueBetween(range[0], range[1]), 0.001);
+        }
+        LocalTime open = supermarket.getOpenTime();
+        LocalTime close = supermarket.getClosingTime();
+        for (int minutes : new int[]{1, 15, 60}) {
+            assertEquals(index.findBusiestWindow(open, close, minutes), supermarket.findBusiestInterval(minutes));
+            assertEquals(index.findHighestRevenueWindow(open, close, minutes), supermarket.findHighestRevenueInterval(minutes));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package tests;
+
+import model.Customer;
+import model.Product;
+import model.Supermarket;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import utilities.SupermarketBuilder;
+import utilities.SupermarketGenerator;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class TopKTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Supermarket generated;
+
+    @BeforeEach
+    void setup() {
+        String file = tempDir.resolve("day.txt").toString();
+        new SupermarketGenerator(11).products(200).customers(3000).zipCodes(30).generate(file);
+        generated = new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create();
+    }
+
+    /**
+     * the expected top k of a full sort, which is stable so equal scores keep their order
+     */
+    private static <T> List<T> sortedTop(Collection<T> values, ToLongFunction<T> score, int k) {
+        List<T> sorted = new ArrayList<>(values);
+        sorted.sort(Comparator.comparingLong(score).reversed());
+        return sorted.subList(0, Math.min(k, sorted.size()));
+    }
+
+    @Test
+    void t201_topKIsTheStartOfAFullSort() {
+        Map<Product, Integer> bought = generated.findNumberOfProductsBought();
+        Map<Product, Set<String>> zipCodes = generated.findZipcodesPerProduct();
+        Map<String, Double> revenues = generated.getRevenueByZipcode();
+        for (int k : new int[]{0, 1, 2, 10, 199, 200, 500}) {
+            assertEquals(sortedTop(bought.keySet(), bought::get, k), new ArrayList<>(generated.findTopProductsByQuantity(k).keySet()));
+            assertEquals(sortedTop(zipCodes.keySet(), product -> zipCodes.get(product).size(), k),
+                    new ArrayList<>(generated.findTopProductsByZipcodes(k).keySet()));
+            assertEquals(sortedTop(revenues.keySet(), zipCode -> Math.round(revenues.get(zipCode) * 100), k),
+                    new ArrayList<>(generated.findTopZipcodesByRevenue(k).keySet()));
+            assertEquals(sortedTop(generated.getCustomers(), Customer::calculateTotalBillInCents, k),
+                    generated.findTopCustomersByBill(k));
+        }
+        Map.Entry<Product, Integer> top = generated.findTopProductsByQuantity(3).entrySet().iterator().next();
+        assertEquals(Collections.max(bought.values()), top.getValue());
+        assertThrows(IllegalArgumentException.class, () -> generated.findTopProductsByCustomers(-1));
+    }
+
+    @Test
+    void t202_mostPopularAndMostPayingAreTheTop1() {
+        Product mostPopular = generated.findTopProductsByCustomers(1).keySet().iterator().next();
+        assertTrue(generated.findMostPopularProducts().contains(mostPopular));
+        assertEquals(generated.findMostPayingCustomer(), generated.findTopCustomersByBill(1).get(0));
+        assertEquals(generated.findHighestBill(), generated.findTopCustomersByBill(1).get(0).calculateTotalBill(), 0.001);
+        double highestRevenue = generated.findTopZipcodesByRevenue(1).values().iterator().next();
+        assertEquals(Collections.max(generated.getRevenueByZipcode().values()), highestRevenue, 0.001);
+
+        List<Customer> topCustomers = generated.findTopCustomersByBill(25);
+        generated.trackLiveStatistics();
+        assertEquals(topCustomers.stream().map(Customer::calculateTotalBillInCents).collect(Collectors.toList()),
+                generated.findTopCustomersByBill(25).stream().map(Customer::calculateTotalBillInCents).collect(Collectors.toList()));
+        assertEquals(generated.findMostPayingCustomer(), generated.findTopCustomersByBill(1).get(0));
+    }
+}
@@ -0,0 +1,95 @@
+package tests;
+
+import model.Customer;
+import model.Supermarket;
+import model.ZipCodeDictionary;
+import model.ZipCodeIndex;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import utilities.SupermarketBuilder;
+import utilities.SupermarketGenerator;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class ZipCodeIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Supermarket supermarket;
+
+    @BeforeEach
+    void setup() {
+        String file = tempDir.resolve("day.txt").toString();
+        new SupermarketGenerator(5).products(50).customers(8000).zipCodes(2000).generate(file);
+        supermarket = new SupermarketBuilder(file).initializeSupermarket().addProducts().addCustomers().create();
+    }
+
+    private Map<String, Double> rollUp(int prefixLength) {
+        Map<String, Double> revenues = new TreeMap<>();
+        supermarket.getRevenueByZipcode().forEach((zipCode, revenue) ->
+                revenues.merge(zipCode.substring(0, prefixLength), revenue, Double::sum));
+        return revenues;
+    }
+
+    @Test
+    void t231_revenuesAreRolledUpByAreaAndRegion() {
+        for (int prefixLength : new int[]{ZipCodeIndex.REGION, 3, ZipCodeIndex.AREA, 6}) {
+            Map<String, Double> expected = rollUp(prefixLength);
+            Map<String, Double> revenues = supermarket.getRevenueByZipcodePrefix(prefixLength);
+            assertEquals(expected.keySet().toString(), revenues.keySet().toString());
+            expected.forEach((prefix, revenue) -> assertEquals(revenue, revenues.get(prefix), 0.001));
+        }
+        assertTrue(supermarket.getRevenueByZipcodePrefix(ZipCodeIndex.AREA).size() > 1);
+        assertEquals(supermarket.getRevenueByZipcode().size(), supermarket.getRevenueByZipcodePrefix(10).size());
+        assertThrows(IllegalArgumentException.class, () -> supermarket.getRevenueByZipcodePrefix(0));
+    }
+
+    @Test
+    void t232_revenueOfARangeOfZipCodes() {
+        Map<String, Double> revenues = supermarket.getRevenueByZipcode();
+        String[][] ranges = {{"1000AA", "1000ZZ"}, {"1001", "1003"}, {"1000AC", "1000AC"}, {"0", "9"}, {"1003", "1001"}, {"9000", "9999"}};
+        for (String[] range : ranges) {
+            double expected = 0;
+            for (Map.Entry<String, Double> entry : revenues.entrySet()) {
+                if (entry.getKey().compareTo(range[0]) >= 0 && entry.getKey().compareTo(range[1]) <= 0) {
+                    expected += entry.getValue();
+                }
+            }
+            assertEquals(expected, supermarket.findRevenueOfZipcodes(range[0], range[1]), 0.001, String.join("-", range));
+        }
+        assertEquals(supermarket.findTotalRevenue(), supermarket.findRevenueOfZipcodes("0", "9"), 0.001);
+
+        ZipCodeIndex index = supermarket.calculateStatistics().getZipCodeIndex();
+        assertSame(index, supermarket.calculateStatistics().getZipCodeIndex());
+        assertEquals(supermarket.getTotalNumberOfItems(), index.numberOfItemsBetween("0", "9"));
+        assertEquals(index.numberOfItemsBetween("1000", "1000" + Character.MAX_VALUE), index.numberOfItemsOfPrefix("1000"));
+        assertEquals(revenues.size(), index.size());
+        assertTrue(index.zipCodeAt(0).compareTo(index.zipCodeAt(1)) < 0);
+    }
+
+    @Test
+    void t233_zipCodesAreSharedAfterLoading() {
+        Map<String, String> firstInstances = new HashMap<>();
+        for (Customer customer : supermarket.getCustomers()) {
+            String first = firstInstances.putIfAbsent(customer.getZipCode(), customer.getZipCode());
+            if (first != null) {
+                assertSame(first, customer.getZipCode());
+            }
+        }
+        ZipCodeDictionary zipCodes = new ZipCodeDictionary();
+        assertEquals(0, zipCodes.idOf("1015MF"));
+        assertEquals(1, zipCodes.idOf("1013MF"));
+        assertEquals(0, zipCodes.idOf(new String("1015MF")));
+        assertEquals(ZipCodeDictionary.NO_ZIP_CODE, zipCodes.idOf(null));
+        assertEquals("1013MF", zipCodes.zipCodeOf(1));
+        assertSame(zipCodes.zipCodeOf(0), zipCodes.intern(new String("1015MF")));
+        assertEquals(2, zipCodes.size());
+    }
+}
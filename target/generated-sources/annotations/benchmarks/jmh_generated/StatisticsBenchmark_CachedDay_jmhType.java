@@ -0,0 +1,4 @@
+package benchmarks.jmh_generated;
+public class StatisticsBenchmark_CachedDay_jmhType extends StatisticsBenchmark_CachedDay_jmhType_B3 {
+}
+
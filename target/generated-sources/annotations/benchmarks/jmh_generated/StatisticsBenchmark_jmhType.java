@@ -0,0 +1,4 @@
+package benchmarks.jmh_generated;
+public class StatisticsBenchmark_jmhType extends StatisticsBenchmark_jmhType_B3 {
+}
+